@@ -4,6 +4,7 @@ import scrabble.core.components.Bag;
 import scrabble.core.components.Board;
 import scrabble.core.components.DrawHandler;
 import scrabble.core.components.Rack;
+import scrabble.core.components.Zobrist;
 
 import scrabble.rules.MoveScorer;
 import scrabble.rules.game.*;
@@ -112,4 +113,15 @@ public final class GameState {
     public boolean isFirstMove() {
         return isFirstMove;
     }
+
+    /**
+     * 64-bit Zobrist hash of the board, the bag, both racks and the player to
+     * move, see Zobrist. Scores are not part of it. The state does not know
+     * whose turn it is, so the caller says.
+     */
+    public long zobristHash(int playerToMove) {
+        long hash = board.zobristHash() ^ bag.zobristHash() ^ racks[0].zobristHash()
+                ^ Zobrist.secondRack(racks[1].zobristHash());
+        return playerToMove == 0 ? hash : hash ^ Zobrist.secondPlayer();
+    }
 }
@@ -1,15 +1,19 @@
 package scrabble.core;
 
+import java.util.Arrays;
 import java.util.function.BiConsumer;
 
 import scrabble.core.Position.Step;
-import scrabble.rules.game.BoardConstants;
 
+/**
+ * A move as positions and tiles. Moves in one line are also kept packed, see
+ * PackedMove, which is what they are compared and hashed by.
+ */
 public class Move {
     private final Position[] positions;
     private final char[] tiles;
     private final Step step;
-    private final boolean[] placedLookup;
+    private final long packed;
 
     public Move(Position[] positions, char[] tiles) {
         if (positions.length != tiles.length) {
@@ -18,11 +22,7 @@ public class Move {
         this.positions = positions;
         this.tiles = tiles;
         this.step = stepFromArray();
-
-        placedLookup = new boolean[BoardConstants.TOTAL_SIZE];
-        for (Position pos : positions) {
-            placedLookup[pos.toIndex()] = true;
-        }
+        this.packed = PackedMove.tryPack(positions, tiles);
     }
 
     public Position getStartPosition() {
@@ -59,7 +59,16 @@ public class Move {
     }
 
     public boolean isPlaced(Position pos) {
-        return placedLookup[pos.toIndex()];
+        for (Position position : positions) {
+            if (position.equals(pos))
+                return true;
+        }
+        return false;
+    }
+
+    // The packed move, or PackedMove.NONE if the tiles are not in one line
+    public long getPacked() {
+        return packed;
     }
 
     @Override
@@ -70,30 +79,20 @@ public class Move {
             return false;
         Move other = (Move) o;
 
-        if (positions.length != other.positions.length)
-            return false;
-        if (tiles.length != other.tiles.length)
+        if (packed != other.packed)
             return false;
 
-        for (int i = 0; i < positions.length; i++) {
-            if (!positions[i].equals(other.positions[i])) {
-                return false;
-            }
-            if (tiles[i] != other.tiles[i]) {
-                return false;
-            }
-        }
-        return true;
+        // Packed moves leave out the squares between the tiles
+        if (packed == PackedMove.NONE && !Arrays.equals(tiles, other.tiles))
+            return false;
+        return Arrays.equals(positions, other.positions);
     }
 
     @Override
     public int hashCode() {
-        int result = 1;
-        for (int i = 0; i < positions.length; i++) {
-            result = 31 * result + positions[i].hashCode();
-            result = 31 * result + Character.hashCode(tiles[i]);
-        }
-        return result;
+        if (packed != PackedMove.NONE)
+            return PackedMove.hash(packed);
+        return 31 * Arrays.hashCode(positions) + Arrays.hashCode(tiles);
     }
 
     @Override
@@ -0,0 +1,110 @@
+package scrabble.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import scrabble.core.components.Board;
+
+/**
+ * A growable list of packed moves, see PackedMove, each with its score.
+ * Clearing keeps the arrays, so one list can be refilled every turn without
+ * allocating.
+ */
+public final class MoveList {
+    // Score of a move added without one
+    public static final int NO_SCORE = Integer.MIN_VALUE;
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private long[] moves;
+    private int[] scores;
+    private int size;
+
+    public MoveList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public MoveList(int capacity) {
+        moves = new long[Math.max(1, capacity)];
+        scores = new int[moves.length];
+    }
+
+    public void add(long move) {
+        add(move, NO_SCORE);
+    }
+
+    public void add(long move, int score) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, moves.length * 2);
+            scores = Arrays.copyOf(scores, moves.length);
+        }
+        moves[size] = move;
+        scores[size++] = score;
+    }
+
+    public long get(int index) {
+        checkIndex(index);
+        return moves[index];
+    }
+
+    public int getScore(int index) {
+        checkIndex(index);
+        return scores[index];
+    }
+
+    public void set(int index, long move, int score) {
+        checkIndex(index);
+        moves[index] = move;
+        scores[index] = score;
+    }
+
+    public long removeLast() {
+        if (size == 0)
+            throw new IllegalStateException("The list is empty");
+        return moves[--size];
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size)
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public boolean contains(long move) {
+        for (int i = 0; i < size; i++) {
+            if (moves[i] == move)
+                return true;
+        }
+        return false;
+    }
+
+    public long[] toArray() {
+        return Arrays.copyOf(moves, size);
+    }
+
+    public LongStream stream() {
+        return Arrays.stream(moves, 0, size);
+    }
+
+    // The moves as Move objects, on the board they are made on
+    public List<Move> toMoves(Board board) {
+        List<Move> result = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            result.add(PackedMove.toMove(moves[i], board));
+        }
+        return result;
+    }
+}
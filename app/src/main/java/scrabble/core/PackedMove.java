@@ -0,0 +1,227 @@
+package scrabble.core;
+
+import scrabble.core.components.Board;
+import scrabble.rules.game.BagConstants;
+import scrabble.rules.game.BoardConstants;
+import scrabble.rules.game.GameConstants;
+
+/**
+ * A move packed into a long, for keeping many candidates without an object
+ * each. From the lowest bit:
+ *
+ * <pre>
+ *  0-7   square of the first placed tile
+ *  8     set if the tiles are placed downwards
+ *  9-11  number of tiles
+ *  12-15 distance from the first to the last placed tile
+ *  16-57 the tiles, six bits each: the letter index and a blank flag
+ * </pre>
+ *
+ * The squares in between are not stored. On the board the move is made on,
+ * the tiles fill the empty squares from the first square onwards, so a packed
+ * move is only meaningful together with that board.
+ */
+public final class PackedMove {
+    // Never a valid move, which always has at least one tile
+    public static final long NONE = -1L;
+
+    public static final int MAX_TILES = 7;
+
+    private static final int VERTICAL_SHIFT = 8;
+    private static final int COUNT_SHIFT = 9;
+    private static final int SPAN_SHIFT = 12;
+    private static final int TILES_SHIFT = 16;
+    private static final int BITS_PER_TILE = 6;
+    private static final int LETTER_MASK = 0x1F;
+    private static final int BLANK_FLAG = 0x20;
+
+    private PackedMove() {
+    }
+
+    public static long of(Move move) {
+        long packed = tryPack(move.getPositions(), move.getTiles());
+        if (packed == NONE)
+            throw new IllegalArgumentException("Move cannot be packed: " + move);
+        return packed;
+    }
+
+    /**
+     * Packs the tiles placed on the squares, which must be in one line in
+     * increasing order. Returns NONE if they are not.
+     */
+    static long tryPack(Position[] positions, char[] tiles) {
+        int count = positions.length;
+        if (count == 0 || count > MAX_TILES || BoardConstants.TOTAL_SIZE > 256 || BoardConstants.SIZE > 16)
+            return NONE;
+
+        Position first = positions[0];
+        Position last = positions[count - 1];
+        boolean isVertical = count > 1 && first.column() == last.column();
+
+        long packed = first.toIndex();
+        for (int i = 0; i < count; i++) {
+            Position position = positions[i];
+            if (position.row() < 0 || position.row() >= BoardConstants.SIZE || position.column() < 0
+                    || position.column() >= BoardConstants.SIZE)
+                return NONE;
+            if (isVertical ? position.column() != first.column() : position.row() != first.row())
+                return NONE;
+            if (i > 0 && offset(positions[i - 1], isVertical) >= offset(position, isVertical))
+                return NONE;
+
+            char tile = tiles[i];
+            if (!BagConstants.isValidLetter(Character.toUpperCase(tile)))
+                return NONE;
+            int letter = BagConstants.getIndex(tile);
+            if (letter > LETTER_MASK)
+                return NONE;
+            int code = BoardConstants.isBlank(tile) ? letter | BLANK_FLAG : letter;
+            packed |= (long) code << (TILES_SHIFT + BITS_PER_TILE * i);
+        }
+
+        int span = offset(last, isVertical) - offset(first, isVertical);
+        return packed | (isVertical ? 1L << VERTICAL_SHIFT : 0) | ((long) count << COUNT_SHIFT)
+                | ((long) span << SPAN_SHIFT);
+    }
+
+    /**
+     * A move with no tiles yet, to be added with withTile. The span is the
+     * distance from the first to the last tile. A single tile is always
+     * packed as placed across.
+     */
+    public static long header(int square, boolean isVertical, int span) {
+        return square | (isVertical ? 1L << VERTICAL_SHIFT : 0) | ((long) span << SPAN_SHIFT);
+    }
+
+    // Adds the next tile, lower case for a blank
+    public static long withTile(long move, char tile) {
+        int i = tileCount(move);
+        int letter = BagConstants.getIndex(tile);
+        int code = BoardConstants.isBlank(tile) ? letter | BLANK_FLAG : letter;
+        return (move + (1L << COUNT_SHIFT)) | ((long) code << (TILES_SHIFT + BITS_PER_TILE * i));
+    }
+
+    private static int offset(Position position, boolean isVertical) {
+        return isVertical ? position.row() : position.column();
+    }
+
+    public static int start(long move) {
+        return (int) (move & 0xFF);
+    }
+
+    public static boolean isVertical(long move) {
+        return (move & (1L << VERTICAL_SHIFT)) != 0;
+    }
+
+    public static int tileCount(long move) {
+        return (int) (move >>> COUNT_SHIFT) & 0x7;
+    }
+
+    public static int span(long move) {
+        return (int) (move >>> SPAN_SHIFT) & 0xF;
+    }
+
+    // Distance between two squares of the move's line
+    public static int step(long move) {
+        return isVertical(move) ? BoardConstants.SIZE : 1;
+    }
+
+    public static int letterIndex(long move, int i) {
+        return code(move, i) & LETTER_MASK;
+    }
+
+    public static boolean isBlank(long move, int i) {
+        return (code(move, i) & BLANK_FLAG) != 0;
+    }
+
+    // The tile as it is written on the board, lower case for a blank
+    public static char tile(long move, int i) {
+        char letter = BagConstants.INDEX_TO_CHAR[letterIndex(move, i)];
+        return isBlank(move, i) ? Character.toLowerCase(letter) : letter;
+    }
+
+    private static int code(long move, int i) {
+        return (int) (move >>> (TILES_SHIFT + BITS_PER_TILE * i)) & (LETTER_MASK | BLANK_FLAG);
+    }
+
+    /**
+     * Fills the squares the move places its tiles on, on the board it is made
+     * on. Returns the number of tiles.
+     */
+    public static int squares(long move, Board board, int[] squares) {
+        int count = tileCount(move);
+        int step = step(move);
+        int square = start(move);
+        int last = square + span(move) * step;
+        checkRow(move, square, last);
+
+        for (int i = 0; i < count; square += step) {
+            if (square > last || square >= BoardConstants.TOTAL_SIZE || (i == 0 && !board.isEmpty(square)))
+                throw new IllegalArgumentException("Move does not fit the board: " + toString(move));
+            if (board.isEmpty(square))
+                squares[i++] = square;
+        }
+        if (square - step != last)
+            throw new IllegalArgumentException("Move does not fit the board: " + toString(move));
+        return count;
+    }
+
+    // Same as above, on the tiles of a board that is changed in place
+    static int squares(long move, char[] board, int[] squares) {
+        int count = tileCount(move);
+        int step = step(move);
+        int square = start(move);
+        int last = square + span(move) * step;
+        checkRow(move, square, last);
+
+        for (int i = 0; i < count; square += step) {
+            // Checked before the square is read, so a move that runs off the
+            // board fails like any other that does not fit
+            if (square > last || square >= board.length)
+                throw new IllegalArgumentException("Move does not fit the board: " + toString(move));
+            boolean isEmpty = board[square] == GameConstants.EMPTY_SQUARE;
+            if (i == 0 && !isEmpty)
+                throw new IllegalArgumentException("Move does not fit the board: " + toString(move));
+            if (isEmpty)
+                squares[i++] = square;
+        }
+        if (square - step != last)
+            throw new IllegalArgumentException("Move does not fit the board: " + toString(move));
+        return count;
+    }
+
+    // A horizontal move must end on the row it starts on, rather than wrap
+    // onto the next
+    private static void checkRow(long move, int first, int last) {
+        if (!isVertical(move) && first / BoardConstants.SIZE != last / BoardConstants.SIZE)
+            throw new IllegalArgumentException("Move does not fit the board: " + toString(move));
+    }
+
+    public static Move toMove(long move, Board board) {
+        int[] squares = new int[tileCount(move)];
+        squares(move, board, squares);
+
+        Position[] positions = new Position[squares.length];
+        char[] tiles = new char[squares.length];
+        for (int i = 0; i < squares.length; i++) {
+            positions[i] = Position.fromIndex(squares[i]);
+            tiles[i] = tile(move, i);
+        }
+        return new Move(positions, tiles);
+    }
+
+    public static int hash(long move) {
+        long h = move * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    public static String toString(long move) {
+        StringBuilder sb = new StringBuilder();
+        Position start = Position.fromIndex(start(move));
+        sb.append(start.row()).append(',').append(start.column()).append(isVertical(move) ? " down " : " across ");
+        for (int i = 0; i < tileCount(move); i++) {
+            sb.append(tile(move, i));
+        }
+        return sb.toString();
+    }
+}
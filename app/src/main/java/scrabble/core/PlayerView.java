@@ -3,7 +3,10 @@ package scrabble.core;
 import scrabble.core.components.Bag;
 import scrabble.core.components.Board;
 import scrabble.core.components.Rack;
+import scrabble.core.components.Zobrist;
 import scrabble.rules.MoveScorer;
+import scrabble.rules.game.BagConstants;
+import scrabble.rules.game.BoardConstants;
 
 public final class PlayerView {
     private final Board board;
@@ -23,16 +26,33 @@ public final class PlayerView {
     }
 
     public PlayerView applyMove(Move move) {
+        return applyMove(move, MoveScorer.score(board, move));
+    }
+
+    // Same as applyMove(move) for a move whose score is already known, such as
+    // one from MoveGenerator.generateLegalMoves
+    public PlayerView applyMove(Move move, int score) {
         Board newBoard = board.placeWord(move);
 
-        Rack newRack = rack.removeTiles(move.getTiles());
+        Rack newRack = rack.removeTiles(rackTiles(move.getTiles()));
 
         int[] newScores = scores.clone();
-        newScores[playerId] += MoveScorer.score(newBoard, move);
+        newScores[playerId] += score;
 
         return new PlayerView(newBoard, bag, newRack, newScores, playerId, false);
     }
 
+    // A blank is written as its letter in lower case on the board, but is a
+    // blank on the rack
+    private static char[] rackTiles(char[] tiles) {
+        char[] rackTiles = tiles.clone();
+        for (int i = 0; i < rackTiles.length; i++) {
+            if (BoardConstants.isBlank(rackTiles[i]))
+                rackTiles[i] = BagConstants.BLANK;
+        }
+        return rackTiles;
+    }
+
     public static PlayerView fromGameState(GameState gameState, int playerId) {
         Board newBoard = gameState.getBoard();
 
@@ -68,4 +88,14 @@ public final class PlayerView {
     public boolean isFirstMove() {
         return isFirstMove;
     }
+
+    /**
+     * 64-bit Zobrist hash of the board, the unseen tiles, the rack and the
+     * player, see Zobrist. Scores are not part of it. Each part keeps its own
+     * hash up to date, so this is a few XORs.
+     */
+    public long zobristHash() {
+        long hash = board.zobristHash() ^ bag.zobristHash() ^ rack.zobristHash();
+        return playerId == 0 ? hash : hash ^ Zobrist.secondPlayer();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,419 @@
+package scrabble.core;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+import scrabble.core.components.Bag;
+import scrabble.core.components.Board;
+import scrabble.core.components.Rack;
+import scrabble.core.components.Zobrist;
+import scrabble.rules.game.BagConstants;
+import scrabble.rules.game.GameConstants;
+
+/**
+ * A game position that is changed in place, for searches that play many
+ * moves ahead and take them back again. GameState and PlayerView copy the
+ * board, racks and bag on every move; this keeps one copy of each and a
+ * history of the changes, so a move, a draw or an exchange costs work in
+ * proportion to the tiles it moves and allocates nothing once the history
+ * has grown.
+ *
+ * Every change is undone with its own undo method, last change first. The
+ * Zobrist hash is kept up to date and equals GameState.zobristHash for the
+ * same position and player to move. Convert at the edges with of(...) and
+ * toGameState() or toPlayerView(). A state belongs to one thread.
+ */
+public final class SearchState {
+    private static final byte MOVE = 0;
+    private static final byte DRAW = 1;
+    private static final byte EXCHANGE = 2;
+
+    // Tile lists in the history: the count in the low bits, then the letter
+    // indexes
+    private static final int COUNT_BITS = 4;
+    private static final int LETTER_BITS = 6;
+    private static final int LETTER_MASK = (1 << LETTER_BITS) - 1;
+
+    private final char[] board;
+    private final byte[][] racks;
+    private final int[] rackSizes;
+    private final byte[] bag;
+    private int bagSize;
+    private final int[] scores;
+    private int playerToMove;
+    private int tilesOnBoard;
+    private long hash;
+
+    // The changes made, with what it takes to undo them: for a move the move,
+    // its score and its squares, for a draw the tiles drawn and the player,
+    // for an exchange the tiles returned and the tiles drawn
+    private byte[] kinds = new byte[16];
+    private long[] firsts = new long[16];
+    private long[] seconds = new long[16];
+    private int[][] squares = new int[16][];
+    private int depth;
+
+    private final int blankIndex = BagConstants.getIndex(BagConstants.BLANK);
+    private final int[] letters = new int[GameConstants.RACK_SIZE];
+
+    private SearchState(Board board, Bag bag, Rack[] racks, int[] scores, int playerToMove) {
+        this.board = board.getBoard();
+        this.bag = bag.getFrequencyMap();
+        this.bagSize = bag.size();
+        this.racks = new byte[][] { racks[0].getFrequencyMap(), racks[1].getFrequencyMap() };
+        this.rackSizes = new int[] { racks[0].size(), racks[1].size() };
+        this.scores = scores.clone();
+        this.playerToMove = playerToMove;
+        this.hash = board.zobristHash() ^ bag.zobristHash() ^ racks[0].zobristHash()
+                ^ Zobrist.secondRack(racks[1].zobristHash()) ^ (playerToMove == 0 ? 0 : Zobrist.secondPlayer());
+
+        for (char tile : this.board) {
+            if (tile != GameConstants.EMPTY_SQUARE)
+                tilesOnBoard++;
+        }
+        for (int i = 0; i < squares.length; i++) {
+            squares[i] = new int[PackedMove.MAX_TILES];
+        }
+    }
+
+    public static SearchState of(GameState gameState, int playerToMove) {
+        return new SearchState(gameState.getBoard(), gameState.getBag(), gameState.getRacks(),
+                gameState.getScores(), playerToMove);
+    }
+
+    // The position the player sees, with the opponent holding the given rack
+    public static SearchState of(PlayerView playerView, Rack opponentRack) {
+        return of(GameState.fromPlayerView(playerView, opponentRack), playerView.getPlayerId());
+    }
+
+    /**
+     * Plays the packed move for the player to move, taking its tiles from the
+     * rack, and passes the turn. Blanks come off the rack as blanks. The move
+     * must fit the board and the rack, which is checked before anything
+     * changes.
+     */
+    public void doMove(long move, int score) {
+        int count = PackedMove.tileCount(move);
+        int[] placed = nextSquares();
+        PackedMove.squares(move, board, placed);
+        for (int i = 0; i < count; i++) {
+            letters[i] = rackLetter(move, i);
+        }
+        checkRack(count);
+
+        push(MOVE, move, score);
+        for (int i = 0; i < count; i++) {
+            char tile = PackedMove.tile(move, i);
+            board[placed[i]] = tile;
+            hash ^= Zobrist.square(placed[i], tile);
+            removeFromRack(playerToMove, rackLetter(move, i));
+        }
+        tilesOnBoard += count;
+        scores[playerToMove] += score;
+        switchPlayer();
+    }
+
+    public void undoMove() {
+        pop(MOVE);
+        switchPlayer();
+        long move = firsts[depth];
+        int[] placed = squares[depth];
+        scores[playerToMove] -= (int) seconds[depth];
+
+        int count = PackedMove.tileCount(move);
+        for (int i = 0; i < count; i++) {
+            hash ^= Zobrist.square(placed[i], board[placed[i]]);
+            board[placed[i]] = GameConstants.EMPTY_SQUARE;
+            addToRack(playerToMove, rackLetter(move, i));
+        }
+        tilesOnBoard -= count;
+    }
+
+    /**
+     * Fills the player's rack from the bag at random, as far as the bag
+     * allows. The turn does not change.
+     */
+    public void draw(int player, RandomGenerator random) {
+        long drawn = drawTiles(player, GameConstants.RACK_SIZE - rackSizes[player], random);
+        push(DRAW, drawn, player);
+    }
+
+    public void undoDraw() {
+        pop(DRAW);
+        int player = (int) seconds[depth];
+        returnTiles(player, firsts[depth]);
+    }
+
+    /**
+     * Exchanges tiles for the player to move and passes the turn. The new
+     * tiles are drawn before the old ones go back, so a tile is never drawn
+     * again straight away. No tiles is a pass.
+     */
+    public void exchange(char[] tiles, RandomGenerator random) {
+        if (tiles.length > bagSize || tiles.length > rackSizes[playerToMove])
+            throw new IllegalStateException("Cannot exchange " + tiles.length + " tiles from a rack of "
+                    + rackSizes[playerToMove] + " and a bag of " + bagSize);
+        for (int i = 0; i < tiles.length; i++) {
+            letters[i] = BagConstants.getIndex(tiles[i]);
+        }
+        checkRack(tiles.length);
+
+        long returned = tiles.length;
+        for (int i = 0; i < tiles.length; i++) {
+            removeFromRack(playerToMove, letters[i]);
+            returned |= (long) letters[i] << COUNT_BITS + LETTER_BITS * i;
+        }
+
+        long drawn = drawTiles(playerToMove, tiles.length, random);
+        for (int i = 0; i < tiles.length; i++) {
+            addToBag(letterAt(returned, i));
+        }
+        push(EXCHANGE, returned, drawn);
+        switchPlayer();
+    }
+
+    public void undoExchange() {
+        pop(EXCHANGE);
+        switchPlayer();
+        long returned = firsts[depth];
+        for (int i = 0; i < tileCount(returned); i++) {
+            int letter = letterAt(returned, i);
+            removeFromBag(letter);
+            addToRack(playerToMove, letter);
+        }
+        returnTiles(playerToMove, seconds[depth]);
+    }
+
+    // Passes the turn, undone with undoExchange like any exchange
+    public void pass() {
+        push(EXCHANGE, 0, 0);
+        switchPlayer();
+    }
+
+    // Draws up to count tiles onto the player's rack, as a tile list
+    private long drawTiles(int player, int count, RandomGenerator random) {
+        count = Math.min(count, bagSize);
+        long drawn = count;
+        for (int n = 0; n < count; n++) {
+            int r = random.nextInt(bagSize);
+            int letter = 0;
+            while (r >= bag[letter]) {
+                r -= bag[letter++];
+            }
+            removeFromBag(letter);
+            addToRack(player, letter);
+            drawn |= (long) letter << COUNT_BITS + LETTER_BITS * n;
+        }
+        return drawn;
+    }
+
+    // Puts the listed tiles from the player's rack back in the bag
+    private void returnTiles(int player, long tiles) {
+        for (int i = 0; i < tileCount(tiles); i++) {
+            int letter = letterAt(tiles, i);
+            removeFromRack(player, letter);
+            addToBag(letter);
+        }
+    }
+
+    // Checks that the player to move holds the first count letters, repeats
+    // included, before anything is changed
+    private void checkRack(int count) {
+        byte[] rack = racks[playerToMove];
+        for (int i = 0; i < count; i++) {
+            int needed = 0;
+            for (int j = 0; j <= i; j++) {
+                if (letters[j] == letters[i])
+                    needed++;
+            }
+            if (rack[letters[i]] < needed)
+                throw new IllegalStateException(
+                        "Tile '" + BagConstants.INDEX_TO_CHAR[letters[i]] + "' is not on the rack");
+        }
+    }
+
+    private static int tileCount(long tiles) {
+        return (int) tiles & (1 << COUNT_BITS) - 1;
+    }
+
+    private static int letterAt(long tiles, int i) {
+        return (int) (tiles >>> COUNT_BITS + LETTER_BITS * i) & LETTER_MASK;
+    }
+
+    // The rack tile a placed tile came from
+    private int rackLetter(long move, int i) {
+        return PackedMove.isBlank(move, i) ? blankIndex : PackedMove.letterIndex(move, i);
+    }
+
+    private void addToRack(int player, int letter) {
+        hash ^= rackKey(player, letter, racks[player][letter]++);
+        rackSizes[player]++;
+    }
+
+    private void removeFromRack(int player, int letter) {
+        hash ^= rackKey(player, letter, --racks[player][letter]);
+        rackSizes[player]--;
+    }
+
+    private static long rackKey(int player, int letter, int copy) {
+        long key = Zobrist.rackTile(letter, copy);
+        return player == 0 ? key : Zobrist.secondRack(key);
+    }
+
+    private void addToBag(int letter) {
+        hash ^= Zobrist.bagTile(letter, bag[letter]++);
+        bagSize++;
+    }
+
+    private void removeFromBag(int letter) {
+        hash ^= Zobrist.bagTile(letter, --bag[letter]);
+        bagSize--;
+    }
+
+    private void switchPlayer() {
+        playerToMove = 1 - playerToMove;
+        hash ^= Zobrist.secondPlayer();
+    }
+
+    // The squares of the next change, growing the history if needed
+    private int[] nextSquares() {
+        if (depth == kinds.length) {
+            int length = 2 * depth;
+            kinds = Arrays.copyOf(kinds, length);
+            firsts = Arrays.copyOf(firsts, length);
+            seconds = Arrays.copyOf(seconds, length);
+            squares = Arrays.copyOf(squares, length);
+            for (int i = depth; i < length; i++) {
+                squares[i] = new int[PackedMove.MAX_TILES];
+            }
+        }
+        return squares[depth];
+    }
+
+    private void push(byte kind, long first, long second) {
+        nextSquares();
+        kinds[depth] = kind;
+        firsts[depth] = first;
+        seconds[depth] = second;
+        depth++;
+    }
+
+    private void pop(byte kind) {
+        if (depth == 0 || kinds[depth - 1] != kind)
+            throw new IllegalStateException("The last change to undo is not a " + kindName(kind));
+        depth--;
+    }
+
+    private static String kindName(byte kind) {
+        return switch (kind) {
+            case MOVE -> "move";
+            case DRAW -> "draw";
+            default -> "exchange";
+        };
+    }
+
+    public char tileAt(int square) {
+        return board[square];
+    }
+
+    public boolean isEmpty(int square) {
+        return board[square] == GameConstants.EMPTY_SQUARE;
+    }
+
+    public boolean isFirstMove() {
+        return tilesOnBoard == 0;
+    }
+
+    // Squares with a tile, out of BoardConstants.TOTAL_SIZE
+    public int tilesOnBoard() {
+        return tilesOnBoard;
+    }
+
+    public int getPlayerToMove() {
+        return playerToMove;
+    }
+
+    public int getScore(int player) {
+        return scores[player];
+    }
+
+    public int rackSize(int player) {
+        return rackSizes[player];
+    }
+
+    // The player's tiles in letter order, as Rack.getLetters
+    public char[] rackLetters(int player) {
+        char[] letters = new char[rackSizes[player]];
+        int index = 0;
+        for (int letter = 0; letter < BagConstants.UNIQUE_TILES; letter++) {
+            for (int j = 0; j < racks[player][letter]; j++) {
+                letters[index++] = BagConstants.INDEX_TO_CHAR[letter];
+            }
+        }
+        return letters;
+    }
+
+    // Sum of the values of the player's tiles, blanks counting nothing
+    public int rackScore(int player) {
+        int score = 0;
+        for (int letter = 0; letter < BagConstants.UNIQUE_TILES; letter++) {
+            score += racks[player][letter] * BagConstants.INDEX_TO_SCORE[letter];
+        }
+        return score;
+    }
+
+    public int bagSize() {
+        return bagSize;
+    }
+
+    // Number of changes that can be undone
+    public int depth() {
+        return depth;
+    }
+
+    public long zobristHash() {
+        return hash;
+    }
+
+    public Board getBoard() {
+        return Board.fromString(new String(board));
+    }
+
+    public GameState toGameState() {
+        Rack[] rackCopies = { rack(0), rack(1) };
+        return new GameState(getBoard(), Bag.fromString(letters(bag)), rackCopies, scores, isFirstMove());
+    }
+
+    // What the player to move sees, the opponent's tiles counted as unseen
+    public PlayerView toPlayerView() {
+        return toPlayerView(getBoard());
+    }
+
+    /**
+     * Same as toPlayerView() with a board the caller already has for this
+     * position, such as the one of a GenerationContext, which saves building
+     * a new one.
+     */
+    public PlayerView toPlayerView(Board board) {
+        byte[] unseen = bag.clone();
+        for (int letter = 0; letter < unseen.length; letter++) {
+            unseen[letter] += racks[1 - playerToMove][letter];
+        }
+        return new PlayerView(board, Bag.fromString(letters(unseen)), rack(playerToMove), scores.clone(),
+                playerToMove, isFirstMove());
+    }
+
+    private Rack rack(int player) {
+        return Rack.fromString(new String(rackLetters(player)));
+    }
+
+    private static String letters(byte[] counts) {
+        StringBuilder sb = new StringBuilder();
+        for (int letter = 0; letter < counts.length; letter++) {
+            for (int j = 0; j < counts[letter]; j++) {
+                sb.append(BagConstants.INDEX_TO_CHAR[letter]);
+            }
+        }
+        return sb.toString();
+    }
+}
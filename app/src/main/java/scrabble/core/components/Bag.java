@@ -15,14 +15,19 @@ public final class Bag {
 
     private static final Random RANDOM = new Random();
 
+    // Zobrist hash of the tiles, see Zobrist
+    private final long hash;
+
     private Bag() {
         frequencyMap = new byte[BagConstants.UNIQUE_TILES];
         size = 0;
+        hash = 0;
     }
 
-    private Bag(byte[] frequencyMap, int size) {
+    private Bag(byte[] frequencyMap, int size, long hash) {
         this.frequencyMap = frequencyMap;
         this.size = size;
+        this.hash = hash;
     }
 
     public static Bag standardBag() {
@@ -35,7 +40,7 @@ public final class Bag {
             size += count;
         }
 
-        return new Bag(frequencyMap, size);
+        return new Bag(frequencyMap, size, Zobrist.bag(frequencyMap));
     }
 
     public static Bag fromString(String letters) {
@@ -59,7 +64,7 @@ public final class Bag {
             size++;
         }
 
-        return new Bag(frequencyMap, size);
+        return new Bag(frequencyMap, size, Zobrist.bag(frequencyMap));
     }
 
     public DrawResult drawTiles(int numberOfTiles) {
@@ -71,6 +76,7 @@ public final class Bag {
         char[] drawnTiles = new char[numberOfTiles];
         byte[] newFrequencyMap = frequencyMap.clone();
         int newSize = size;
+        long newHash = hash;
 
         for (int n = 0; n < numberOfTiles; n++) {
             int r = RANDOM.nextInt(newSize);
@@ -82,12 +88,13 @@ public final class Bag {
                     drawnTiles[n] = BagConstants.INDEX_TO_CHAR[i];
                     newFrequencyMap[i]--;
                     newSize--;
+                    newHash ^= Zobrist.bagTile(i, newFrequencyMap[i]);
                     break;
                 }
             }
         }
 
-        return new DrawResult(new Bag(newFrequencyMap, newSize), drawnTiles);
+        return new DrawResult(new Bag(newFrequencyMap, newSize, newHash), drawnTiles);
     }
 
     public Bag removeTiles(char[] tiles) {
@@ -96,6 +103,7 @@ public final class Bag {
 
         byte[] newFrequencyMap = frequencyMap.clone();
         int newSize = size;
+        long newHash = hash;
 
         for (char tile : tiles) {
             if (!BagConstants.isValidLetter(tile)) {
@@ -108,20 +116,18 @@ public final class Bag {
 
             newFrequencyMap[index]--;
             newSize--;
+            newHash ^= Zobrist.bagTile(index, newFrequencyMap[index]);
         }
 
-        return new Bag(newFrequencyMap, newSize);
+        return new Bag(newFrequencyMap, newSize, newHash);
     }
 
     public Bag addTiles(char[] tiles) {
         byte[] frequencyMap = this.frequencyMap.clone();
-        int size = this.size;
-
-        for (int i = 0, n = tiles.length; i < n; i++) {
-            frequencyMap[BagConstants.getIndex(tiles[i])]++;
-            size++;
-        }
+        int size = this.size + tiles.length;
+        long hash = this.hash;
 
+        // Checked first, the hash only has keys for as many tiles as fit
         if (size > BagConstants.TILE_COUNT)
             throw new IllegalArgumentException(
                     "Added too many tiles, rack maximum size is " + BagConstants.TILE_COUNT
@@ -129,7 +135,12 @@ public final class Bag {
                             + size
                             + " tiles.");
 
-        return new Bag(frequencyMap, size);
+        for (int i = 0, n = tiles.length; i < n; i++) {
+            int index = BagConstants.getIndex(tiles[i]);
+            hash ^= Zobrist.bagTile(index, frequencyMap[index]++);
+        }
+
+        return new Bag(frequencyMap, size, hash);
     }
 
     public int size() {
@@ -144,6 +155,11 @@ public final class Bag {
         return frequencyMap.clone();
     }
 
+    // 64-bit hash of the tiles, kept up to date as tiles are added and removed
+    public long zobristHash() {
+        return hash;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o)
@@ -152,7 +168,7 @@ public final class Bag {
             return false;
         Bag other = (Bag) o;
 
-        if (this.size != other.size)
+        if (this.size != other.size || this.hash != other.hash)
             return false;
 
         return Arrays.equals(this.frequencyMap, other.frequencyMap);
@@ -160,7 +176,7 @@ public final class Bag {
 
     @Override
     public int hashCode() {
-        return Arrays.hashCode(frequencyMap);
+        return Long.hashCode(hash);
     }
 
     @Override
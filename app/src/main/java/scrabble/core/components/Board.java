@@ -3,20 +3,30 @@ package scrabble.core.components;
 import java.util.Arrays;
 
 import scrabble.core.Move;
+import scrabble.core.PackedMove;
 import scrabble.core.Position;
 import scrabble.rules.game.*;
 
 public final class Board {
     private final char[] board;
 
-    private Board(char[] board) {
+    // The squares with a tile, and the anchors found from them on first use
+    private final SquareSet occupied;
+    private SquareSet anchors;
+
+    // Zobrist hash of the tiles, see Zobrist
+    private final long hash;
+
+    private Board(char[] board, SquareSet occupied, long hash) {
         this.board = board;
+        this.occupied = occupied;
+        this.hash = hash;
     }
 
     public static Board emptyBoard() {
         char[] tiles = new char[BoardConstants.TOTAL_SIZE];
         Arrays.fill(tiles, GameConstants.EMPTY_SQUARE);
-        return new Board(tiles);
+        return new Board(tiles, SquareSet.empty(), 0);
     }
 
     public static Board fromString(String boardString) {
@@ -27,6 +37,8 @@ public final class Board {
                     "Input string should be " + totalSize + " characters long. Is " + boardString.length());
 
         char[] tiles = new char[totalSize];
+        long[] occupied = new long[SquareSet.wordCount()];
+        long hash = 0;
         for (int i = 0; i < totalSize; i++) {
             char letter = boardString.charAt(i);
 
@@ -36,32 +48,40 @@ public final class Board {
             }
 
             tiles[i] = letter;
+            if (letter != GameConstants.EMPTY_SQUARE) {
+                occupied[i >>> 6] |= 1L << i;
+                hash ^= Zobrist.square(i, letter);
+            }
         }
 
-        return new Board(tiles);
+        return new Board(tiles, new SquareSet(occupied), hash);
     }
 
     public boolean isAnchor(Position position) {
-        if (!isEmpty(position.toIndex()))
-            return false;
-
-        Position up = position.tryStep(Position.Step.UP, this);
-        if (up != null && !isEmpty(up.toIndex()))
-            return true;
+        return anchors().contains(position.toIndex());
+    }
 
-        Position down = position.tryStep(Position.Step.DOWN, this);
-        if (down != null && !isEmpty(down.toIndex()))
-            return true;
+    public SquareSet occupied() {
+        return occupied;
+    }
 
-        Position left = position.tryStep(Position.Step.LEFT, this);
-        if (left != null && !isEmpty(left.toIndex()))
-            return true;
+    // The empty squares next to a tile, none on an empty board
+    public SquareSet anchors() {
+        SquareSet result = anchors;
+        if (result == null) {
+            result = occupied.neighbours().andNot(occupied);
+            anchors = result;
+        }
+        return result;
+    }
 
-        Position right = position.tryStep(Position.Step.RIGHT, this);
-        if (right != null && !isEmpty(right.toIndex()))
-            return true;
+    public boolean isRowEmpty(int row) {
+        int square = occupied.next(row * BoardConstants.SIZE);
+        return square < 0 || square >= (row + 1) * BoardConstants.SIZE;
+    }
 
-        return false;
+    public boolean isColumnEmpty(int col) {
+        return !occupied.intersects(SquareSet.column(col));
     }
 
     public boolean isOutOfBounds(int index) {
@@ -93,6 +113,11 @@ public final class Board {
         return board.clone();
     }
 
+    // 64-bit hash of the tiles, kept up to date as tiles are placed
+    public long zobristHash() {
+        return hash;
+    }
+
     public Board placeWord(Move move) {
         if (move.tilesPlaced() == 0) {
             throw new IllegalArgumentException("To place a word, there must exist tiles to be placed.");
@@ -106,16 +131,40 @@ public final class Board {
         char[] tiles = move.getTiles();
 
         // Place tiles
+        int[] squares = new int[positions.length];
+        long newHash = hash;
         for (int i = 0, n = positions.length; i < n; i++) {
             Position position = positions[i];
             if (!isEmpty(position)) {
                 throw new IllegalArgumentException(
                         "Tried to place tile '" + tiles[i] + "' at an invalid square.");
             }
-            newBoard[position.toIndex()] = tiles[i];
+            squares[i] = position.toIndex();
+            newBoard[squares[i]] = tiles[i];
+            newHash ^= Zobrist.square(squares[i], tiles[i]);
+        }
+
+        return new Board(newBoard, occupied.with(squares), newHash);
+    }
+
+    // Same as placeWord(Move) for a packed move, see PackedMove
+    public Board placeWord(long move) {
+        int count = PackedMove.tileCount(move);
+        if (count == 0) {
+            throw new IllegalArgumentException("To place a word, there must exist tiles to be placed.");
+        }
+
+        char[] newBoard = board.clone();
+        int[] squares = new int[count];
+        PackedMove.squares(move, this, squares);
+        long newHash = hash;
+        for (int i = 0; i < count; i++) {
+            char tile = PackedMove.tile(move, i);
+            newBoard[squares[i]] = tile;
+            newHash ^= Zobrist.square(squares[i], tile);
         }
 
-        return new Board(newBoard);
+        return new Board(newBoard, occupied.with(squares), newHash);
     }
 
     @Override
@@ -125,12 +174,12 @@ public final class Board {
         if (!(o instanceof Board))
             return false;
         Board other = (Board) o;
-        return Arrays.equals(this.board, other.board);
+        return hash == other.hash && Arrays.equals(this.board, other.board);
     }
 
     @Override
     public int hashCode() {
-        return Arrays.hashCode(board);
+        return Long.hashCode(hash);
     }
 
     @Override
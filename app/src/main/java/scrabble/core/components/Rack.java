@@ -9,14 +9,19 @@ public final class Rack {
     private final byte[] frequencyMap;
     private final int size;
 
+    // Zobrist hash of the tiles, see Zobrist
+    private final long hash;
+
     private Rack() {
         frequencyMap = new byte[BagConstants.UNIQUE_TILES];
         size = 0;
+        hash = 0;
     }
 
-    private Rack(byte[] frequencyMap, int size) {
+    private Rack(byte[] frequencyMap, int size, long hash) {
         this.frequencyMap = frequencyMap;
         this.size = size;
+        this.hash = hash;
     }
 
     public static Rack emptyRack() {
@@ -44,7 +49,7 @@ public final class Rack {
             size++;
         }
 
-        return new Rack(frequencyMap, size);
+        return new Rack(frequencyMap, size, Zobrist.rack(frequencyMap));
     }
 
     public char[] getLetters() {
@@ -75,6 +80,7 @@ public final class Rack {
 
         byte[] newFrequencyMap = frequencyMap.clone();
         int newSize = size;
+        long newHash = hash;
 
         for (char tile : tiles) {
             if (!BagConstants.isValidLetter(tile)) {
@@ -87,20 +93,18 @@ public final class Rack {
 
             newFrequencyMap[index]--;
             newSize--;
+            newHash ^= Zobrist.rackTile(index, newFrequencyMap[index]);
         }
 
-        return new Rack(newFrequencyMap, newSize);
+        return new Rack(newFrequencyMap, newSize, newHash);
     }
 
     public Rack addTiles(char[] tiles) {
         byte[] frequencyMap = this.frequencyMap.clone();
-        int size = this.size;
-
-        for (int i = 0, n = tiles.length; i < n; i++) {
-            frequencyMap[BagConstants.getIndex(tiles[i])]++;
-            size++;
-        }
+        int size = this.size + tiles.length;
+        long hash = this.hash;
 
+        // Checked first, the hash only has keys for as many tiles as fit
         if (size > GameConstants.RACK_SIZE)
             throw new IllegalArgumentException(
                     "Added too many tiles, rack maximum size is " + GameConstants.RACK_SIZE
@@ -108,7 +112,12 @@ public final class Rack {
                             + size
                             + " tiles.");
 
-        return new Rack(frequencyMap, size);
+        for (int i = 0, n = tiles.length; i < n; i++) {
+            int index = BagConstants.getIndex(tiles[i]);
+            hash ^= Zobrist.rackTile(index, frequencyMap[index]++);
+        }
+
+        return new Rack(frequencyMap, size, hash);
     }
 
     public boolean hasLetter(char letter) {
@@ -127,6 +136,11 @@ public final class Rack {
         return frequencyMap.clone();
     }
 
+    // 64-bit hash of the tiles, kept up to date as tiles are added and removed
+    public long zobristHash() {
+        return hash;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o)
@@ -135,7 +149,7 @@ public final class Rack {
             return false;
         Rack other = (Rack) o;
 
-        if (this.size != other.size)
+        if (this.size != other.size || this.hash != other.hash)
             return false;
 
         return Arrays.equals(this.frequencyMap, other.frequencyMap);
@@ -143,7 +157,7 @@ public final class Rack {
 
     @Override
     public int hashCode() {
-        return Arrays.hashCode(frequencyMap);
+        return Long.hashCode(hash);
     }
 
     @Override
@@ -0,0 +1,217 @@
+package scrabble.core.components;
+
+import java.util.Arrays;
+
+import scrabble.rules.game.BoardConstants;
+
+/**
+ * An immutable set of board squares, one bit per square in row-major order,
+ * 64 squares to a long. Neighbours and whole rows or columns are found with
+ * shifts and masks instead of square by square, and the squares are visited
+ * with next(from), which skips empty words and finds the next square with
+ * Long.numberOfTrailingZeros.
+ */
+public final class SquareSet {
+    // Built on first use, once the board size is known
+    private static volatile SquareSet[] rows;
+    private static volatile SquareSet[] columns;
+
+    private final long[] words;
+
+    // Takes ownership of the words
+    SquareSet(long[] words) {
+        this.words = words;
+    }
+
+    public static SquareSet empty() {
+        return new SquareSet(new long[wordCount()]);
+    }
+
+    public static SquareSet of(int... squares) {
+        return empty().with(squares);
+    }
+
+    // The squares of a row
+    public static SquareSet row(int row) {
+        if (rows == null)
+            rows = lines(true);
+        return rows[row];
+    }
+
+    // The squares of a column
+    public static SquareSet column(int col) {
+        if (columns == null)
+            columns = lines(false);
+        return columns[col];
+    }
+
+    private static SquareSet[] lines(boolean isRow) {
+        SquareSet[] lines = new SquareSet[BoardConstants.SIZE];
+        for (int line = 0; line < BoardConstants.SIZE; line++) {
+            long[] words = new long[wordCount()];
+            for (int i = 0; i < BoardConstants.SIZE; i++) {
+                int square = isRow ? line * BoardConstants.SIZE + i : i * BoardConstants.SIZE + line;
+                words[square >>> 6] |= 1L << square;
+            }
+            lines[line] = new SquareSet(words);
+        }
+        return lines;
+    }
+
+    static int wordCount() {
+        return (BoardConstants.TOTAL_SIZE + Long.SIZE - 1) / Long.SIZE;
+    }
+
+    public boolean contains(int square) {
+        return (words[square >>> 6] & 1L << square) != 0;
+    }
+
+    // The first square in the set from the given one on, or -1 if there is none
+    public int next(int from) {
+        int word = from >>> 6;
+        if (word >= words.length)
+            return -1;
+
+        long bits = words[word] & -1L << from;
+        while (bits == 0) {
+            if (++word == words.length)
+                return -1;
+            bits = words[word];
+        }
+        return word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+    }
+
+    public int size() {
+        int size = 0;
+        for (long word : words) {
+            size += Long.bitCount(word);
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0)
+                return false;
+        }
+        return true;
+    }
+
+    public boolean intersects(SquareSet other) {
+        for (int i = 0; i < words.length; i++) {
+            if ((words[i] & other.words[i]) != 0)
+                return true;
+        }
+        return false;
+    }
+
+    public SquareSet with(int... squares) {
+        long[] result = words.clone();
+        for (int square : squares) {
+            result[square >>> 6] |= 1L << square;
+        }
+        return new SquareSet(result);
+    }
+
+    public SquareSet and(SquareSet other) {
+        long[] result = new long[words.length];
+        for (int i = 0; i < words.length; i++) {
+            result[i] = words[i] & other.words[i];
+        }
+        return new SquareSet(result);
+    }
+
+    public SquareSet or(SquareSet other) {
+        long[] result = new long[words.length];
+        for (int i = 0; i < words.length; i++) {
+            result[i] = words[i] | other.words[i];
+        }
+        return new SquareSet(result);
+    }
+
+    public SquareSet andNot(SquareSet other) {
+        long[] result = new long[words.length];
+        for (int i = 0; i < words.length; i++) {
+            result[i] = words[i] & ~other.words[i];
+        }
+        return new SquareSet(result);
+    }
+
+    /**
+     * The squares next to a square in the set, above, below or to either side.
+     * The set's own squares are only included if they have a neighbour in it.
+     */
+    public SquareSet neighbours() {
+        long[] up = new long[words.length];
+        long[] down = new long[words.length];
+        long[] left = new long[words.length];
+        long[] right = new long[words.length];
+        shift(words, BoardConstants.SIZE, down);
+        shift(words, -BoardConstants.SIZE, up);
+        shift(words, 1, right);
+        shift(words, -1, left);
+
+        // A step to the side must not wrap around to the next or previous row
+        long[] firstColumn = column(0).words;
+        long[] lastColumn = column(BoardConstants.SIZE - 1).words;
+        long[] result = new long[words.length];
+        for (int i = 0; i < words.length; i++) {
+            result[i] = up[i] | down[i] | right[i] & ~firstColumn[i] | left[i] & ~lastColumn[i];
+        }
+        result[words.length - 1] &= lastWordMask();
+        return new SquareSet(result);
+    }
+
+    // Moves every square by offset squares into result, dropping those that
+    // leave the words
+    private static void shift(long[] words, int offset, long[] result) {
+        int wordShift = Math.abs(offset) / Long.SIZE;
+        int bitShift = Math.abs(offset) % Long.SIZE;
+        for (int i = 0; i < words.length; i++) {
+            int from = offset >= 0 ? i - wordShift : i + wordShift;
+            if (from < 0 || from >= words.length)
+                continue;
+
+            if (offset >= 0) {
+                result[i] = words[from] << bitShift;
+                if (bitShift != 0 && from > 0)
+                    result[i] |= words[from - 1] >>> (Long.SIZE - bitShift);
+            } else {
+                result[i] = words[from] >>> bitShift;
+                if (bitShift != 0 && from < words.length - 1)
+                    result[i] |= words[from + 1] << (Long.SIZE - bitShift);
+            }
+        }
+    }
+
+    // The bits of the last word that are squares on the board
+    private static long lastWordMask() {
+        int used = BoardConstants.TOTAL_SIZE % Long.SIZE;
+        return used == 0 ? -1L : (1L << used) - 1;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (!(o instanceof SquareSet))
+            return false;
+        return Arrays.equals(words, ((SquareSet) o).words);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(words);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int square = next(0); square >= 0; square = next(square + 1)) {
+            if (sb.length() > 1)
+                sb.append(", ");
+            sb.append(square);
+        }
+        return sb.append(']').toString();
+    }
+}
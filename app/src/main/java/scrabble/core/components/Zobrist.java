@@ -0,0 +1,103 @@
+package scrabble.core.components;
+
+import java.util.SplittableRandom;
+
+import scrabble.rules.game.BagConstants;
+import scrabble.rules.game.BoardConstants;
+import scrabble.rules.game.GameConstants;
+
+/**
+ * Random keys for Zobrist hashing. A position hashes to the XOR of a key for
+ * every tile on a square, every tile in the bag and on the racks, and one for
+ * the player to move, so placing, drawing or returning a tile updates the hash
+ * with one XOR per tile. A multiset such as a rack gets one key per copy of a
+ * letter: the third E on a rack adds the key of (E, 2).
+ *
+ * The keys come from a fixed seed, so hashes are the same in every run. They
+ * are made on first use, after the game rules are loaded.
+ */
+public final class Zobrist {
+    private static final long SEED = 0x2545F4914F6CDD1DL;
+
+    // [square][tile], where blanks played as a letter come after the letters
+    private static final long[][] SQUARE_KEYS;
+    // [letter][copy]
+    private static final long[][] RACK_KEYS;
+    private static final long[][] BAG_KEYS;
+    private static final long SECOND_PLAYER_KEY;
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEED);
+        SQUARE_KEYS = keys(random, BoardConstants.TOTAL_SIZE, 2 * BagConstants.UNIQUE_TILES);
+        RACK_KEYS = keys(random, BagConstants.UNIQUE_TILES, GameConstants.RACK_SIZE);
+        BAG_KEYS = keys(random, BagConstants.UNIQUE_TILES, BagConstants.TILE_COUNT);
+        SECOND_PLAYER_KEY = random.nextLong();
+    }
+
+    // Private constructor to prevent instantiation
+    private Zobrist() {
+    }
+
+    private static long[][] keys(SplittableRandom random, int rows, int columns) {
+        long[][] keys = new long[rows][columns];
+        for (long[] row : keys) {
+            for (int i = 0; i < columns; i++) {
+                row[i] = random.nextLong();
+            }
+        }
+        return keys;
+    }
+
+    // Key of the tile on the square, a lower case letter being a blank
+    public static long square(int square, char tile) {
+        int index = BagConstants.getIndex(tile);
+        if (BoardConstants.isBlank(tile))
+            index += BagConstants.UNIQUE_TILES;
+        return SQUARE_KEYS[square][index];
+    }
+
+    // Key of the copy-th tile of the letter on a rack, counting from 0
+    public static long rackTile(int letter, int copy) {
+        return RACK_KEYS[letter][copy];
+    }
+
+    // Key of the copy-th tile of the letter in the bag, counting from 0
+    public static long bagTile(int letter, int copy) {
+        return BAG_KEYS[letter][copy];
+    }
+
+    // Hash of the tile counts, as a rack
+    static long rack(byte[] frequencyMap) {
+        return multiset(frequencyMap, RACK_KEYS);
+    }
+
+    // Hash of the tile counts, as a bag
+    static long bag(byte[] frequencyMap) {
+        return multiset(frequencyMap, BAG_KEYS);
+    }
+
+    private static long multiset(byte[] frequencyMap, long[][] keys) {
+        long hash = 0;
+        for (int letter = 0; letter < frequencyMap.length; letter++) {
+            for (int copy = 0; copy < frequencyMap[letter]; copy++) {
+                hash ^= keys[letter][copy];
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Key XORed in when the second player is to move. The second player's rack
+     * is hashed with its keys rotated, see secondRack, so that swapping the
+     * racks changes the hash.
+     */
+    public static long secondPlayer() {
+        return SECOND_PLAYER_KEY;
+    }
+
+    // A rack hash as the second player's rack. Rotating every key gives a
+    // second set of keys without a second table.
+    public static long secondRack(long rackHash) {
+        return Long.rotateLeft(rackHash, 32);
+    }
+}
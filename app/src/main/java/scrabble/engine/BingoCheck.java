@@ -0,0 +1,48 @@
+package scrabble.engine;
+
+import java.util.Arrays;
+
+import scrabble.rules.AnagramIndex;
+import scrabble.rules.game.BagConstants;
+
+/**
+ * Answers whether a rack can be played out in one word, on its own or
+ * together with one letter from the board, for ruling out a bingo when
+ * bounding scores. Each answer is looked up in the anagram index once.
+ */
+final class BingoCheck {
+    private static final int NOT_KNOWN = -1;
+
+    private final char[] rack;
+    private final AnagramIndex anagrams;
+
+    // By letter index, and at UNIQUE_TILES for the rack on its own
+    private final int[] answers = new int[BagConstants.UNIQUE_TILES + 1];
+
+    BingoCheck(char[] rack, AnagramIndex anagrams) {
+        this.rack = rack;
+        this.anagrams = anagrams;
+        Arrays.fill(answers, NOT_KNOWN);
+    }
+
+    boolean spellsRack() {
+        return answer(BagConstants.UNIQUE_TILES);
+    }
+
+    // The board letter as it is written, lower case for a blank
+    boolean spellsRackWith(char boardTile) {
+        return answer(BagConstants.getIndex(Character.toUpperCase(boardTile)));
+    }
+
+    private boolean answer(int letter) {
+        if (answers[letter] == NOT_KNOWN) {
+            char[] tiles = rack;
+            if (letter < BagConstants.UNIQUE_TILES) {
+                tiles = Arrays.copyOf(rack, rack.length + 1);
+                tiles[rack.length] = BagConstants.INDEX_TO_CHAR[letter];
+            }
+            answers[letter] = anagrams.hasAnagram(tiles) ? 1 : 0;
+        }
+        return answers[letter] == 1;
+    }
+}
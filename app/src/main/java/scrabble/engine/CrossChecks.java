@@ -0,0 +1,197 @@
+package scrabble.engine;
+
+import scrabble.core.Move;
+import scrabble.core.Position;
+import scrabble.core.components.Board;
+import scrabble.rules.PackedDictionary;
+import scrabble.rules.game.BagConstants;
+import scrabble.rules.game.BoardConstants;
+
+/**
+ * Cross-checks for one position, computed once instead of once per candidate
+ * letter. For every empty square and both directions of the main word it
+ * holds a mask of the letter indexes that form a valid perpendicular word
+ * (bit i for letter index i), and the summed tile scores of the perpendicular
+ * word's existing tiles.
+ *
+ * A square without perpendicular neighbours accepts every letter and has
+ * score NO_CROSS_WORD. Occupied squares have an empty mask.
+ *
+ * After a move only the squares at the ends of the lines through the placed
+ * tiles can change, so a child position's cross-checks are derived from its
+ * parent's with after(...).
+ */
+public final class CrossChecks {
+    public static final int NO_CROSS_WORD = -1;
+
+    private final int[] horiMasks;
+    private final int[] vertMasks;
+    private final int[] horiScores;
+    private final int[] vertScores;
+
+    public CrossChecks(Board board, PackedDictionary trie) {
+        this.horiMasks = new int[BoardConstants.TOTAL_SIZE];
+        this.vertMasks = new int[BoardConstants.TOTAL_SIZE];
+        this.horiScores = new int[BoardConstants.TOTAL_SIZE];
+        this.vertScores = new int[BoardConstants.TOTAL_SIZE];
+
+        for (int square = 0; square < BoardConstants.TOTAL_SIZE; square++) {
+            if (!board.isEmpty(square))
+                continue;
+            compute(board, trie, square, true);
+            compute(board, trie, square, false);
+        }
+    }
+
+    private CrossChecks(CrossChecks parent) {
+        this.horiMasks = parent.horiMasks.clone();
+        this.vertMasks = parent.vertMasks.clone();
+        this.horiScores = parent.horiScores.clone();
+        this.vertScores = parent.vertScores.clone();
+    }
+
+    /**
+     * Returns the cross-checks for the board after the move, where board is
+     * the board with the move already placed. This position is left as is.
+     */
+    public CrossChecks after(Board board, PackedDictionary trie, Move move) {
+        CrossChecks child = new CrossChecks(this);
+
+        for (Position position : move.getPositions()) {
+            int square = position.toIndex();
+            child.horiMasks[square] = 0;
+            child.vertMasks[square] = 0;
+            child.horiScores[square] = 0;
+            child.vertScores[square] = 0;
+        }
+
+        // The column through a placed tile is the perpendicular word of the
+        // squares above and below it, and likewise for the row
+        for (Position position : move.getPositions()) {
+            int row = position.row();
+            int col = position.column();
+            child.updateLineEnds(board, trie, row, col, 1, 0, true);
+            child.updateLineEnds(board, trie, row, col, 0, 1, false);
+        }
+        return child;
+    }
+
+    private void updateLineEnds(Board board, PackedDictionary trie, int row, int col, int dRow, int dCol,
+            boolean isHorizontal) {
+        int r = row;
+        int c = col;
+        while (r >= 0 && c >= 0 && !board.isEmpty(r * BoardConstants.SIZE + c)) {
+            r -= dRow;
+            c -= dCol;
+        }
+        if (r >= 0 && c >= 0)
+            compute(board, trie, r * BoardConstants.SIZE + c, isHorizontal);
+
+        r = row;
+        c = col;
+        while (r < BoardConstants.SIZE && c < BoardConstants.SIZE && !board.isEmpty(r * BoardConstants.SIZE + c)) {
+            r += dRow;
+            c += dCol;
+        }
+        if (r < BoardConstants.SIZE && c < BoardConstants.SIZE)
+            compute(board, trie, r * BoardConstants.SIZE + c, isHorizontal);
+    }
+
+    // Mask of every letter index except the blank
+    public static int allLetters() {
+        int blankBit = 1 << BagConstants.getIndex(BagConstants.BLANK);
+        return (int) ((1L << BagConstants.UNIQUE_TILES) - 1) & ~blankBit;
+    }
+
+    // Letters that may be placed on the square as part of a horizontal (or
+    // vertical) main word
+    public int mask(int square, boolean isHorizontal) {
+        return isHorizontal ? horiMasks[square] : vertMasks[square];
+    }
+
+    // Score of the existing tiles in the perpendicular word, or NO_CROSS_WORD
+    public int crossScore(int square, boolean isHorizontal) {
+        return isHorizontal ? horiScores[square] : vertScores[square];
+    }
+
+    public int[] masks(boolean isHorizontal) {
+        return isHorizontal ? horiMasks : vertMasks;
+    }
+
+    public int[] scores(boolean isHorizontal) {
+        return isHorizontal ? horiScores : vertScores;
+    }
+
+    // The perpendicular word of a horizontal main word runs downwards
+    private void compute(Board board, PackedDictionary trie, int square, boolean isHorizontal) {
+        int[] masks = isHorizontal ? horiMasks : vertMasks;
+        int[] scores = isHorizontal ? horiScores : vertScores;
+
+        int row = square / BoardConstants.SIZE;
+        int col = square % BoardConstants.SIZE;
+        int dRow = isHorizontal ? 1 : 0;
+        int dCol = isHorizontal ? 0 : 1;
+
+        int startRow = row;
+        int startCol = col;
+        while (startRow - dRow >= 0 && startCol - dCol >= 0
+                && !board.isEmpty((startRow - dRow) * BoardConstants.SIZE + startCol - dCol)) {
+            startRow -= dRow;
+            startCol -= dCol;
+        }
+
+        int endRow = row;
+        int endCol = col;
+        while (endRow + dRow < BoardConstants.SIZE && endCol + dCol < BoardConstants.SIZE
+                && !board.isEmpty((endRow + dRow) * BoardConstants.SIZE + endCol + dCol)) {
+            endRow += dRow;
+            endCol += dCol;
+        }
+
+        if (startRow == endRow && startCol == endCol) {
+            masks[square] = allLetters();
+            scores[square] = NO_CROSS_WORD;
+            return;
+        }
+
+        // Walk the tiles before the square once, then try each letter on it
+        int score = 0;
+        int node = trie.root();
+        for (int r = startRow, c = startCol; r != row || c != col; r += dRow, c += dCol) {
+            char tile = board.tileAt(r * BoardConstants.SIZE + c);
+            score += tileScore(tile);
+            if (node != PackedDictionary.NO_NODE)
+                node = trie.child(node, BagConstants.getIndex(tile));
+        }
+        for (int r = row + dRow, c = col + dCol; r <= endRow && c <= endCol; r += dRow, c += dCol) {
+            score += tileScore(board.tileAt(r * BoardConstants.SIZE + c));
+        }
+        scores[square] = score;
+
+        if (node == PackedDictionary.NO_NODE) {
+            masks[square] = 0;
+            return;
+        }
+
+        int mask = 0;
+        for (int letters = trie.childMask(node); letters != 0; letters &= letters - 1) {
+            int letter = Integer.numberOfTrailingZeros(letters);
+            int child = trie.child(node, letter);
+
+            for (int r = row + dRow, c = col + dCol; child != PackedDictionary.NO_NODE
+                    && r <= endRow && c <= endCol; r += dRow, c += dCol) {
+                child = trie.child(child, BagConstants.getIndex(board.tileAt(r * BoardConstants.SIZE + c)));
+            }
+
+            if (child != PackedDictionary.NO_NODE && trie.isWord(child))
+                mask |= 1 << letter;
+        }
+        masks[square] = mask;
+    }
+
+    private static int tileScore(char tile) {
+        if (BoardConstants.isBlank(tile))
+            return 0;
+        return BagConstants.INDEX_TO_SCORE[BagConstants.getIndex(tile)];
+    }
+}
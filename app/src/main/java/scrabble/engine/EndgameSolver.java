@@ -0,0 +1,360 @@
+package scrabble.engine;
+
+import scrabble.core.Move;
+import scrabble.core.MoveList;
+import scrabble.core.PackedMove;
+import scrabble.core.PlayerView;
+import scrabble.core.SearchState;
+import scrabble.core.components.Rack;
+import scrabble.rules.game.BagConstants;
+import scrabble.rules.game.GameConstants;
+
+import java.util.Arrays;
+
+/**
+ * Searches the endgame, once the bag is empty and the opponent's rack is
+ * known: the tiles the player has not seen are exactly the opponent's. The
+ * search is a negamax with alpha-beta pruning and iterative deepening, one
+ * ply deeper each iteration, until an iteration reaches the end of the game
+ * on every line or the time is up.
+ *
+ * The game ends when a player goes out, the player gaining twice the value of
+ * the opponent's tiles, or after two passes in a row, each player losing the
+ * value of their own tiles. A line cut short by the depth is valued as if the
+ * game ended by passes there. Moves are tried best first by their score and
+ * the tiles they get rid of, after the best move found for the position
+ * before, which the transposition table keeps by Zobrist hash along with its
+ * value and the depth searched. Moves after the first are searched with a
+ * null window first.
+ *
+ * A solver searches one position at a time.
+ */
+public class EndgameSolver {
+    // Entries in the transposition table, a power of two
+    private static final int TABLE_SIZE = 1 << 18;
+
+    // Deepest iteration, past the longest possible endgame
+    private static final int MAX_DEPTH = 4 * GameConstants.RACK_SIZE;
+
+    // Beyond any spread, and small enough to shift a window by a score
+    private static final int INFINITY = 1 << 20;
+
+    // Hashed in when the last move was a pass, as a second pass ends the game
+    private static final long PASSED_KEY = 0x9E3779B97F4A7C15L;
+
+    // Kinds of value in the table
+    private static final byte EXACT = 0;
+    private static final byte LOWER_BOUND = 1;
+    private static final byte UPPER_BOUND = 2;
+
+    private final MoveGenerator moveGenerator;
+    private volatile boolean isActive = true;
+
+    // The transposition table: values are what the player to move gains from
+    // the position on. An entry is complete when no line under it was cut
+    // short by the depth, so its value holds at any depth.
+    private final long[] keys = new long[TABLE_SIZE];
+    private final long[] bestMoves = new long[TABLE_SIZE];
+    private final int[] bestScores = new int[TABLE_SIZE];
+    private final int[] values = new int[TABLE_SIZE];
+    private final byte[] depths = new byte[TABLE_SIZE];
+    private final byte[] bounds = new byte[TABLE_SIZE];
+    private final boolean[] completes = new boolean[TABLE_SIZE];
+    private final boolean[] used = new boolean[TABLE_SIZE];
+
+    // Moves of every ply, reused from one node to the next
+    private final MoveList[] moveLists = new MoveList[MAX_DEPTH + 1];
+    private final long[][] orders = new long[MAX_DEPTH + 1][];
+
+    private SearchState state;
+    private boolean mayPassFirst;
+    private long deadline;
+    private int iteration;
+    private boolean isTimeUp;
+    private long nodes;
+    // Lines cut short by the depth so far, counted to tell complete subtrees
+    private long cutoffs;
+
+    public EndgameSolver(MoveGenerator moveGenerator) {
+        this.moveGenerator = moveGenerator;
+        for (int i = 0; i < moveLists.length; i++) {
+            moveLists[i] = new MoveList();
+            orders[i] = new long[16];
+        }
+    }
+
+    /**
+     * The line found for the player to move, a pass being PackedMove.NONE,
+     * with the spread at the end of it, counted for the player to move. The
+     * line is optimal for both sides if the search is complete; otherwise it
+     * is the best to the given depth.
+     */
+    public record Solution(MoveList moves, int spread, int depth, boolean isComplete, long nodes) {
+        // The first move, or PackedMove.NONE for a pass or no move at all
+        public long bestMove() {
+            return moves.isEmpty() ? PackedMove.NONE : moves.get(0);
+        }
+    }
+
+    /**
+     * Solves the endgame of the position the player sees, within about the
+     * given time. The first iteration always completes. The player's unseen
+     * tiles are taken to be the opponent's rack, so the bag must be empty.
+     */
+    public Solution solve(PlayerView playerView, long timeMillis) {
+        return solve(playerView, timeMillis, true);
+    }
+
+    // Same as above, without passing on the first move if mayPass is false
+    Solution solve(PlayerView playerView, long timeMillis, boolean mayPass) {
+        if (playerView.getBag().size() > GameConstants.RACK_SIZE)
+            throw new IllegalArgumentException(
+                    "The bag is not empty: " + playerView.getBag().size() + " tiles are unseen.");
+        Rack opponentRack = Rack.fromString(unseenLetters(playerView));
+        state = SearchState.of(playerView, opponentRack);
+        mayPassFirst = mayPass;
+        deadline = System.currentTimeMillis() + Math.min(timeMillis, Long.MAX_VALUE / 2);
+        isTimeUp = false;
+        nodes = 0;
+        Arrays.fill(used, false);
+
+        int player = playerView.getPlayerId();
+        int spread = state.getScore(player) - state.getScore(1 - player);
+        GenerationContext context = moveGenerator.createContext(playerView);
+        Solution solution = new Solution(new MoveList(), spread, 0, false, 0);
+        for (iteration = 1; iteration <= MAX_DEPTH; iteration++) {
+            cutoffs = 0;
+            int value = search(context, 0, iteration, -INFINITY, INFINITY, false);
+            if (isTimeUp)
+                break;
+            boolean isComplete = cutoffs == 0;
+            solution = new Solution(principalVariation(), spread + value, iteration, isComplete, nodes);
+            if (isComplete || System.currentTimeMillis() >= deadline)
+                break;
+        }
+        state = null;
+        return solution;
+    }
+
+    // Cuts the solve short after its first iteration, and every solve after
+    // it until reset
+    public void stop() {
+        isActive = false;
+    }
+
+    // Lets the solver search again after stop(). The owner calls it when a
+    // search starts, so that a stop that comes before the solve still counts.
+    public void reset() {
+        isActive = true;
+    }
+
+    // The player's unseen tiles, which the opponent holds once the bag is empty
+    private static String unseenLetters(PlayerView playerView) {
+        byte[] counts = playerView.getBag().getFrequencyMap();
+        StringBuilder sb = new StringBuilder();
+        for (int letter = 0; letter < counts.length; letter++) {
+            for (int j = 0; j < counts[letter]; j++) {
+                sb.append(BagConstants.INDEX_TO_CHAR[letter]);
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * What the player to move gains from here on with best play, within the
+     * window. The window of a move's reply is shifted by the move's score, as
+     * the reply's value is counted from after it. Gives up as soon as the
+     * time is up after the first iteration, leaving the value meaningless,
+     * but always takes its moves back.
+     */
+    private int search(GenerationContext context, int ply, int depth, int alpha, int beta, boolean passed) {
+        nodes++;
+        if (iteration > 1 && !isTimeUp && (!isActive || System.currentTimeMillis() >= deadline))
+            isTimeUp = true;
+        if (isTimeUp)
+            return 0;
+
+        int player = state.getPlayerToMove();
+        if (depth == 0) {
+            cutoffs++;
+            return state.rackScore(1 - player) - state.rackScore(player);
+        }
+
+        long key = state.zobristHash() ^ (passed ? PASSED_KEY : 0);
+        int slot = (int) key & TABLE_SIZE - 1;
+        long hashMove = PackedMove.NONE;
+        boolean hasHashMove = false;
+        if (used[slot] && keys[slot] == key) {
+            hashMove = bestMoves[slot];
+            hasHashMove = true;
+            if (ply > 0 && (completes[slot] || depths[slot] >= depth)) {
+                int value = values[slot];
+                if (bounds[slot] == EXACT || bounds[slot] == LOWER_BOUND && value >= beta
+                        || bounds[slot] == UPPER_BOUND && value <= alpha) {
+                    if (!completes[slot])
+                        cutoffs++;
+                    return value;
+                }
+            }
+        }
+
+        long cutoffsBefore = cutoffs;
+        MoveList moves = moveLists[ply];
+        moves.clear();
+        moveGenerator.generateLegalMoves(state.toPlayerView(context.getBoard()), context, moves);
+        if (ply > 0 || mayPassFirst)
+            moves.add(PackedMove.NONE, 0);
+        if (moves.isEmpty())
+            return 0;
+        long[] order = order(moves, ply, hashMove, hasHashMove);
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        long bestMove = PackedMove.NONE;
+        int bestScore = 0;
+        for (int n = 0; n < moves.size(); n++) {
+            int i = (int) order[n];
+            long move = moves.get(i);
+            int score = moves.getScore(i);
+            int value;
+            if (move == PackedMove.NONE) {
+                if (passed) {
+                    value = state.rackScore(1 - player) - state.rackScore(player);
+                } else {
+                    state.pass();
+                    value = reply(context, ply, depth, 0, alpha, beta, true, n == 0);
+                    state.undoExchange();
+                }
+            } else {
+                Move played = depth > 1 ? PackedMove.toMove(move, context.getBoard()) : null;
+                state.doMove(move, score);
+                if (state.rackSize(player) == 0) {
+                    value = score + 2 * state.rackScore(1 - player);
+                } else {
+                    GenerationContext after = played != null ? context.after(played) : context;
+                    value = reply(after, ply, depth, score, alpha, beta, false, n == 0);
+                }
+                state.undoMove();
+            }
+            if (isTimeUp)
+                return 0;
+
+            if (value > best) {
+                best = value;
+                bestMove = move;
+                bestScore = score;
+            }
+            alpha = Math.max(alpha, value);
+            if (alpha >= beta)
+                break;
+        }
+
+        byte bound = best <= originalAlpha ? UPPER_BOUND : best >= beta ? LOWER_BOUND : EXACT;
+        used[slot] = true;
+        keys[slot] = key;
+        bestMoves[slot] = bestMove;
+        bestScores[slot] = bestScore;
+        values[slot] = best;
+        depths[slot] = (byte) depth;
+        bounds[slot] = bound;
+        completes[slot] = cutoffs == cutoffsBefore;
+        return best;
+    }
+
+    /**
+     * The value of a move that scored the given points, from the reply's
+     * search. Every move after the first is only tested against alpha with a
+     * null window, and searched again with the full window if it beats it.
+     */
+    private int reply(GenerationContext after, int ply, int depth, int score, int alpha, int beta, boolean passed,
+            boolean isFirst) {
+        if (!isFirst) {
+            int value = score - search(after, ply + 1, depth - 1, score - alpha - 1, score - alpha, passed);
+            if (value <= alpha || value >= beta || isTimeUp)
+                return value;
+        }
+        return score - search(after, ply + 1, depth - 1, score - beta, score - alpha, passed);
+    }
+
+    /**
+     * Indexes of the moves in the order to search them: the move from the
+     * table first, then the rest by what they are worth a ply ahead, highest
+     * first, a pass last. That is the score plus the value of the tiles
+     * played, as they no longer count against the player, and for going out
+     * the opponent's tiles as well. Each entry holds the index in its low
+     * bits.
+     */
+    private long[] order(MoveList moves, int ply, long hashMove, boolean hasHashMove) {
+        int player = state.getPlayerToMove();
+        int rackSize = state.rackSize(player);
+        int goingOutBonus = state.rackScore(1 - player);
+        if (orders[ply].length < moves.size())
+            orders[ply] = new long[Math.max(moves.size(), 2 * orders[ply].length)];
+        long[] order = orders[ply];
+        int size = moves.size();
+        for (int i = 0; i < size; i++) {
+            long move = moves.get(i);
+            long rank;
+            if (hasHashMove && move == hashMove)
+                rank = Integer.MAX_VALUE;
+            else if (move == PackedMove.NONE)
+                rank = -1;
+            else
+                rank = moves.getScore(i) + tileValues(move)
+                        + (PackedMove.tileCount(move) == rackSize ? goingOutBonus : 0);
+            // Sorted ascending, so the best rank gets the lowest key
+            order[i] = (Integer.MAX_VALUE - rank) << 32 | i;
+        }
+        Arrays.sort(order, 0, size);
+        for (int i = 0; i < size; i++) {
+            order[i] &= 0xFFFFFFFFL;
+        }
+        return order;
+    }
+
+    private static int tileValues(long move) {
+        int value = 0;
+        for (int i = 0; i < PackedMove.tileCount(move); i++) {
+            if (!PackedMove.isBlank(move, i))
+                value += BagConstants.INDEX_TO_SCORE[PackedMove.letterIndex(move, i)];
+        }
+        return value;
+    }
+
+    // Follows the best moves in the table from the root, to the end of the
+    // game or of the table's knowledge
+    private MoveList principalVariation() {
+        MoveList line = new MoveList();
+        boolean passed = false;
+        int applied = 0;
+        while (line.size() < MAX_DEPTH) {
+            long key = state.zobristHash() ^ (passed ? PASSED_KEY : 0);
+            int slot = (int) key & TABLE_SIZE - 1;
+            if (!used[slot] || keys[slot] != key)
+                break;
+            long move = bestMoves[slot];
+            int player = state.getPlayerToMove();
+            line.add(move, bestScores[slot]);
+            if (move == PackedMove.NONE) {
+                if (passed)
+                    break;
+                state.pass();
+                passed = true;
+                applied++;
+            } else {
+                state.doMove(move, bestScores[slot]);
+                passed = false;
+                applied++;
+                if (state.rackSize(player) == 0)
+                    break;
+            }
+        }
+        for (int i = applied - 1; i >= 0; i--) {
+            if (line.get(i) == PackedMove.NONE)
+                state.undoExchange();
+            else
+                state.undoMove();
+        }
+        return line;
+    }
+}
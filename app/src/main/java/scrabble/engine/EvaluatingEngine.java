@@ -1,116 +1,539 @@
 package scrabble.engine;
 
 import scrabble.core.Move;
-import scrabble.core.components.Rack;
-import scrabble.core.GameState;
+import scrabble.core.MoveList;
+import scrabble.core.PackedMove;
 import scrabble.core.PlayerView;
+import scrabble.core.SearchState;
+import scrabble.core.components.Rack;
+import scrabble.rules.game.BoardConstants;
+import scrabble.rules.game.GameConstants;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
-import java.util.Iterator;
-import java.util.HashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+
+/**
+ * Picks the move with the best average evaluation over sampled opponent
+ * racks. Every candidate is first evaluated against a small batch of racks;
+ * after that, racks are sampled on a pool of worker threads, each worker
+ * keeping its own totals, which are merged after every round. Sampling is
+ * raced: after each round, moves that cannot be best any more given the
+ * confidence intervals of the means are dropped, so the samples go to the
+ * contenders, and the search ends once only the leader is left or the time
+ * is up. The evaluator is called from all the workers at once. The workers
+ * are started with the engine and serve all its searches, until it is
+ * closed.
+ *
+ * With Depth.REPLY, each sample also plays the opponent's highest scoring
+ * reply with the sampled rack, both sides drawing after their move, and
+ * evaluates the position after it. A reply costs a move generation, so only
+ * the candidates that evaluate best against the first batch are simulated
+ * this way, and only their averages are reported. The board after each of
+ * them is the same for every rack, so its generation context is built once
+ * and shared.
+ *
+ * Once the bag is empty, the opponent holds exactly the unseen tiles, so
+ * there is nothing to sample: the endgame is solved with an EndgameSolver
+ * instead, the listener being told the spread it reaches. With a tile or
+ * two left in the bag, the best candidates that empty it are evaluated by a
+ * PreEndgameSolver over every split of the unseen tiles, and the listener is
+ * told their win probabilities. The move is then chosen among those
+ * candidates only: a move that leaves tiles in the bag, such as a one-tile
+ * play with two in it, has no win probability to compare, so it is dropped
+ * from the choice however well it evaluates. Only when no candidate empties
+ * the bag are the moves raced as usual.
+ */
+public class EvaluatingEngine implements Engine, AutoCloseable {
+    // Length of a simulation round, after which the workers' totals are merged
+    // and the listener is updated
+    private static final long ROUND_MILLIS = 10;
+
+    // Number of racks every candidate is first evaluated against
+    private static final int FIRST_BATCH_SIZE = 10;
+
+    // Number of candidates simulated with replies
+    private static final int REPLY_CANDIDATES = 10;
+
+    // Number of candidates whose endgames are solved in the pre-endgame
+    private static final int PRE_ENDGAME_CANDIDATES = 10;
+
+    // How far a sample looks ahead
+    public enum Depth {
+        // Evaluate the position after the move and the player's draw
+        MOVE,
+        // Evaluate the position after the opponent's best scoring reply
+        REPLY
+    }
 
-public class EvaluatingEngine implements Engine {
     private MoveGenerator moveGenerator;
     private Evaluator evaluator;
+    private final int threads;
+    private final Depth depth;
+    private final EndgameSolver endgameSolver;
+    private final PreEndgameSolver preEndgameSolver;
+    // Runs the simulations of every search, until the engine is closed
+    private final ExecutorService workers;
     private volatile boolean isActive = true;
     private Thread searchThread;
 
+    // Simulates on every available core
     public EvaluatingEngine(MoveGenerator moveGenerator, Evaluator evaluator) {
+        this(moveGenerator, evaluator, Runtime.getRuntime().availableProcessors());
+    }
+
+    public EvaluatingEngine(MoveGenerator moveGenerator, Evaluator evaluator, int threads) {
+        this(moveGenerator, evaluator, threads, Depth.MOVE);
+    }
+
+    public EvaluatingEngine(MoveGenerator moveGenerator, Evaluator evaluator, int threads, Depth depth) {
+        if (threads < 1)
+            throw new IllegalArgumentException("Thread count must be positive, got " + threads + ".");
         this.moveGenerator = moveGenerator;
         this.evaluator = evaluator;
+        this.threads = threads;
+        this.depth = depth;
+        this.endgameSolver = new EndgameSolver(moveGenerator);
+        this.preEndgameSolver = new PreEndgameSolver(moveGenerator, threads);
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "evaluating-engine-worker");
+            // An engine that is never closed does not keep the program running
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Totals of one worker's evaluations and of their squares, per move in
+    // moves, and the number of racks in them
+    private record Samples(int[] moves, double[] totals, double[] squares, int racks) {
+    }
+
+    /**
+     * Mean and variance of every move's evaluations, and which moves can
+     * still be best. A move drops out of the race once the upper end of its
+     * confidence interval is below the lower end of the leader's. The
+     * intervals are wide, as there are many moves and every round compares
+     * them all again.
+     */
+    private static final class Race {
+        // Width of the intervals, in standard errors
+        private static final double Z = 3.0;
+
+        private final double[] totals;
+        private final double[] squares;
+        private final int[] samples;
+
+        Race(int moveCount) {
+            totals = new double[moveCount];
+            squares = new double[moveCount];
+            samples = new int[moveCount];
+        }
+
+        void add(Samples simulation) {
+            int[] moves = simulation.moves();
+            for (int j = 0; j < moves.length; j++) {
+                totals[moves[j]] += simulation.totals()[j];
+                squares[moves[j]] += simulation.squares()[j];
+                samples[moves[j]] += simulation.racks();
+            }
+        }
+
+        double mean(int move) {
+            return totals[move] / samples[move];
+        }
+
+        // Standard error of the mean, infinite until there are two samples
+        double standardError(int move) {
+            int n = samples[move];
+            if (n < 2)
+                return Double.POSITIVE_INFINITY;
+            double mean = mean(move);
+            double variance = Math.max(0, (squares[move] - n * mean * mean) / (n - 1));
+            return Math.sqrt(variance / n);
+        }
+
+        // The given number of moves with the best means, or all of them
+        int[] best(int[] moves, int count) {
+            return Arrays.stream(moves).boxed().sorted((a, b) -> Double.compare(mean(b), mean(a))).limit(count)
+                    .mapToInt(Integer::intValue).sorted().toArray();
+        }
+
+        // Whether the move has been evaluated against any rack
+        boolean isSampled(int move) {
+            return samples[move] > 0;
+        }
+
+        // The racing move with the best mean, of those that have been
+        // sampled, or the first if none has
+        int leader(int[] racing) {
+            int leader = racing[0];
+            for (int i : racing) {
+                if (isSampled(i) && (!isSampled(leader) || mean(i) > mean(leader)))
+                    leader = i;
+            }
+            return leader;
+        }
+
+        /**
+         * The racing moves that can still be best. A move that has been
+         * evaluated exactly like the leader on every rack so far, such as the
+         * same word played elsewhere for the same score, cannot be told apart
+         * from it, so it drops out as well.
+         */
+        int[] race(int[] racing) {
+            if (racing.length < 2)
+                return racing;
+            int leader = leader(racing);
+            double lowerBound = mean(leader) - Z * standardError(leader);
+            return Arrays.stream(racing)
+                    .filter(i -> i == leader || samples[i] < 2
+                            || !isTiedWith(i, leader) && mean(i) + Z * standardError(i) >= lowerBound)
+                    .toArray();
+        }
+
+        private boolean isTiedWith(int move, int other) {
+            return samples[move] == samples[other] && totals[move] == totals[other]
+                    && squares[move] == squares[other];
+        }
+    }
+
+    /**
+     * One search of a position: the candidates and, for replies, the context
+     * of the board after each of them. The methods that sample run on the
+     * workers. The contexts are built before the rounds that read them.
+     */
+    private final class Search {
+        private final PlayerView playerView;
+        private final MoveList candidates;
+        private final GenerationContext context;
+        private final GenerationContext[] contexts;
+        private final long startTime;
+        private final long maxTimeMillis;
+
+        Search(PlayerView playerView, MoveList candidates, GenerationContext context, long startTime,
+                long maxTimeMillis) {
+            this.playerView = playerView;
+            this.candidates = candidates;
+            this.context = context;
+            this.contexts = new GenerationContext[candidates.size()];
+            this.startTime = startTime;
+            this.maxTimeMillis = maxTimeMillis;
+        }
+
+        boolean isTimeUp() {
+            return !isActive || System.currentTimeMillis() - startTime >= maxTimeMillis;
+        }
+
+        /**
+         * Evaluates every worker-th candidate, starting from the given one,
+         * against the first batch, until the time runs out. The positions
+         * after the moves and the player's draw are evaluated, whatever the
+         * depth.
+         */
+        Samples firstBatch(List<Rack> racks, int worker) {
+            List<SearchState> states = new ArrayList<>(racks.size());
+            for (Rack rack : racks) {
+                states.add(SearchState.of(playerView, rack));
+            }
+            int[] moves = IntStream.iterate(worker, i -> i < candidates.size(), i -> i + threads).toArray();
+            double[] totals = new double[moves.length];
+            double[] squares = new double[moves.length];
+            RandomGenerator random = ThreadLocalRandom.current();
+            int reached = 0;
+            for (; reached < moves.length && !isTimeUp(); reached++) {
+                int i = moves[reached];
+                for (SearchState state : states) {
+                    double eval = evaluate(state, i, Depth.MOVE, random);
+                    totals[reached] += eval;
+                    squares[reached] += eval * eval;
+                }
+            }
+            return new Samples(Arrays.copyOf(moves, reached), totals, squares, racks.size());
+        }
+
+        /**
+         * Evaluates the racing moves against racks sampled with the thread's
+         * own generator until the round is over or the search is stopped.
+         * Always finishes the rack it has started, so every racing move is
+         * evaluated against the same racks.
+         */
+        Samples round(int[] racing, long roundMillis) {
+            long roundStart = System.currentTimeMillis();
+            RandomGenerator random = ThreadLocalRandom.current();
+            RackIterator racks = new RackIterator(playerView, random);
+            double[] totals = new double[racing.length];
+            double[] squares = new double[racing.length];
+            int count = 0;
+            while (racks.hasNext() && isActive && System.currentTimeMillis() - roundStart < roundMillis) {
+                SearchState state = SearchState.of(playerView, racks.next());
+                for (int j = 0; j < racing.length; j++) {
+                    double eval = evaluate(state, racing[j], depth, random);
+                    totals[j] += eval;
+                    squares[j] += eval * eval;
+                }
+                count++;
+            }
+            return new Samples(racing, totals, squares, count);
+        }
+
+        // Builds the contexts of the boards after the moves, for replies
+        void prepareReplies(int[] moves) {
+            for (int i : moves) {
+                contexts[i] = context.after(PackedMove.toMove(candidates.get(i), context.getBoard()));
+            }
+        }
+
+        private double evaluate(SearchState state, int candidate, Depth depth, RandomGenerator random) {
+            int playerId = playerView.getPlayerId();
+            state.doMove(candidates.get(candidate), candidates.getScore(candidate));
+            double eval = depth == Depth.REPLY
+                    ? evaluateReply(state, contexts[candidate], random, playerId)
+                    : evaluateMove(state, random, playerId);
+            state.undoMove();
+            return eval;
+        }
+
+        // Draws for the player who moved and evaluates, so that the racks
+        // are compared at full size, whatever the move kept
+        private double evaluateMove(SearchState state, RandomGenerator random, int playerId) {
+            state.draw(playerId, random);
+            double eval = evaluator.evaluate(state, playerId);
+            state.undoDraw();
+            return eval;
+        }
+
+        // Draws for the player who moved, then plays the opponent's highest
+        // scoring reply, if there is one, and the opponent's draw
+        private double evaluateReply(SearchState state, GenerationContext after, RandomGenerator random,
+                int playerId) {
+            state.draw(playerId, random);
+
+            // One pass over all the replies, keeping the best. On positions
+            // like these it is faster than generateBestMoves, whose bounds
+            // rarely prune against a reply's score.
+            PackedMoveIterator replies = moveGenerator.rangeIterator(state.toPlayerView(after.getBoard()), after, 0,
+                    BoardConstants.TOTAL_SIZE);
+            long reply = PackedMove.NONE;
+            int replyScore = Integer.MIN_VALUE;
+            while (replies.hasNext()) {
+                long move = replies.nextPacked();
+                if (replies.score() > replyScore) {
+                    reply = move;
+                    replyScore = replies.score();
+                }
+            }
+
+            double eval;
+            if (reply == PackedMove.NONE) {
+                eval = evaluator.evaluate(state, playerId);
+            } else {
+                state.doMove(reply, replyScore);
+                state.draw(1 - playerId, random);
+                eval = evaluator.evaluate(state, playerId);
+                state.undoDraw();
+                state.undoMove();
+            }
+            state.undoDraw();
+            return eval;
+        }
     }
 
     private Move runSearch(PlayerView playerView, long maxTimeMillis, SearchListener listener) {
         long startTime = System.currentTimeMillis();
 
-        // Map to track cumulative evaluations for each move
+        // With the bag empty, solve the endgame. Engines cannot pass, so the
+        // solver is not allowed to either on the first move.
+        int unseen = playerView.getBag().size();
+        if (unseen > 0 && unseen <= GameConstants.RACK_SIZE) {
+            EndgameSolver.Solution solution = endgameSolver.solve(playerView, maxTimeMillis, false);
+            if (!solution.moves().isEmpty()) {
+                Move best = PackedMove.toMove(solution.bestMove(), playerView.getBoard());
+                if (listener != null) {
+                    listener.update(Map.of(best, (double) solution.spread()));
+                }
+                return best;
+            }
+        }
+
+        // Map to track average evaluations for each move
         Map<Move, Double> moveEvaluations = new LinkedHashMap<>();
 
-        // Create an iterator of potential opponent Racks
-        Iterator<Rack> rackIterator = RackSimulator.stream(playerView).iterator();
-
-        // Generate a batch of 10 GameStates to be used for early evaluation (quick
-        // eval)
-        int initialBatchSize = 10;
-        List<Rack> firstBatchStates = new ArrayList<>();
-        for (int i = 0; i < initialBatchSize && rackIterator.hasNext(); i++) {
-            firstBatchStates.add(rackIterator.next());
-        }
-        int processedStates = initialBatchSize;
-
-        // Start processing the original batch, break immidiately if time runs out
-        Map<Move, PlayerView> moveMap = new HashMap<>();
-        moveGenerator.streamLegalMoves(playerView)
-                .takeWhile(move -> isActive && System.currentTimeMillis() - startTime < maxTimeMillis)
-                .forEach(move -> {
-                    PlayerView newPlayerView = playerView.applyMove(move);
-                    moveMap.put(move, newPlayerView);
-
-                    double totalEval = 0;
-                    for (Rack rack : firstBatchStates) {
-                        GameState newGameState = GameState.fromPlayerView(newPlayerView, rack);
-                        totalEval += evaluator.evaluate(newGameState, playerView.getPlayerId());
-                    }
-
-                    double averageEval = totalEval / firstBatchStates.size();
-                    moveEvaluations.put(move, averageEval);
-
-                    // Update listener after each move
-                    if (listener != null) {
-                        listener.update(new LinkedHashMap<>(moveEvaluations));
-                    }
-                });
-
-        while (rackIterator.hasNext() && isActive && System.currentTimeMillis() - startTime < maxTimeMillis) {
-
-            Rack rack = rackIterator.next();
-
-            for (Move move : moveMap.keySet()) {
-                GameState newState = GameState.fromPlayerView(moveMap.get(move), rack);
-                double eval = evaluator.evaluate(newState, playerView.getPlayerId());
-
-                // Update running average for this move
-                double oldAvg = moveEvaluations.getOrDefault(move, 0.0);
-                double newAvg = oldAvg + (eval - oldAvg) / processedStates;
-                moveEvaluations.put(move, newAvg);
+        // Generate a batch of 10 racks to be used for early evaluation (quick
+        // eval). Moves are played on them and taken back, instead of copying
+        // the position for every move and rack.
+        List<Rack> firstBatch = RackSimulator.stream(playerView).limit(FIRST_BATCH_SIZE).toList();
+
+        // The generator scores every move, so applying one does not score it
+        // again.
+        GenerationContext context = moveGenerator.createContext(playerView);
+        MoveList candidates = new MoveList();
+        moveGenerator.generateLegalMoves(playerView, context, candidates);
+
+        Search search = new Search(playerView, candidates, context, startTime, maxTimeMillis);
+        Race race = new Race(candidates.size());
+        Move[] moves = new Move[candidates.size()];
+        int[] active;
+
+        // Evaluate the candidates against the first batch, dealt out to
+        // the workers in turn. Each worker stops as soon as time runs out.
+        List<Future<Samples>> batch = new ArrayList<>(threads);
+        for (int t = 0; t < threads; t++) {
+            int worker = t;
+            batch.add(workers.submit(() -> search.firstBatch(firstBatch, worker)));
+        }
+        List<Integer> evaluated = new ArrayList<>();
+        for (Future<Samples> future : batch) {
+            Samples samples = join(future);
+            race.add(samples);
+            for (int i : samples.moves()) {
+                evaluated.add(i);
+            }
+        }
+        active = evaluated.stream().mapToInt(Integer::intValue).sorted().toArray();
+        // In the pre-endgame, play the emptying move most likely to win,
+        // leaving the other moves out of the choice
+        if (PreEndgameSolver.isPreEndgame(playerView)) {
+            int[] emptying = Arrays.stream(active)
+                    .filter(i -> PreEndgameSolver.emptiesBag(playerView, candidates.get(i))).toArray();
+            if (emptying.length > 0) {
+                int[] shortlist = race.best(emptying, PRE_ENDGAME_CANDIDATES);
+                long remaining = maxTimeMillis - (System.currentTimeMillis() - startTime);
+                PreEndgameSolver.Outcome outcome = preEndgameSolver.evaluate(playerView, candidates, shortlist,
+                        workers, remaining);
+                return mostWinning(outcome, shortlist, moves, candidates, playerView, listener);
             }
+        }
+        // The first batch's race decides should no reply round complete
+        Race firstRace = race;
+        if (depth == Depth.REPLY) {
+            // Start the race again with replies, for the best candidates
+            active = race.best(active, REPLY_CANDIDATES);
+            search.prepareReplies(active);
+            race = new Race(candidates.size());
+        } else {
+            update(moveEvaluations, active, race, moves, candidates, playerView, listener);
+            active = race.race(active);
+        }
 
-            processedStates++;
+        // Keep sampling racks on all the worker threads for the moves that
+        // can still be best, merging their totals after each round, until
+        // one move is left
+        while (!playerView.getBag().isEmpty() && active.length > 1 && isActive) {
+            long roundMillis = Math.min(ROUND_MILLIS, maxTimeMillis - (System.currentTimeMillis() - startTime));
+            if (roundMillis <= 0)
+                break;
 
-            // Update listener with average evaluations
-            if (listener != null) {
-                Map<Move, Double> avgEvaluations = new LinkedHashMap<>();
-                for (Move move : moveMap.keySet()) {
-                    avgEvaluations.put(move, moveEvaluations.get(move) / processedStates);
-                }
-                listener.update(avgEvaluations);
+            int[] racing = active;
+            List<Future<Samples>> round = new ArrayList<>(threads);
+            for (int t = 0; t < threads; t++) {
+                round.add(workers.submit(() -> search.round(racing, roundMillis)));
             }
+            for (Future<Samples> future : round) {
+                race.add(join(future));
+            }
+
+            update(moveEvaluations, racing, race, moves, candidates, playerView, listener);
+            active = race.race(active);
         }
 
-        return moveEvaluations.entrySet().stream().max(Map.Entry.comparingByValue())
-                .orElseThrow(NoSuchElementException::new).getKey();
+        if (active.length == 0)
+            throw new NoSuchElementException();
+        int leader = race.leader(active);
+        if (!race.isSampled(leader))
+            leader = firstRace.leader(active);
+        return move(moves, candidates, leader, playerView);
+    }
+
+    // The move most likely to win, by the higher spread on a tie, after
+    // telling the listener every move's win probability. Moves the solver
+    // was stopped before evaluating are left out.
+    private static Move mostWinning(PreEndgameSolver.Outcome outcome, int[] evaluated, Move[] moves,
+            MoveList candidates, PlayerView playerView, SearchListener listener) {
+        double[] winProbabilities = outcome.winProbabilities();
+        double[] spreads = outcome.spreads();
+        Map<Move, Double> moveEvaluations = new LinkedHashMap<>();
+        int best = evaluated[0];
+        for (int i : evaluated) {
+            if (Double.isNaN(winProbabilities[i]))
+                continue;
+            moveEvaluations.put(move(moves, candidates, i, playerView), winProbabilities[i]);
+            if (Double.isNaN(winProbabilities[best]) || winProbabilities[i] > winProbabilities[best]
+                    || winProbabilities[i] == winProbabilities[best] && spreads[i] > spreads[best])
+                best = i;
+        }
+        if (listener != null) {
+            listener.update(moveEvaluations);
+        }
+        return move(moves, candidates, best, playerView);
+    }
+
+    // Updates the averages of the moves that have been sampled and tells the
+    // listener
+    private static void update(Map<Move, Double> moveEvaluations, int[] updated, Race race, Move[] moves,
+            MoveList candidates, PlayerView playerView, SearchListener listener) {
+        for (int i : updated) {
+            if (race.isSampled(i))
+                moveEvaluations.put(move(moves, candidates, i, playerView), race.mean(i));
+        }
+        if (listener != null) {
+            listener.update(new LinkedHashMap<>(moveEvaluations));
+        }
+    }
+
+    // The candidate as a Move, converted once
+    private static Move move(Move[] moves, MoveList candidates, int i, PlayerView playerView) {
+        if (moves[i] == null)
+            moves[i] = PackedMove.toMove(candidates.get(i), playerView.getBoard());
+        return moves[i];
+    }
+
+    private static Samples join(Future<Samples> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while simulating", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation failed", e.getCause());
+        }
     }
 
     @Override
     public void search(PlayerView playerView, SearchListener listener) {
-        isActive = true; // reset for each new search
+        reset();
         searchThread = new Thread(() -> runSearch(playerView, Long.MAX_VALUE, listener));
         searchThread.start();
     }
 
     @Override
     public Move chooseMove(PlayerView playerView, long timeMillis) {
-        isActive = true; // reset for each new move
+        reset();
         return runSearch(playerView, timeMillis, null);
     }
 
+    // Lets the engine and its solvers search again, at the start of each
+    // search
+    private void reset() {
+        isActive = true;
+        endgameSolver.reset();
+        preEndgameSolver.reset();
+    }
+
     @Override
     public void stop() {
         isActive = false;
+        endgameSolver.stop();
+        preEndgameSolver.stop();
         if (searchThread != null && searchThread.isAlive()) {
             try {
                 searchThread.join(1000); // wait up to 1s for search to finish
@@ -118,4 +541,11 @@ public class EvaluatingEngine implements Engine {
             }
         }
     }
+
+    // Stops any search and shuts the worker threads down, waiting for them
+    @Override
+    public void close() {
+        stop();
+        workers.close();
+    }
 }
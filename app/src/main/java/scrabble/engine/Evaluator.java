@@ -1,7 +1,14 @@
 package scrabble.engine;
 
 import scrabble.core.GameState;
+import scrabble.core.SearchState;
 
 public interface Evaluator {
     double evaluate(GameState gameState, int playerId);
+
+    // Same for a position searched in place, override to skip building a
+    // GameState for every evaluation
+    default double evaluate(SearchState state, int playerId) {
+        return evaluate(state.toGameState(), playerId);
+    }
 }
@@ -0,0 +1,17 @@
+package scrabble.engine;
+
+import scrabble.core.PlayerView;
+import scrabble.rules.TrieDictionary;
+
+public class GaddagMoveGenerator extends MoveGenerator {
+    public GaddagMoveGenerator(TrieDictionary dictionary) {
+        super(dictionary);
+        dictionary.getGaddag(); // build up front instead of during the first search
+    }
+
+    @Override
+    PackedMoveIterator rangeIterator(PlayerView playerView, GenerationContext context, int from, int to,
+            int minScore) {
+        return new GaddagMoveIterator(playerView, context, from, to, minScore);
+    }
+}
@@ -0,0 +1,556 @@
+package scrabble.engine;
+
+import scrabble.core.*;
+import scrabble.core.components.*;
+import scrabble.rules.Gaddag;
+import scrabble.rules.MoveScorer;
+import scrabble.rules.PackedDictionary;
+import scrabble.rules.TrieDictionary;
+import scrabble.rules.game.BagConstants;
+import scrabble.rules.game.BoardConstants;
+import scrabble.rules.game.GameConstants;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/**
+ * Generates legal moves by walking a GADDAG from every anchor. Each word is
+ * grown leftwards from the anchor, then across the separator and rightwards,
+ * so every prefix is visited once per anchor.
+ *
+ * A move is generated from its leftmost (topmost) anchor only: while growing
+ * leftwards we never place a tile on another anchor square.
+ *
+ * Given a minimum score, the search also skips every branch that cannot score
+ * more than it, see bound.
+ */
+public class GaddagMoveIterator implements PackedMoveIterator {
+    // Fields
+    private final Board board;
+    private final boolean isFirstMove;
+    private final PackedDictionary gaddag;
+    private final int separator;
+    private final int blankIndex;
+
+    private final int[] rack;
+    private final SquareSet anchors;
+
+    private final CrossChecks crossChecks;
+
+    // Moves scoring this or less are left out
+    private final int minScore;
+    private final boolean isPruning;
+
+    // The letters of the rack, most valuable first, and the values of the
+    // tiles left summed the same way: valueSums[n] is the sum of the n most
+    // valuable, see sumValues
+    private final int rackSize;
+    private final int[] lettersByValue;
+    private final int[] valueSums;
+
+    // Iterator variables
+    // Moves of the current anchor, kept packed and taken in the order found
+    private final MoveList nextMoves = new MoveList();
+    private int nextMove;
+    private int score;
+
+    // Set by countRemaining, moves are then counted instead of kept
+    private boolean isCounting;
+    private long countedMoves;
+    private int square;
+    private final int end;
+
+    // Temporary fields, used for the anchor being expanded
+    private final char[] buffer = new char[BoardConstants.SIZE];
+    private final boolean[] placed = new boolean[BoardConstants.SIZE];
+    private int line;
+    private int anchor;
+    private boolean isHorizontal;
+    private int[] allowedLetters;
+    private int[] crossScores;
+
+    // The word so far, see readWord: its tiles, word multiplier and cross
+    // words, how many tiles are left to place
+    private int mainScore;
+    private int wordMultiplier;
+    private int crossTotal;
+    private int tilesLeft;
+
+    // Board tiles in the word so far, and the last one
+    private int boardTiles;
+    private char boardTile;
+
+    private final BingoCheck bingoCheck;
+
+    // For bounding the rest of a word in the line being expanded. The empty
+    // squares in order, and counts over the squares [0, p) at index p: of empty
+    // squares, of empty premium squares, of the value of the tiles on the board
+    // and of the most the cross words of the empty squares can score.
+    private final int[] emptySquares = new int[BoardConstants.SIZE];
+    private final int[] emptyCounts = new int[BoardConstants.SIZE + 1];
+    private final int[] doubleLetters = new int[BoardConstants.SIZE + 1];
+    private final int[] tripleLetters = new int[BoardConstants.SIZE + 1];
+    private final int[] doubleWords = new int[BoardConstants.SIZE + 1];
+    private final int[] tripleWords = new int[BoardConstants.SIZE + 1];
+    private final int[] boardValues = new int[BoardConstants.SIZE + 1];
+    private final int[] crossGains = new int[BoardConstants.SIZE + 1];
+
+    public GaddagMoveIterator(PlayerView playerView, TrieDictionary dictionary) {
+        this(playerView, GenerationContext.of(playerView.getBoard(), dictionary));
+    }
+
+    // The context must have been built for the player view's board
+    public GaddagMoveIterator(PlayerView playerView, GenerationContext context) {
+        this(playerView, context, 0, BoardConstants.TOTAL_SIZE);
+    }
+
+    // Only generates the moves of the anchors in squares [from, to), see
+    // MoveSpliterator
+    GaddagMoveIterator(PlayerView playerView, GenerationContext context, int from, int to) {
+        this(playerView, context, from, to, Integer.MIN_VALUE);
+    }
+
+    // As above, skipping the moves that score minScore or less
+    GaddagMoveIterator(PlayerView playerView, GenerationContext context, int from, int to, int minScore) {
+        Gaddag gaddag = context.getDictionary().getGaddag();
+
+        this.board = context.getBoard();
+        this.isFirstMove = playerView.isFirstMove();
+        this.gaddag = gaddag.getPacked();
+        this.separator = gaddag.getSeparator();
+        this.blankIndex = BagConstants.getIndex(BagConstants.BLANK);
+
+        char[] letters = playerView.getRack().getLetters();
+        this.rack = new int[BagConstants.UNIQUE_TILES];
+        for (char tile : letters) {
+            rack[BagConstants.getIndex(tile)]++;
+        }
+
+        this.minScore = minScore;
+        this.isPruning = minScore >= 0;
+        this.rackSize = letters.length;
+        this.lettersByValue = lettersByValue(rack);
+        this.valueSums = new int[rackSize + 1];
+
+        this.anchors = context.getAnchors();
+
+        this.crossChecks = context.getCrossChecks();
+        this.bingoCheck = new BingoCheck(letters, context.getDictionary().getAnagramIndex());
+        this.end = to;
+
+        // On an empty board every move is read from the anagram index
+        if (isFirstMove) {
+            MoveList openings = new MoveList();
+            OpeningMoves.generate(letters, context.getDictionary().getAnagramIndex(), openings);
+            for (int i = 0; i < openings.size(); i++) {
+                if (openings.getScore(i) > minScore)
+                    nextMoves.add(openings.get(i), openings.getScore(i));
+            }
+            square = BoardConstants.TOTAL_SIZE;
+            return;
+        }
+
+        square = from;
+        advance();
+    }
+
+    private int[] lettersByValue(int[] counts) {
+        Integer[] letters = new Integer[BagConstants.UNIQUE_TILES];
+        int n = 0;
+        for (int letter = 0; letter < BagConstants.UNIQUE_TILES; letter++) {
+            if (counts[letter] > 0 && letter != blankIndex)
+                letters[n++] = letter;
+        }
+        Arrays.sort(letters, 0, n,
+                (a, b) -> Integer.compare(BagConstants.INDEX_TO_SCORE[b], BagConstants.INDEX_TO_SCORE[a]));
+
+        int[] result = new int[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = letters[i];
+        }
+        return result;
+    }
+
+    private void advance() {
+        for (square = anchors.next(square); square >= 0 && square < end && nextMoves.isEmpty();
+                square = anchors.next(square + 1)) {
+            int row = square / BoardConstants.SIZE;
+            int col = square % BoardConstants.SIZE;
+
+            generate(row, col, true);
+            generate(col, row, false);
+        }
+    }
+
+    // Expand all moves in one direction that have the given square as their
+    // first anchor
+    private void generate(int line, int anchor, boolean isHorizontal) {
+        this.line = line;
+        this.anchor = anchor;
+        this.isHorizontal = isHorizontal;
+        this.allowedLetters = crossChecks.masks(isHorizontal);
+        this.crossScores = crossChecks.scores(isHorizontal);
+
+        for (int i = 0; i < BoardConstants.SIZE; i++) {
+            buffer[i] = board.tileAt(toSquare(i));
+            placed[i] = false;
+        }
+
+        if (isPruning)
+            countLine();
+
+        extendLeft(anchor, gaddag.root());
+    }
+
+    // Consume the square at pos while moving leftwards
+    private void extendLeft(int pos, int node) {
+        if (buffer[pos] != GameConstants.EMPTY_SQUARE) {
+            int child = gaddag.child(node, BagConstants.getIndex(buffer[pos]));
+            if (child != PackedDictionary.NO_NODE)
+                afterLeft(pos, child);
+            return;
+        }
+
+        // Squares left of the anchor that are anchors themselves belong to an
+        // earlier expansion
+        if (pos != anchor && anchors.contains(toSquare(pos)))
+            return;
+
+        placeTiles(pos, node, true, pos);
+    }
+
+    private void afterLeft(int pos, int node) {
+        // Stop growing leftwards and turn around if the word may start here
+        if (pos == 0 || buffer[pos - 1] == GameConstants.EMPTY_SQUARE) {
+            int turn = gaddag.child(node, separator);
+            if (turn != PackedDictionary.NO_NODE)
+                afterRight(anchor, turn, pos);
+        }
+
+        if (pos > 0)
+            extendLeft(pos - 1, node);
+    }
+
+    // Consume the square at pos while moving rightwards
+    private void extendRight(int pos, int node, int start) {
+        if (buffer[pos] != GameConstants.EMPTY_SQUARE) {
+            int child = gaddag.child(node, BagConstants.getIndex(buffer[pos]));
+            if (child != PackedDictionary.NO_NODE)
+                afterRight(pos, child, start);
+            return;
+        }
+
+        placeTiles(pos, node, false, start);
+    }
+
+    private void afterRight(int pos, int node, int start) {
+        if (gaddag.isWord(node) && (pos == BoardConstants.SIZE - 1 || buffer[pos + 1] == GameConstants.EMPTY_SQUARE))
+            recordMove(start, pos);
+
+        if (pos < BoardConstants.SIZE - 1)
+            extendRight(pos + 1, node, start);
+    }
+
+    // Try every rack tile that continues the path and fits the cross-checks
+    private void placeTiles(int pos, int node, boolean isLeft, int start) {
+        int allowed = allowedLetters[toSquare(pos)];
+        if (allowed == 0)
+            return;
+        if (isPruning && bound(pos, isLeft, start) <= minScore)
+            return;
+
+        // Only letters that both continue the path and fit the square. The
+        // cross-checks never allow the blank, so the separator is left out too.
+        int letters = allowed & gaddag.childMask(node);
+        for (int rest = letters; rest != 0; rest &= rest - 1) {
+            int letter = Integer.numberOfTrailingZeros(rest);
+            if (rack[letter] == 0)
+                continue;
+
+            rack[letter]--;
+            place(pos, gaddag.child(node, letter), BagConstants.INDEX_TO_CHAR[letter], isLeft, start);
+            rack[letter]++;
+        }
+
+        if (rack[blankIndex] == 0)
+            return;
+
+        rack[blankIndex]--;
+        for (int rest = letters; rest != 0; rest &= rest - 1) {
+            int letter = Integer.numberOfTrailingZeros(rest);
+            place(pos, gaddag.child(node, letter), Character.toLowerCase(BagConstants.INDEX_TO_CHAR[letter]), isLeft,
+                    start);
+        }
+        rack[blankIndex]++;
+    }
+
+    private void place(int pos, int child, char tile, boolean isLeft, int start) {
+        buffer[pos] = tile;
+        placed[pos] = true;
+
+        if (isLeft)
+            afterLeft(pos, child);
+        else
+            afterRight(pos, child, start);
+
+        // Backtrack
+        buffer[pos] = GameConstants.EMPTY_SQUARE;
+        placed[pos] = false;
+    }
+
+    // Fill the counts used by bound for the line being expanded
+    private void countLine() {
+        int bestValue = lettersByValue.length > 0 ? BagConstants.INDEX_TO_SCORE[lettersByValue[0]] : 0;
+        for (int i = 0; i < BoardConstants.SIZE; i++) {
+            int square = toSquare(i);
+            boolean isEmpty = buffer[i] == GameConstants.EMPTY_SQUARE;
+            byte bonus = isEmpty ? BoardConstants.SCRABBLE_BOARD[square] : BoardConstants.NORMAL;
+
+            if (isEmpty)
+                emptySquares[emptyCounts[i]] = i;
+            emptyCounts[i + 1] = emptyCounts[i] + (isEmpty ? 1 : 0);
+            doubleLetters[i + 1] = doubleLetters[i] + (bonus == BoardConstants.DOUBLE_LETTER ? 1 : 0);
+            tripleLetters[i + 1] = tripleLetters[i] + (bonus == BoardConstants.TRIPLE_LETTER ? 1 : 0);
+            doubleWords[i + 1] = doubleWords[i] + (bonus == BoardConstants.DOUBLE_WORD ? 1 : 0);
+            tripleWords[i + 1] = tripleWords[i] + (bonus == BoardConstants.TRIPLE_WORD ? 1 : 0);
+            boardValues[i + 1] = boardValues[i] + (isEmpty ? 0 : MoveScorer.tileScore(buffer[i]));
+
+            int crossGain = 0;
+            if (isEmpty && crossScores[square] != CrossChecks.NO_CROSS_WORD)
+                crossGain = (crossScores[square] + bestValue * MoveScorer.letterMultiplier(bonus))
+                        * MoveScorer.wordMultiplier(bonus);
+            crossGains[i + 1] = crossGains[i] + crossGain;
+        }
+    }
+
+    /**
+     * Upper bound on the score of any move that places a tile at pos and grows
+     * from the word so far. The tiles left can only reach so many empty
+     * squares: left of pos and right of the anchor while growing leftwards,
+     * from pos on while growing rightwards. Each part of the score is taken as
+     * favourably as those squares allow on its own: the most valuable tiles on
+     * the letter premiums, every word premium and cross word, every board tile
+     * in between, and a bingo if the rack can still be emptied.
+     */
+    private int bound(int pos, boolean isLeft, int start) {
+        readWord(isLeft ? pos + 1 : start, isLeft ? anchor : pos - 1);
+        if (tilesLeft == 0)
+            return Integer.MIN_VALUE;
+
+        // The squares [leftStart, leftEnd) and [rightStart, rightEnd) are in
+        // reach
+        int leftStart = 0;
+        int leftEnd = 0;
+        int rightStart = pos;
+        int rightEnd = reachRight(pos, tilesLeft);
+        if (isLeft) {
+            int first = emptyCounts[pos] + 1 - tilesLeft;
+            leftStart = first > 0 ? emptySquares[first - 1] + 1 : 0;
+            leftEnd = pos + 1;
+            rightStart = anchor + 1;
+            rightEnd = reachRight(rightStart, tilesLeft - 1);
+        }
+
+        int empty = inReach(emptyCounts, leftStart, leftEnd, rightStart, rightEnd);
+        int n = Math.min(tilesLeft, empty);
+        sumValues(n);
+        int triples = inReach(tripleLetters, leftStart, leftEnd, rightStart, rightEnd);
+        int premiums = triples + inReach(doubleLetters, leftStart, leftEnd, rightStart, rightEnd);
+        int tileValues = valueSums[n] + valueSums[Math.min(n, premiums)] + valueSums[Math.min(n, triples)];
+
+        int tripleCount = Math.min(n, inReach(tripleWords, leftStart, leftEnd, rightStart, rightEnd));
+        int doubleCount = Math.min(n - tripleCount, inReach(doubleWords, leftStart, leftEnd, rightStart, rightEnd));
+        int multiplier = wordMultiplier << doubleCount;
+        for (int i = 0; i < tripleCount; i++) {
+            multiplier *= 3;
+        }
+
+        int boardValue = inReach(boardValues, leftStart, leftEnd, rightStart, rightEnd);
+        int cross = inReach(crossGains, leftStart, leftEnd, rightStart, rightEnd);
+        int bound = (mainScore + boardValue + tileValues) * multiplier + crossTotal + cross;
+
+        // Only rule out a bingo when it decides
+        if (bound <= minScore && bound + GameConstants.BINGO_BONUS > minScore && rackSize == GameConstants.RACK_SIZE
+                && empty >= tilesLeft && isBingoPossible(leftStart, leftEnd, rightStart, rightEnd))
+            bound += GameConstants.BINGO_BONUS;
+        return bound;
+    }
+
+    // Score the squares [first, last] of the word so far
+    private void readWord(int first, int last) {
+        mainScore = 0;
+        wordMultiplier = 1;
+        crossTotal = 0;
+        tilesLeft = rackSize;
+        boardTiles = 0;
+
+        for (int i = first; i <= last; i++) {
+            if (!placed[i]) {
+                mainScore += MoveScorer.tileScore(buffer[i]);
+                boardTiles++;
+                boardTile = buffer[i];
+                continue;
+            }
+
+            int square = toSquare(i);
+            byte bonus = BoardConstants.SCRABBLE_BOARD[square];
+            int letterScore = MoveScorer.tileScore(buffer[i]) * MoveScorer.letterMultiplier(bonus);
+            int multiplier = MoveScorer.wordMultiplier(bonus);
+            mainScore += letterScore;
+            wordMultiplier *= multiplier;
+            if (crossScores[square] != CrossChecks.NO_CROSS_WORD)
+                crossTotal += (crossScores[square] + letterScore) * multiplier;
+            tilesLeft--;
+        }
+    }
+
+    // A bingo spells the whole rack and the board tiles of the word, which
+    // may take any of those in reach. With two or more board tiles it is
+    // assumed possible.
+    private boolean isBingoPossible(int leftStart, int leftEnd, int rightStart, int rightEnd) {
+        int tilesInReach = (leftEnd - leftStart) + (rightEnd - rightStart)
+                - inReach(emptyCounts, leftStart, leftEnd, rightStart, rightEnd);
+        if (boardTiles > 1)
+            return true;
+        if (boardTiles == 1)
+            return tilesInReach > 0 || bingoCheck.spellsRackWith(boardTile);
+
+        if (tilesInReach > 1 || bingoCheck.spellsRack())
+            return true;
+        if (tilesInReach == 0)
+            return false;
+
+        int pos = leftStart;
+        while (pos < leftEnd && buffer[pos] == GameConstants.EMPTY_SQUARE)
+            pos++;
+        if (pos == leftEnd) {
+            pos = rightStart;
+            while (buffer[pos] == GameConstants.EMPTY_SQUARE)
+                pos++;
+        }
+        return bingoCheck.spellsRackWith(buffer[pos]);
+    }
+
+    // Fill valueSums up to n from the tiles left, blanks last
+    private void sumValues(int n) {
+        int i = 0;
+        for (int letter : lettersByValue) {
+            int value = BagConstants.INDEX_TO_SCORE[letter];
+            for (int c = rack[letter]; c > 0 && i < n; c--, i++) {
+                valueSums[i + 1] = valueSums[i] + value;
+            }
+        }
+        for (; i < n; i++) {
+            valueSums[i + 1] = valueSums[i];
+        }
+    }
+
+    // End of the squares from pos on that the given number of tiles can reach,
+    // with the board tiles after them
+    private int reachRight(int pos, int tiles) {
+        int last = emptyCounts[pos] + tiles;
+        return last < emptyCounts[BoardConstants.SIZE] ? emptySquares[last] : BoardConstants.SIZE;
+    }
+
+    private static int inReach(int[] counts, int leftStart, int leftEnd, int rightStart, int rightEnd) {
+        return counts[leftEnd] - counts[leftStart] + counts[rightEnd] - counts[rightStart];
+    }
+
+    private void recordMove(int start, int end) {
+        int count = 0;
+        for (int i = start; i <= end; i++) {
+            if (placed[i])
+                count++;
+        }
+
+        if (count == 1 && !isOwnSingleTileMove(start, end))
+            return;
+
+        if (isCounting) {
+            countedMoves++;
+            return;
+        }
+
+        int score = MoveScorer.scoreLine(buffer, placed, start, end, toSquare(0), isHorizontal ? 1 : BoardConstants.SIZE,
+                crossScores);
+        if (score <= minScore)
+            return;
+
+        int first = start;
+        while (!placed[first])
+            first++;
+        int last = end;
+        while (!placed[last])
+            last--;
+
+        long move = PackedMove.header(toSquare(first), !isHorizontal && count > 1, last - first);
+        for (int i = first; i <= last; i++) {
+            if (placed[i])
+                move = PackedMove.withTile(move, buffer[i]);
+        }
+        nextMoves.add(move, score);
+    }
+
+    // A single tile is found from both directions. Keep the horizontal copy
+    // unless only the vertical word has more than one letter.
+    private boolean isOwnSingleTileMove(int start, int end) {
+        boolean isLongWord = end > start;
+        if (isHorizontal)
+            return isLongWord || isFirstMove;
+
+        if (!isLongWord)
+            return false;
+
+        int row = anchor;
+        int col = line;
+        boolean hasLeft = col > 0 && !board.isEmpty(row * BoardConstants.SIZE + col - 1);
+        boolean hasRight = col < BoardConstants.SIZE - 1 && !board.isEmpty(row * BoardConstants.SIZE + col + 1);
+        return !hasLeft && !hasRight;
+    }
+
+    private int toSquare(int pos) {
+        return isHorizontal ? line * BoardConstants.SIZE + pos : pos * BoardConstants.SIZE + line;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return nextMove < nextMoves.size();
+    }
+
+    @Override
+    public Move next() {
+        return PackedMove.toMove(nextPacked(), board);
+    }
+
+    @Override
+    public long nextPacked() {
+        if (!hasNext())
+            throw new NoSuchElementException("There are no more moves");
+        score = nextMoves.getScore(nextMove);
+        long move = nextMoves.get(nextMove++);
+        if (nextMove == nextMoves.size()) {
+            nextMoves.clear();
+            nextMove = 0;
+            advance();
+        }
+        return move;
+    }
+
+    @Override
+    public int score() {
+        return score;
+    }
+
+    @Override
+    public long countRemaining() {
+        if (minScore != Integer.MIN_VALUE)
+            throw new IllegalStateException("Moves are counted without scoring, so there can be no minimum score");
+
+        countedMoves = nextMoves.size() - nextMove;
+        nextMoves.clear();
+        nextMove = 0;
+        isCounting = true;
+        advance();
+        return countedMoves;
+    }
+}
@@ -0,0 +1,121 @@
+package scrabble.engine;
+
+import scrabble.core.Move;
+import scrabble.core.Position;
+import scrabble.core.components.Board;
+import scrabble.core.components.SquareSet;
+import scrabble.rules.TrieDictionary;
+import scrabble.rules.game.BoardConstants;
+
+/**
+ * Everything the move iterators derive from a board before searching it: the
+ * rows and columns as lines and the cross-checks. The anchor squares come
+ * from the board's occupancy bits.
+ *
+ * Building it scans every square. A position that differs from its parent by
+ * one move is instead derived with after(move), which copies the parent and
+ * only revisits the lines and neighbours of the placed tiles. Contexts are
+ * never modified once built, so a parent can be shared between threads and
+ * children.
+ */
+public final class GenerationContext {
+    private final TrieDictionary dictionary;
+    private final Board board;
+
+    // Unchanged lines are shared with the parent, they must not be written to
+    private final char[][] horiLines;
+    private final char[][] vertLines;
+    private final CrossChecks crossChecks;
+
+    private GenerationContext(TrieDictionary dictionary, Board board, char[][] horiLines, char[][] vertLines,
+            CrossChecks crossChecks) {
+        this.dictionary = dictionary;
+        this.board = board;
+        this.horiLines = horiLines;
+        this.vertLines = vertLines;
+        this.crossChecks = crossChecks;
+    }
+
+    public static GenerationContext of(Board board, TrieDictionary dictionary) {
+        char[][] horiLines = new char[BoardConstants.SIZE][BoardConstants.SIZE];
+        char[][] vertLines = new char[BoardConstants.SIZE][BoardConstants.SIZE];
+        for (int row = 0; row < BoardConstants.SIZE; row++) {
+            for (int col = 0; col < BoardConstants.SIZE; col++) {
+                char tile = board.tileAt(row * BoardConstants.SIZE + col);
+                horiLines[row][col] = tile;
+                vertLines[col][row] = tile;
+            }
+        }
+
+        return new GenerationContext(dictionary, board, horiLines, vertLines,
+                new CrossChecks(board, dictionary.getPacked()));
+    }
+
+    /**
+     * Returns the context of the board after the move has been placed.
+     */
+    public GenerationContext after(Move move) {
+        Board child = board.placeWord(move);
+
+        char[][] horiLines = this.horiLines.clone();
+        char[][] vertLines = this.vertLines.clone();
+
+        for (Position position : move.getPositions()) {
+            int square = position.toIndex();
+            int row = position.row();
+            int col = position.column();
+            char tile = child.tileAt(square);
+
+            if (horiLines[row] == this.horiLines[row])
+                horiLines[row] = horiLines[row].clone();
+            if (vertLines[col] == this.vertLines[col])
+                vertLines[col] = vertLines[col].clone();
+            horiLines[row][col] = tile;
+            vertLines[col][row] = tile;
+        }
+
+        return new GenerationContext(dictionary, child, horiLines, vertLines,
+                crossChecks.after(child, dictionary.getPacked(), move));
+    }
+
+    public TrieDictionary getDictionary() {
+        return dictionary;
+    }
+
+    public Board getBoard() {
+        return board;
+    }
+
+    public boolean isAnchor(int square) {
+        return board.anchors().contains(square);
+    }
+
+    // The anchor squares, for visiting them with SquareSet.next
+    public SquareSet getAnchors() {
+        return board.anchors();
+    }
+
+    public CrossChecks getCrossChecks() {
+        return crossChecks;
+    }
+
+    // Copy of the row, for callers that write to it
+    char[] row(int row) {
+        return horiLines[row].clone();
+    }
+
+    // Copy of the column, for callers that write to it
+    char[] column(int col) {
+        return vertLines[col].clone();
+    }
+
+    // Copies the row into a buffer the caller reuses
+    void copyRow(int row, char[] into) {
+        System.arraycopy(horiLines[row], 0, into, 0, BoardConstants.SIZE);
+    }
+
+    // Copies the column into a buffer the caller reuses
+    void copyColumn(int col, char[] into) {
+        System.arraycopy(vertLines[col], 0, into, 0, BoardConstants.SIZE);
+    }
+}
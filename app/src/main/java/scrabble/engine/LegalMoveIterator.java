@@ -2,128 +2,157 @@ package scrabble.engine;
 
 import scrabble.core.*;
 import scrabble.core.components.*;
+import scrabble.rules.MoveScorer;
+import scrabble.rules.PackedDictionary;
 import scrabble.rules.TrieDictionary;
 import scrabble.rules.game.BagConstants;
 import scrabble.rules.game.BoardConstants;
 import scrabble.rules.game.GameConstants;
-import scrabble.rules.TrieNode;
 
-import java.util.ArrayDeque;
-import java.util.ArrayList;
-import java.util.Deque;
+import java.util.Arrays;
 import java.util.NoSuchElementException;
-import java.util.Iterator;
-import java.util.List;
-import java.util.Optional;
 
-public class LegalMoveIterator implements Iterator<Move> {
+/**
+ * Generates the moves of a position anchor by anchor. The search works on a
+ * count of each tile on the rack and on one line buffer per direction, which
+ * are changed on the way down and restored on the way back, so generating
+ * allocates nothing but the moves it returns. Moves are kept packed until
+ * they are returned, see nextPacked.
+ */
+public class LegalMoveIterator implements PackedMoveIterator {
     // Fields
-    private final TrieDictionary dictionary;
     private final Board board;
     private final char[] rack;
     private final boolean isFirstMove;
-    private final TrieNode trieRoot;
-
-    // Iterator variable
-    private Deque<Move> nextMoves = null;
+    private final PackedDictionary trie;
+    private final int trieRoot;
+    private final GenerationContext context;
+    private final CrossChecks crossChecks;
+
+    // The rack as tile counts, and its distinct tiles in rack order so that
+    // moves are found in the same order as when trying the rack tile by tile
+    private final int[] rackCounts = new int[BagConstants.UNIQUE_TILES];
+    private final int[] rackTiles;
+    private final int blankIndex = BagConstants.getIndex(BagConstants.BLANK);
+
+    // Moves scoring this or less are left out
+    private final int minScore;
+
+    // Search buffers, reused for every anchor
+    private final char[] horiBuffer = new char[BoardConstants.SIZE];
+    private final boolean[] horiPlaced = new boolean[BoardConstants.SIZE];
+    private final char[] vertBuffer = new char[BoardConstants.SIZE];
+    private final boolean[] vertPlaced = new boolean[BoardConstants.SIZE];
+
+    // Iterator variable, the moves of the current anchor. Taken from the end,
+    // the last found first.
+    private final MoveList nextMoves = new MoveList();
+    private int score;
+
+    // Set by countRemaining, moves are then counted instead of kept
+    private boolean isCounting;
+    private long countedMoves;
     private boolean firstMoveProcessed = false;
-    private boolean[] triedAnchors;
+    private final SquareSet anchors;
 
     // Temporary fiels, used for iteration
     private int square;
+    private final int end;
     private int currentRow;
     private int currentCol;
-    private boolean recordedSingleMoveHorizontaly;
 
-    private final char[][] horiLines = new char[BoardConstants.SIZE][BoardConstants.SIZE];
-    private final char[][] vertLines = new char[BoardConstants.SIZE][BoardConstants.SIZE];
+    public LegalMoveIterator(PlayerView playerView, TrieDictionary dictionary) {
+        this(playerView, GenerationContext.of(playerView.getBoard(), dictionary));
+    }
 
-    public void initializeBuffers() {
-        for (int i = 0; i < BoardConstants.SIZE; i++) {
-            for (int j = 0; j < BoardConstants.SIZE; j++) {
-                char tile = board.tileAt(new Position(i, j));
-                horiLines[i][j] = tile;
-                vertLines[j][i] = tile;
-            }
-        }
+    // The context must have been built for the player view's board
+    public LegalMoveIterator(PlayerView playerView, GenerationContext context) {
+        this(playerView, context, 0, BoardConstants.TOTAL_SIZE);
     }
 
-    public LegalMoveIterator(PlayerView playerView, TrieDictionary dictionary) {
-        this.dictionary = dictionary;
-        this.board = playerView.getBoard();
+    // Only generates the moves of the anchors in squares [from, to), see
+    // MoveSpliterator
+    LegalMoveIterator(PlayerView playerView, GenerationContext context, int from, int to) {
+        this(playerView, context, from, to, Integer.MIN_VALUE);
+    }
+
+    // As above, skipping the moves that score minScore or less
+    LegalMoveIterator(PlayerView playerView, GenerationContext context, int from, int to, int minScore) {
+        this.board = context.getBoard();
         this.rack = playerView.getRack().getLetters();
         this.isFirstMove = playerView.isFirstMove();
-        this.trieRoot = dictionary.getRoot();
-        triedAnchors = new boolean[BoardConstants.TOTAL_SIZE];
-        square = 0;
-        initializeBuffers();
+        this.trie = context.getDictionary().getPacked();
+        this.trieRoot = trie.root();
+        this.context = context;
+        this.crossChecks = context.getCrossChecks();
+        this.rackTiles = countRack(rack, rackCounts);
+        this.minScore = minScore;
+        this.anchors = context.getAnchors();
+        square = from;
+        end = to;
         advance();
     }
 
+    private static int[] countRack(char[] rack, int[] counts) {
+        int[] distinct = new int[rack.length];
+        int n = 0;
+        for (char tile : rack) {
+            int index = BagConstants.getIndex(tile);
+            if (counts[index]++ == 0)
+                distinct[n++] = index;
+        }
+        return Arrays.copyOf(distinct, n);
+    }
+
     // "Advanced" starts now
     private void advance() {
-        nextMoves = null;
-
         if (isFirstMove) {
             if (firstMoveProcessed)
                 return;
 
-            recordedSingleMoveHorizontaly = false;
-
-            // Special case: first move must cover center square
-            currentRow = BoardConstants.SIZE / 2;
-            currentCol = BoardConstants.SIZE / 2;
-
-            char[] horiBuffer = horiLines[currentRow].clone();
-            boolean[] horiPlaced = new boolean[BoardConstants.SIZE];
-
-            char[] vertBuffer = vertLines[currentCol].clone();
-            boolean[] vertPlaced = new boolean[BoardConstants.SIZE];
-
-            reverseBuild(rack.clone(), horiBuffer, horiPlaced, currentCol, rack.length, true);
-            reverseBuild(rack.clone(), vertBuffer, vertPlaced, currentRow, rack.length, false);
+            // Special case: first move must cover center square. Every word the
+            // rack spells is read from the anagram index instead of searched for.
+            MoveList openings = new MoveList();
+            OpeningMoves.generate(rack, context.getDictionary().getAnagramIndex(), openings);
+            for (int i = openings.size() - 1; i >= 0; i--) {
+                if (openings.getScore(i) > minScore)
+                    nextMoves.add(openings.get(i), openings.getScore(i));
+            }
 
             firstMoveProcessed = true;
             return;
         }
 
-        for (; this.square < BoardConstants.TOTAL_SIZE; this.square++) {
-            // 1. Create a position from the square and check if it is an anchor. If it's
-            // not -> continue.
-            Position anchor = Position.fromIndex(square);
-            if (!board.isAnchor(anchor))
-                continue;
-
-            recordedSingleMoveHorizontaly = false;
+        // 1. Visit the anchors from the square on
+        for (square = anchors.next(square); square >= 0 && square < end; square = anchors.next(square + 1)) {
 
-            // 2. Create a buffer for easier backtracking
+            // 2. Fill the buffers with the anchor's lines for easier backtracking
             currentRow = square / BoardConstants.SIZE;
             currentCol = square % BoardConstants.SIZE;
-
-            char[] horiBuffer = horiLines[currentRow].clone();
-            boolean[] horiPlaced = new boolean[BoardConstants.SIZE];
-
-            char[] vertBuffer = vertLines[currentCol].clone();
-            boolean[] vertPlaced = new boolean[BoardConstants.SIZE];
+            context.copyRow(currentRow, horiBuffer);
+            context.copyColumn(currentCol, vertBuffer);
 
             // 3. Recursively start building words from the anchor in both vertical and
             // horizontal directions.
-            reverseBuild(rack.clone(), horiBuffer, horiPlaced, currentCol, rack.length, true);
-            reverseBuild(rack.clone(), vertBuffer, vertPlaced, currentRow, rack.length, false);
-
-            // 4. Mark the anchor square as tried
-            triedAnchors[square] = true;
+            reverseBuild(horiBuffer, horiPlaced, currentCol, rack.length, true);
+            reverseBuild(vertBuffer, vertPlaced, currentRow, rack.length, false);
 
-            // 5. If we found any moves for this anchor, stop here
-            if (nextMoves != null && !nextMoves.isEmpty()) {
+            // 4. If we found any moves for this anchor, stop here
+            if (!nextMoves.isEmpty()) {
                 this.square++; // advance to the next square for next call
                 return;
             }
         }
+        square = end;
+    }
+
+    // Anchors are visited in square order, so every anchor before the current
+    // one has been expanded, here or by whoever handles the earlier squares
+    private boolean isTriedAnchor(int at) {
+        return at < square && anchors.contains(at);
     }
 
-    private void reverseBuild(char[] rack, char[] buffer, boolean[] placed, int depth, int limit,
-            boolean isHorizontal) {
+    private void reverseBuild(char[] buffer, boolean[] placed, int depth, int limit, boolean isHorizontal) {
         if (depth < 0)
             return;
 
@@ -133,7 +162,7 @@ public class LegalMoveIterator implements Iterator<Move> {
         // If we're at an anready explored anchor, abort mission movegeneration
         int r = isHorizontal ? currentRow : depth;
         int c = isHorizontal ? depth : currentCol;
-        if (triedAnchors[r * BoardConstants.SIZE + c])
+        if (isTriedAnchor(r * BoardConstants.SIZE + c))
             return;
 
         // Calculate starting pos
@@ -151,132 +180,78 @@ public class LegalMoveIterator implements Iterator<Move> {
                     return;
             }
             // Build one square back
-            reverseBuild(rack, buffer, placed, realStart, limit, isHorizontal);
+            reverseBuild(buffer, placed, realStart, limit, isHorizontal);
         }
 
         // If tile is empty
         else {
-            // Try to place all letters in the original position
-            boolean[] triedLetters = new boolean[BagConstants.UNIQUE_TILES];
-            for (int i = 0; i < rack.length; i++) {
-                char tile = rack[i];
-
-                // Mark the tile as tried
-                int tileIndex = BagConstants.getIndex(tile);
-                if (triedLetters[tileIndex])
+            int allowed = crossChecks.mask(toSquare(depth, isHorizontal), isHorizontal);
+            if (allowed == 0)
+                return;
+
+            // Try to place every distinct tile left on the rack
+            for (int tileIndex : rackTiles) {
+                if (rackCounts[tileIndex] == 0)
                     continue;
-                triedLetters[tileIndex] = true;
 
-                if (tile == BagConstants.BLANK) {
-                    for (int u = 0; u < BagConstants.UNIQUE_TILES; u++) {
-                        char blank = BagConstants.INDEX_TO_CHAR[u];
-                        char lower = Character.toLowerCase(blank);
+                // Take the tile from the rack
+                rackCounts[tileIndex]--;
 
-                        // Build for a normal tile
-                        if (!isCrossWordValid(blank, depth, isHorizontal))
-                            continue;
+                if (tileIndex == blankIndex) {
+                    // The word is walked from its start, so any letter the
+                    // square allows may lead somewhere
+                    for (int letters = allowed; letters != 0; letters &= letters - 1) {
+                        int u = Integer.numberOfTrailingZeros(letters);
 
                         // Place the blank tile in the buffer
-                        buffer[depth] = lower;
+                        buffer[depth] = Character.toLowerCase(BagConstants.INDEX_TO_CHAR[u]);
                         placed[depth] = true;
 
-                        // Remove the tile from the rack
-                        char[] newRack = new char[rack.length - 1];
-                        for (int k = 0, j = 0; k < rack.length; k++) {
-                            if (k == i)
-                                continue;
-                            newRack[j++] = rack[k];
-                        }
-
                         // Build Da Word
-                        buildWord(trieRoot, newRack, buffer, placed, realStart, limit - 1, isHorizontal);
+                        buildWord(trieRoot, buffer, placed, realStart, limit - 1, isHorizontal);
 
                         // Build on to the left using the real depth
-                        reverseBuild(newRack, buffer, placed, realStart, limit - 1, isHorizontal);
+                        reverseBuild(buffer, placed, realStart, limit - 1, isHorizontal);
 
                         // Backtrack
                         buffer[depth] = GameConstants.EMPTY_SQUARE;
                         placed[depth] = false;
                     }
-                    return;
-                }
+                } else if ((allowed & (1 << tileIndex)) != 0) {
+                    // Place the tile in the buffer
+                    buffer[depth] = BagConstants.INDEX_TO_CHAR[tileIndex];
+                    placed[depth] = true;
 
-                // Build for a normal tile
-                if (!isCrossWordValid(tile, depth, isHorizontal))
-                    continue;
+                    // Build Da Word
+                    buildWord(trieRoot, buffer, placed, realStart, limit - 1, isHorizontal);
 
-                // Place the tile in the buffer
-                buffer[depth] = tile;
-                placed[depth] = true;
+                    // Build on to the left
+                    reverseBuild(buffer, placed, realStart, limit - 1, isHorizontal);
 
-                // Remove the tile from the rack
-                char[] newRack = new char[rack.length - 1];
-                for (int k = 0, j = 0; k < rack.length; k++) {
-                    if (k == i)
-                        continue;
-                    newRack[j++] = rack[k];
+                    // Backtrack
+                    buffer[depth] = GameConstants.EMPTY_SQUARE;
+                    placed[depth] = false;
                 }
 
-                // Build Da Word
-                buildWord(trieRoot, newRack, buffer, placed, realStart, limit - 1, isHorizontal);
-
-                // Build on to the left
-                reverseBuild(newRack, buffer, placed, realStart, limit - 1, isHorizontal);
-
-                // Backtrack
-                buffer[depth] = GameConstants.EMPTY_SQUARE;
-                placed[depth] = false;
+                // Put the tile back
+                rackCounts[tileIndex]++;
             }
-            return;
         }
     }
 
-    private void buildWord(TrieNode node, char[] rack, char[] buffer, boolean[] placed, int depth, int limit,
-            boolean isHorizontal) {
+    private void buildWord(int node, char[] buffer, boolean[] placed, int depth, int limit, boolean isHorizontal) {
         // If the square is full, just continue
         if (depth < BoardConstants.SIZE && buffer[depth] != GameConstants.EMPTY_SQUARE) {
-            Optional<TrieNode> child = node.getChild(buffer[depth]);
-            if (child.isEmpty())
+            int child = trie.child(node, BagConstants.getIndex(buffer[depth]));
+            if (child == PackedDictionary.NO_NODE)
                 return;
 
-            buildWord(child.get(), rack, buffer, placed, depth + 1, limit, isHorizontal);
+            buildWord(child, buffer, placed, depth + 1, limit, isHorizontal);
             return;
         }
 
         // Record move
-        boolean recordCondition;
-        if (this.rack.length - limit == 1) {
-            if (recordedSingleMoveHorizontaly) {
-                if (isHorizontal) {
-                    if (!node.isWord) {
-                        char[] lineToValidate = vertLines[currentCol].clone();
-                        lineToValidate[currentRow] = buffer[currentCol];
-                        recordCondition = isWordValid(lineToValidate, currentRow, false);
-                        recordedSingleMoveHorizontaly = recordCondition;
-                    } else {
-                        recordCondition = true;
-                    }
-                } else {
-                    recordCondition = false;
-                }
-            } else {
-                if (!isHorizontal) {
-                    if (!node.isWord) {
-                        char[] lineToValidate = horiLines[currentRow].clone();
-                        lineToValidate[currentCol] = buffer[currentRow];
-                        recordCondition = isWordValid(lineToValidate, currentCol, false);
-                        recordedSingleMoveHorizontaly = recordCondition;
-                    } else {
-                        recordCondition = true;
-                    }
-                } else {
-                    recordCondition = false;
-                }
-            }
-        } else {
-            recordCondition = node.isWord;
-        }
-        if (recordCondition)
+        if (trie.isWord(node))
             recordMove(buffer, placed, isHorizontal);
 
         if (depth >= BoardConstants.SIZE)
@@ -285,112 +260,53 @@ public class LegalMoveIterator implements Iterator<Move> {
         if (limit == 0)
             return;
 
-        // Try new letters and keep building
-        boolean[] triedLetters = new boolean[BagConstants.UNIQUE_TILES];
-        for (int i = 0; i < limit; i++) {
-            char tile = rack[i];
+        int allowed = crossChecks.mask(toSquare(depth, isHorizontal), isHorizontal);
+        if (allowed == 0)
+            return;
 
-            // Mark the tile as tried
-            int tileIndex = BagConstants.getIndex(tile);
-            if (triedLetters[tileIndex])
+        // Try new letters and keep building
+        for (int tileIndex : rackTiles) {
+            if (rackCounts[tileIndex] == 0)
                 continue;
-            triedLetters[tileIndex] = true;
-
-            if (tile == BagConstants.BLANK) {
-                for (int u = 0; u < BagConstants.UNIQUE_TILES; u++) {
-                    char blank = BagConstants.INDEX_TO_CHAR[u];
-                    char lower = Character.toLowerCase(blank);
 
-                    // Treat the blank as a normal tile
-                    Optional<TrieNode> child = node.getChild(blank);
-                    if (child.isEmpty())
-                        continue;
+            rackCounts[tileIndex]--;
 
-                    if (!isCrossWordValid(blank, depth, isHorizontal))
-                        continue;
-
-                    buffer[depth] = lower;
+            if (tileIndex == blankIndex) {
+                // Treat the blank as every letter that continues the word and
+                // fits the square
+                for (int letters = allowed & trie.childMask(node); letters != 0; letters &= letters - 1) {
+                    int u = Integer.numberOfTrailingZeros(letters);
+                    int child = trie.child(node, u);
+                    buffer[depth] = Character.toLowerCase(BagConstants.INDEX_TO_CHAR[u]);
                     placed[depth] = true;
 
-                    // Remove the tile from the rack
-                    char[] newRack = new char[rack.length - 1];
-                    for (int k = 0, j = 0; k < rack.length; k++) {
-                        if (k == i)
-                            continue;
-                        newRack[j++] = rack[k];
-                    }
-
-                    buildWord(child.get(), newRack, buffer, placed, depth + 1, limit - 1, isHorizontal);
+                    buildWord(child, buffer, placed, depth + 1, limit - 1, isHorizontal);
 
                     // Backtrack
                     buffer[depth] = GameConstants.EMPTY_SQUARE;
                     placed[depth] = false;
                 }
-                return;
-            }
-
-            // Normal tile
-            Optional<TrieNode> child = node.getChild(tile);
-            if (child.isEmpty())
-                continue;
-
-            if (!isCrossWordValid(tile, depth, isHorizontal))
-                continue;
+            } else if ((allowed & (1 << tileIndex)) != 0) {
+                // Normal tile
+                int child = trie.child(node, tileIndex);
+                if (child != PackedDictionary.NO_NODE) {
+                    buffer[depth] = BagConstants.INDEX_TO_CHAR[tileIndex];
+                    placed[depth] = true;
 
-            buffer[depth] = tile;
-            placed[depth] = true;
+                    buildWord(child, buffer, placed, depth + 1, limit - 1, isHorizontal);
 
-            // Remove the tile from the rack
-            char[] newRack = new char[rack.length - 1];
-            for (int k = 0, j = 0; k < rack.length; k++) {
-                if (k == i)
-                    continue;
-                newRack[j++] = rack[k];
+                    // Backtrack
+                    buffer[depth] = GameConstants.EMPTY_SQUARE;
+                    placed[depth] = false;
+                }
             }
 
-            buildWord(child.get(), newRack, buffer, placed, depth + 1, limit - 1, isHorizontal);
-
-            // Backtrack
-            buffer[depth] = GameConstants.EMPTY_SQUARE;
-            placed[depth] = false;
+            rackCounts[tileIndex]++;
         }
     }
 
-    // Check if placing letter at depth in the buffer (which corresponds to a
-    // position on the board)
-    private boolean isCrossWordValid(char letter, int depth, boolean isHorizontal) {
-        // Get the correctly associated line (clone it because we will modify)
-        char[] associatedLine = (isHorizontal ? vertLines[depth] : horiLines[depth]).clone();
-
-        // The index inside associatedLine that corresponds to the place we're testing
-        int pos = isHorizontal ? currentRow : currentCol;
-
-        // Put the candidate letter into the cloned line
-        associatedLine[pos] = letter;
-
-        return isWordValid(associatedLine, pos, true);
-    }
-
-    // Check if a word is valid once it's already placed in the buffer
-    private boolean isWordValid(char[] buffer, int depth, boolean allow1s) {
-        // Find start and end of the contiguous word that includes 'pos'
-        int start = depth;
-        while (start > 0 && buffer[start - 1] != GameConstants.EMPTY_SQUARE) {
-            start--;
-        }
-        int end = depth;
-        while (end < BoardConstants.SIZE - 1 && buffer[end + 1] != GameConstants.EMPTY_SQUARE) {
-            end++;
-        }
-
-        int length = end - start + 1;
-        if (allow1s && length == 1) {
-            // No adjacent tiles → no crossword formed
-            return true;
-        }
-
-        String word = new String(buffer, start, length);
-        return dictionary.isWord(word);
+    private int toSquare(int depth, boolean isHorizontal) {
+        return isHorizontal ? currentRow * BoardConstants.SIZE + depth : depth * BoardConstants.SIZE + currentCol;
     }
 
     // Record a move found in the buffer, where 'placed' indicates which letters
@@ -408,6 +324,15 @@ public class LegalMoveIterator implements Iterator<Move> {
         if (minPlaced == -1)
             return; // nothing placed
 
+        // A single tile is found from both directions, keep only one copy
+        if (minPlaced == maxPlaced && !isOwnSingleTileMove(buffer, minPlaced, isHorizontal))
+            return;
+
+        if (isCounting) {
+            countedMoves++;
+            return;
+        }
+
         // 2) expand to include contiguous existing tiles adjacent to placed tiles
         int start = minPlaced;
         while (start > 0 && buffer[start - 1] != GameConstants.EMPTY_SQUARE)
@@ -416,43 +341,80 @@ public class LegalMoveIterator implements Iterator<Move> {
         while (end < BoardConstants.SIZE - 1 && buffer[end + 1] != GameConstants.EMPTY_SQUARE)
             end++;
 
-        // 3) collect only the positions/letters we actually placed
-        List<Position> posList = new ArrayList<>();
-        List<Character> charList = new ArrayList<>();
-        for (int i = start; i <= end; i++) {
-            if (placed[i]) {
-                Position pos = isHorizontal ? new Position(currentRow, i) : new Position(i, currentCol);
-                posList.add(pos);
-                charList.add(buffer[i]);
-            }
+        // 3) pack only the letters we actually placed
+        int square = toSquare(minPlaced, isHorizontal);
+        boolean isVertical = !isHorizontal && minPlaced != maxPlaced;
+        long move = PackedMove.header(square, isVertical, maxPlaced - minPlaced);
+        for (int i = minPlaced; i <= maxPlaced; i++) {
+            if (placed[i])
+                move = PackedMove.withTile(move, buffer[i]);
         }
-        if (posList.isEmpty())
-            return;
 
-        Position[] positions = posList.toArray(new Position[0]);
-        char[] letters = new char[charList.size()];
-        for (int i = 0; i < letters.length; i++)
-            letters[i] = charList.get(i);
-
-        Move move = new Move(positions, letters);
-        if (nextMoves == null)
-            nextMoves = new ArrayDeque<>();
+        // 4) score the whole word while it is in the buffer
+        int score = MoveScorer.scoreLine(buffer, placed, start, end, toSquare(0, isHorizontal),
+                isHorizontal ? 1 : BoardConstants.SIZE, crossChecks.scores(isHorizontal));
+        if (score > minScore)
+            nextMoves.add(move, score);
+    }
 
-        nextMoves.push(move);
+    // Keep the horizontal copy unless only the vertical word has more than one
+    // letter
+    private boolean isOwnSingleTileMove(char[] buffer, int pos, boolean isHorizontal) {
+        boolean isLongWord = (pos > 0 && buffer[pos - 1] != GameConstants.EMPTY_SQUARE)
+                || (pos < BoardConstants.SIZE - 1 && buffer[pos + 1] != GameConstants.EMPTY_SQUARE);
+        if (isHorizontal)
+            return isLongWord || isFirstMove;
+
+        if (!isLongWord)
+            return false;
+
+        int row = pos;
+        boolean hasLeft = currentCol > 0 && !board.isEmpty(row * BoardConstants.SIZE + currentCol - 1);
+        boolean hasRight = currentCol < BoardConstants.SIZE - 1
+                && !board.isEmpty(row * BoardConstants.SIZE + currentCol + 1);
+        return !hasLeft && !hasRight;
     }
 
     @Override
     public boolean hasNext() {
-        return (nextMoves != null && !nextMoves.isEmpty());
+        return !nextMoves.isEmpty();
     }
 
     @Override
     public Move next() {
+        return PackedMove.toMove(nextPacked(), board);
+    }
+
+    @Override
+    public long nextPacked() {
         if (!hasNext())
             throw new NoSuchElementException("There are no more moves");
-        Move move = nextMoves.pop();
+        score = nextMoves.getScore(nextMoves.size() - 1);
+        long move = nextMoves.removeLast();
         if (nextMoves.isEmpty())
             advance();
         return move;
     }
+
+    @Override
+    public int score() {
+        return score;
+    }
+
+    @Override
+    public long countRemaining() {
+        if (minScore != Integer.MIN_VALUE)
+            throw new IllegalStateException("Moves are counted without scoring, so there can be no minimum score");
+
+        // Openings are read whole from the anagram index, so count them as
+        // they come
+        countedMoves = 0;
+        isCounting = true;
+        do {
+            countedMoves += nextMoves.size();
+            nextMoves.clear();
+            advance();
+        } while (!nextMoves.isEmpty());
+        return countedMoves;
+    }
 }
@@ -1,14 +1,13 @@
 package scrabble.engine;
 
 import scrabble.core.Move;
+import scrabble.core.MoveList;
 import scrabble.core.PlayerView;
 import scrabble.rules.TrieDictionary;
+import scrabble.rules.game.BoardConstants;
 
-import java.util.Spliterator;
-import java.util.Spliterators;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
-import java.util.Iterator;
 
 public class MoveGenerator {
     private TrieDictionary dictionary;
@@ -17,10 +16,64 @@ public class MoveGenerator {
         this.dictionary = dictionary;
     }
 
+    /**
+     * Returns a sequential stream of the legal moves. It splits by anchor, so
+     * calling parallel() on it searches the board on several threads.
+     */
     public Stream<Move> streamLegalMoves(PlayerView playerView) {
-        Iterator<Move> iterator = new LegalMoveIterator(playerView, dictionary);
-        return StreamSupport.stream(
-                Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED),
-                false);
+        return streamLegalMoves(playerView, createContext(playerView));
+    }
+
+    public GenerationContext createContext(PlayerView playerView) {
+        return GenerationContext.of(playerView.getBoard(), dictionary);
+    }
+
+    // Same as streamLegalMoves(playerView), reusing a context built for its
+    // board, for example one derived from a parent position
+    public Stream<Move> streamLegalMoves(PlayerView playerView, GenerationContext context) {
+        return StreamSupport.stream(new MoveSpliterator(playerView, context,
+                (from, to) -> rangeIterator(playerView, context, from, to)), false);
+    }
+
+    // Iterator over the moves of the anchors in squares [from, to)
+    PackedMoveIterator rangeIterator(PlayerView playerView, GenerationContext context, int from, int to) {
+        return rangeIterator(playerView, context, from, to, Integer.MIN_VALUE);
+    }
+
+    // Same as above, returning only the moves that score more than minScore
+    PackedMoveIterator rangeIterator(PlayerView playerView, GenerationContext context, int from, int to,
+            int minScore) {
+        return new LegalMoveIterator(playerView, context, from, to, minScore);
+    }
+
+    /**
+     * Adds every legal move to the list in packed form with its score, without
+     * creating Move objects. The moves are made on the context's board.
+     */
+    public void generateLegalMoves(PlayerView playerView, GenerationContext context, MoveList moves) {
+        PackedMoveIterator iterator = rangeIterator(playerView, context, 0, BoardConstants.TOTAL_SIZE);
+        while (iterator.hasNext()) {
+            moves.add(iterator.nextPacked(), iterator.score());
+        }
+    }
+
+    /**
+     * Counts the legal moves without packing, scoring or keeping them, for
+     * checking a generator against known counts and timing its search alone.
+     */
+    public long countLegalMoves(PlayerView playerView) {
+        return countLegalMoves(playerView, createContext(playerView));
+    }
+
+    public long countLegalMoves(PlayerView playerView, GenerationContext context) {
+        return rangeIterator(playerView, context, 0, BoardConstants.TOTAL_SIZE).countRemaining();
+    }
+
+    /**
+     * Adds the count highest scoring legal moves to the list, best first,
+     * without generating the moves of anchors that cannot score enough.
+     */
+    public void generateBestMoves(PlayerView playerView, GenerationContext context, int count, MoveList moves) {
+        TopMoves.select(this, playerView, context, count, moves);
     }
 }
@@ -0,0 +1,109 @@
+package scrabble.engine;
+
+import scrabble.core.Move;
+import scrabble.core.PlayerView;
+import scrabble.core.components.SquareSet;
+import scrabble.rules.game.BoardConstants;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Splits move generation by anchor. Every move is generated from exactly one
+ * anchor, its first in board order, so a range of anchor squares can be
+ * searched on its own and the ranges together give the same moves, in the
+ * same order, as one iterator over the whole board.
+ *
+ * A spliterator splits its remaining anchors in half until it starts
+ * iterating. The first move is read from the anagram index and never split.
+ */
+public final class MoveSpliterator implements Spliterator<Move> {
+    /**
+     * Creates an iterator over the moves of the anchors in squares [from, to).
+     */
+    @FunctionalInterface
+    public interface RangeIterators {
+        Iterator<Move> create(int from, int to);
+    }
+
+    private final RangeIterators iterators;
+    private final int[] anchors;
+    private int lo;
+    private final int hi;
+    private Iterator<Move> iterator;
+
+    public MoveSpliterator(PlayerView playerView, GenerationContext context, RangeIterators iterators) {
+        this(iterators, anchorSquares(playerView, context));
+    }
+
+    private MoveSpliterator(RangeIterators iterators, int[] anchors) {
+        this(iterators, anchors, 0, anchors.length);
+    }
+
+    private MoveSpliterator(RangeIterators iterators, int[] anchors, int lo, int hi) {
+        this.iterators = iterators;
+        this.anchors = anchors;
+        this.lo = lo;
+        this.hi = hi;
+    }
+
+    private static int[] anchorSquares(PlayerView playerView, GenerationContext context) {
+        if (playerView.isFirstMove())
+            return new int[0];
+
+        SquareSet anchorSet = context.getAnchors();
+        int[] anchors = new int[anchorSet.size()];
+        for (int square = anchorSet.next(0), i = 0; square >= 0; square = anchorSet.next(square + 1)) {
+            anchors[i++] = square;
+        }
+        return anchors;
+    }
+
+    // The squares between the anchors are covered too, so the whole board is
+    // covered when there are no anchors
+    private Iterator<Move> iterator() {
+        if (iterator == null) {
+            int from = lo == 0 ? 0 : anchors[lo];
+            int to = hi == anchors.length ? BoardConstants.TOTAL_SIZE : anchors[hi];
+            iterator = iterators.create(from, to);
+        }
+        return iterator;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Move> action) {
+        Iterator<Move> moves = iterator();
+        if (!moves.hasNext())
+            return false;
+        action.accept(moves.next());
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super Move> action) {
+        iterator().forEachRemaining(action);
+    }
+
+    @Override
+    public Spliterator<Move> trySplit() {
+        if (iterator != null || hi - lo < 2)
+            return null;
+
+        int mid = (lo + hi) >>> 1;
+        MoveSpliterator prefix = new MoveSpliterator(iterators, anchors, lo, mid);
+        lo = mid;
+        return prefix;
+    }
+
+    // Number of anchors left, as a measure of the work left
+    @Override
+    public long estimateSize() {
+        return Math.max(1, hi - lo);
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | DISTINCT | NONNULL;
+    }
+}
@@ -0,0 +1,87 @@
+package scrabble.engine;
+
+import scrabble.core.MoveList;
+import scrabble.core.PackedMove;
+import scrabble.core.components.Board;
+import scrabble.rules.AnagramIndex;
+import scrabble.rules.MoveScorer;
+import scrabble.rules.game.BagConstants;
+import scrabble.rules.game.BoardConstants;
+
+/**
+ * Moves on an empty board, read from the anagram index instead of searched
+ * for. Every word the rack can spell is placed at every offset through the
+ * center square, horizontally and vertically, once for every way of covering
+ * its letters with rack tiles and blanks.
+ *
+ * A single tile is only placed horizontally, like the generators do. Every
+ * move is added with its score.
+ */
+public final class OpeningMoves {
+    private OpeningMoves() {
+    }
+
+    public static void generate(char[] rack, AnagramIndex index, MoveList moves) {
+        int[] counts = new int[BagConstants.UNIQUE_TILES];
+        int blanks = 0;
+        for (char tile : rack) {
+            if (tile == BagConstants.BLANK)
+                blanks++;
+            else
+                counts[BagConstants.getIndex(tile)]++;
+        }
+
+        int finalBlanks = blanks;
+        Board board = Board.emptyBoard();
+        index.forEachWord(rack, false, word -> {
+            char[] tiles = new char[word.length()];
+            assignTiles(word, 0, tiles, counts, finalBlanks, board, moves);
+        });
+    }
+
+    // Choose a rack tile or a blank for each letter of the word
+    private static void assignTiles(String word, int i, char[] tiles, int[] counts, int blanksLeft, Board board,
+            MoveList moves) {
+        if (i == tiles.length) {
+            place(tiles, board, moves);
+            return;
+        }
+
+        char letter = word.charAt(i);
+        int index = BagConstants.getIndex(letter);
+        if (counts[index] > 0) {
+            counts[index]--;
+            tiles[i] = letter;
+            assignTiles(word, i + 1, tiles, counts, blanksLeft, board, moves);
+            counts[index]++;
+        }
+        if (blanksLeft > 0) {
+            tiles[i] = Character.toLowerCase(letter);
+            assignTiles(word, i + 1, tiles, counts, blanksLeft - 1, board, moves);
+        }
+    }
+
+    private static void place(char[] tiles, Board board, MoveList moves) {
+        int center = BoardConstants.SIZE / 2;
+        int length = tiles.length;
+
+        for (int start = Math.max(0, center - length + 1); start <= center
+                && start + length <= BoardConstants.SIZE; start++) {
+            long across = line(tiles, center, start, true);
+            moves.add(across, MoveScorer.score(board, across));
+            if (length > 1) {
+                long down = line(tiles, center, start, false);
+                moves.add(down, MoveScorer.score(board, down));
+            }
+        }
+    }
+
+    private static long line(char[] tiles, int line, int start, boolean isHorizontal) {
+        int square = isHorizontal ? line * BoardConstants.SIZE + start : start * BoardConstants.SIZE + line;
+        long move = PackedMove.header(square, !isHorizontal, tiles.length - 1);
+        for (char tile : tiles) {
+            move = PackedMove.withTile(move, tile);
+        }
+        return move;
+    }
+}
@@ -0,0 +1,25 @@
+package scrabble.engine;
+
+import java.util.Iterator;
+
+import scrabble.core.Move;
+
+/**
+ * A move iterator that can also hand out its moves packed, see
+ * scrabble.core.PackedMove, together with the score found while generating
+ * them.
+ */
+public interface PackedMoveIterator extends Iterator<Move> {
+    // Same as next(), without creating a Move
+    long nextPacked();
+
+    // Score of the move last returned
+    int score();
+
+    /**
+     * Counts the moves not yet returned without packing or scoring them. The
+     * iterator is used up afterwards. Only an iterator without a minimum score
+     * can count.
+     */
+    long countRemaining();
+}
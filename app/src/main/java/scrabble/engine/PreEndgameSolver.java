@@ -0,0 +1,218 @@
+package scrabble.engine;
+
+import scrabble.core.MoveList;
+import scrabble.core.PackedMove;
+import scrabble.core.PlayerView;
+import scrabble.core.SearchState;
+import scrabble.core.components.Rack;
+import scrabble.rules.game.BagConstants;
+import scrabble.rules.game.GameConstants;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Evaluates moves when the bag is nearly empty. The unseen tiles are then the
+ * opponent's full rack and a few tiles in the bag, so instead of sampling
+ * racks every way of splitting them is listed, with the number of ways it can
+ * be drawn as its weight. A move that uses at least as many tiles as the bag
+ * holds empties it, leaving an endgame for each split, which an
+ * EndgameSolver searches with the opponent to move. The move's win
+ * probability is the weighted share of the splits it wins, a draw counting
+ * half.
+ *
+ * The endgames are searched on the given worker threads, each with its own
+ * solver, and share the time between them. A move that leaves tiles in the
+ * bag does not lead to an endgame and is not evaluated.
+ */
+public class PreEndgameSolver {
+    // Most tiles in the bag for which the splits are listed
+    public static final int MAX_BAG_SIZE = 2;
+
+    // One solver per worker, all made up front so that stop() and reset()
+    // always reach every one of them
+    private final EndgameSolver[] solvers;
+    private volatile boolean isActive = true;
+
+    public PreEndgameSolver(MoveGenerator moveGenerator, int threads) {
+        this.solvers = new EndgameSolver[threads];
+        for (int t = 0; t < threads; t++) {
+            solvers[t] = new EndgameSolver(moveGenerator);
+        }
+    }
+
+    // One way the unseen tiles can be split between the opponent's rack and
+    // the bag, and the number of ways the bag can be drawn so
+    record Split(Rack opponentRack, long weight) {
+    }
+
+    // Weighted win probability and mean final spread of every evaluated move,
+    // NaN for the moves that were not
+    public record Outcome(double[] winProbabilities, double[] spreads) {
+    }
+
+    // Whether the player's bag, less the opponent's full rack, is small
+    // enough to be split exactly
+    public static boolean isPreEndgame(PlayerView playerView) {
+        int bagSize = playerView.getBag().size() - GameConstants.RACK_SIZE;
+        return bagSize > 0 && bagSize <= MAX_BAG_SIZE;
+    }
+
+    // Whether the move empties the bag of the pre-endgame
+    public static boolean emptiesBag(PlayerView playerView, long move) {
+        return PackedMove.tileCount(move) >= playerView.getBag().size() - GameConstants.RACK_SIZE;
+    }
+
+    /**
+     * Every distinct split of the player's unseen tiles into a full opponent
+     * rack and the rest, weighted by the number of ways of drawing that rest
+     * from the tiles, which is the product over the letters of the ways of
+     * choosing its copies of the letter.
+     */
+    static List<Split> splits(PlayerView playerView) {
+        byte[] unseen = playerView.getBag().getFrequencyMap();
+        int bagSize = playerView.getBag().size() - GameConstants.RACK_SIZE;
+        List<Split> splits = new ArrayList<>();
+        addSplits(unseen, new byte[unseen.length], 0, bagSize, 1, splits);
+        return splits;
+    }
+
+    // Adds the splits with the bag's counts chosen up to the letter, and
+    // remaining tiles of the bag still to choose
+    private static void addSplits(byte[] unseen, byte[] bag, int letter, int remaining, long weight,
+            List<Split> splits) {
+        if (remaining == 0) {
+            StringBuilder rack = new StringBuilder();
+            for (int i = 0; i < unseen.length; i++) {
+                for (int j = bag[i]; j < unseen[i]; j++) {
+                    rack.append(BagConstants.INDEX_TO_CHAR[i]);
+                }
+            }
+            splits.add(new Split(Rack.fromString(rack.toString()), weight));
+            return;
+        }
+        if (letter == unseen.length)
+            return;
+        for (int count = 0; count <= Math.min(remaining, unseen[letter]); count++) {
+            bag[letter] = (byte) count;
+            addSplits(unseen, bag, letter + 1, remaining - count, weight * choose(unseen[letter], count), splits);
+        }
+        bag[letter] = 0;
+    }
+
+    private static long choose(int n, int k) {
+        long result = 1;
+        for (int i = 1; i <= k; i++) {
+            result = result * (n - k + i) / i;
+        }
+        return result;
+    }
+
+    /**
+     * Evaluates the candidates, indexes into moves, against every split. The
+     * splits are taken one at a time, their endgames dealt out to the workers
+     * in turn, each getting an equal share of the time, although a solver
+     * always completes its first iteration. Should the time run out all the
+     * same, the moves are compared over the splits done, of which there is
+     * always at least one. Once stopped, each worker only solves its first
+     * candidate of the split, and the moves left out are not evaluated. The
+     * candidates must empty the bag.
+     */
+    public Outcome evaluate(PlayerView playerView, MoveList moves, int[] candidates, ExecutorService workers,
+            long timeMillis) {
+        long startTime = System.currentTimeMillis();
+        List<Split> splits = splits(playerView);
+        int jobs = candidates.length * splits.size();
+        // Clamped so that a search without a time limit does not overflow
+        long solveMillis = Math.max(1,
+                Math.min(timeMillis, Long.MAX_VALUE / solvers.length) * solvers.length / Math.max(1, jobs));
+
+        double[] wins = new double[moves.size()];
+        double[] spreads = new double[moves.size()];
+        double[] weights = new double[moves.size()];
+        for (int s = 0; s < splits.size(); s++) {
+            if (s > 0 && (!isActive || System.currentTimeMillis() - startTime >= timeMillis))
+                break;
+            Split split = splits.get(s);
+            List<Future<int[]>> results = new ArrayList<>(solvers.length);
+            for (int t = 0; t < solvers.length; t++) {
+                int worker = t;
+                results.add(workers.submit(() -> solve(playerView, moves, candidates, split, worker, solveMillis)));
+            }
+            for (Future<int[]> future : results) {
+                int[] result = join(future);
+                for (int j = 0; j < result.length; j += 2) {
+                    int spread = result[j + 1];
+                    double win = spread > 0 ? 1 : spread == 0 ? 0.5 : 0;
+                    wins[result[j]] += split.weight() * win;
+                    spreads[result[j]] += split.weight() * spread;
+                    weights[result[j]] += split.weight();
+                }
+            }
+        }
+
+        double[] winProbabilities = new double[moves.size()];
+        for (int i = 0; i < moves.size(); i++) {
+            winProbabilities[i] = wins[i] / weights[i];
+            spreads[i] /= weights[i];
+        }
+        return new Outcome(winProbabilities, spreads);
+    }
+
+    public void stop() {
+        isActive = false;
+        for (EndgameSolver solver : solvers) {
+            solver.stop();
+        }
+    }
+
+    // Lets the solver evaluate again after stop(), called when a search starts
+    public void reset() {
+        isActive = true;
+        for (EndgameSolver solver : solvers) {
+            solver.reset();
+        }
+    }
+
+    // Solves the endgames after every worker-th candidate, starting from the
+    // given one, with the worker's own solver, until stopped. Returns each
+    // move solved with its final spread, in pairs.
+    private int[] solve(PlayerView playerView, MoveList moves, int[] candidates, Split split, int worker,
+            long solveMillis) {
+        EndgameSolver solver = solvers[worker];
+        int player = playerView.getPlayerId();
+        SearchState state = SearchState.of(playerView, split.opponentRack());
+        int[] result = new int[2 * ((candidates.length - worker + solvers.length - 1) / solvers.length)];
+        int n = 0;
+        for (int j = worker; j < candidates.length; j += solvers.length) {
+            if (n > 0 && !isActive)
+                break;
+            int i = candidates[j];
+            // The draw empties the bag, so the order the tiles come out in
+            // does not matter
+            state.doMove(moves.get(i), moves.getScore(i));
+            state.draw(player, ThreadLocalRandom.current());
+            result[n++] = i;
+            result[n++] = -solver.solve(state.toPlayerView(), solveMillis).spread();
+            state.undoDraw();
+            state.undoMove();
+        }
+        return Arrays.copyOf(result, n);
+    }
+
+    private static int[] join(Future<int[]> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while solving", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Endgame search failed", e.getCause());
+        }
+    }
+}
@@ -9,21 +9,30 @@ import java.util.Arrays;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.Random;
+import java.util.random.RandomGenerator;
 
 public class RackIterator implements Iterator<Rack> {
     private byte[] frequencyMap;
     private int bagSize;
     private int rackSize;
     private static final Random RANDOM = new Random();
+    private final RandomGenerator random;
 
     public RackIterator(PlayerView playerView) {
+        this(playerView, RANDOM);
+    }
+
+    // Draws with the given generator, which must not be shared between threads
+    // if it is not thread-safe
+    public RackIterator(PlayerView playerView, RandomGenerator random) {
+        this.random = random;
         this.frequencyMap = Arrays.copyOf(playerView.getBag().getFrequencyMap(),
                 playerView.getBag().getFrequencyMap().length);
         this.bagSize = playerView.getBag().size();
         this.rackSize = Math.min(GameConstants.RACK_SIZE, playerView.getBag().size());
     }
 
-    private static char drawTile(byte[] frequencyMap) {
+    private char drawTile(byte[] frequencyMap) {
         int totalTiles = 0;
         for (byte count : frequencyMap)
             totalTiles += count;
@@ -31,7 +40,7 @@ public class RackIterator implements Iterator<Rack> {
         if (totalTiles == 0)
             return '\0';
 
-        int r = RANDOM.nextInt(totalTiles);
+        int r = random.nextInt(totalTiles);
         for (int i = 0; i < frequencyMap.length; i++) {
             if (r < frequencyMap[i]) {
                 frequencyMap[i]--;
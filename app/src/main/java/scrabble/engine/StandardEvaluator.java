@@ -3,6 +3,7 @@ package scrabble.engine;
 import java.util.Map;
 
 import scrabble.core.GameState;
+import scrabble.core.SearchState;
 import scrabble.rules.game.*;
 import scrabble.core.components.*;
 
@@ -19,18 +20,33 @@ public class StandardEvaluator implements Evaluator {
 
     @Override
     public double evaluate(GameState gameState, int playerId) {
+        int[] scores = gameState.getScores();
+        return evaluate(scores[playerId] - scores[1 - playerId], gameState.getRacks()[playerId].getLetters(),
+                gameState.getRacks()[1 - playerId].getLetters(), boardOpenness(gameState));
+    }
+
+    @Override
+    public double evaluate(SearchState state, int playerId) {
+        return evaluate(state.getScore(playerId) - state.getScore(1 - playerId), state.rackLetters(playerId),
+                state.rackLetters(1 - playerId), BoardConstants.TOTAL_SIZE - state.tilesOnBoard());
+    }
+
+    private double evaluate(int scoreDifference, char[] myRack, char[] opponentsRack, int openSquareCount) {
         double score = 0;
-        double openSquares = boardOpenness(gameState) / (double) BoardConstants.TOTAL_SIZE;
+        double openSquares = openSquareCount / (double) BoardConstants.TOTAL_SIZE;
 
         // Score based on current score
-        score += gameState.getScores()[playerId] - gameState.getScores()[1 - playerId];
+        score += scoreDifference;
 
         // Score based on tiles in rack and how open the board is
-        char[] myRack = gameState.getRacks()[playerId].getLetters();
-        char[] opponentsRack = gameState.getRacks()[1 - playerId].getLetters();
         int rackScore = 0;
-        for (int i = 0; i < myRack.length; i++) {
-            rackScore += TILE_UTILITIES.getOrDefault(myRack[i], 0) - TILE_UTILITIES.getOrDefault(opponentsRack[i], 0);
+        // Racks can differ in size once the bag runs low, so each is summed
+        // on its own
+        for (char tile : myRack) {
+            rackScore += TILE_UTILITIES.getOrDefault(tile, 0);
+        }
+        for (char tile : opponentsRack) {
+            rackScore -= TILE_UTILITIES.getOrDefault(tile, 0);
         }
         // If the board is more open, having better tiles is better
         rackScore += openSquares;
@@ -0,0 +1,313 @@
+package scrabble.engine;
+
+import scrabble.core.MoveList;
+import scrabble.core.PlayerView;
+import scrabble.core.components.Board;
+import scrabble.core.components.SquareSet;
+import scrabble.rules.MoveScorer;
+import scrabble.rules.game.BagConstants;
+import scrabble.rules.game.BoardConstants;
+import scrabble.rules.game.GameConstants;
+
+import java.util.Arrays;
+
+/**
+ * Finds the highest scoring moves without generating every move.
+ *
+ * Every anchor gets an upper bound on the score of any move through it: for
+ * each run of empty squares through the anchor that the rack can fill, the
+ * existing tiles of the word, the word multipliers of the run and the cross
+ * words it forms, with the rack's most valuable tiles on the squares that
+ * count them most. The dictionary is ignored, except that the bingo bonus is
+ * only counted if the rack, plus at most one tile of the word, has an
+ * anagram. Anchors are searched best bound first, and the search stops once
+ * no remaining bound beats the worst move kept. Each anchor is searched with
+ * that move's score as the minimum, which a generator may use to cut its own
+ * search short.
+ */
+final class TopMoves {
+    private final MoveGenerator generator;
+    private final PlayerView playerView;
+    private final GenerationContext context;
+    private final Board board;
+    private final CrossChecks crossChecks;
+
+    // Rack tile values, most valuable first, the letters each tile can be, and
+    // the letters the rack can place
+    private final char[] rack;
+    private final int[] values;
+    private final int[] valueLetters;
+    private final int rackMask;
+    private final BingoCheck bingoCheck;
+
+    // Scratch space of bound, reused for every anchor: the empty squares of
+    // the line, and what a point of tile value is worth on each of a run's
+    private final int[] empties = new int[BoardConstants.SIZE];
+    private final int[] coefficients;
+
+    // The kept moves, a min-heap on score
+    private final long[] moves;
+    private final int[] scores;
+    private int size;
+
+    private TopMoves(MoveGenerator generator, PlayerView playerView, GenerationContext context, int count) {
+        this.generator = generator;
+        this.playerView = playerView;
+        this.context = context;
+        this.board = context.getBoard();
+        this.crossChecks = context.getCrossChecks();
+        this.rack = playerView.getRack().getLetters();
+        this.bingoCheck = new BingoCheck(rack, context.getDictionary().getAnagramIndex());
+        this.moves = new long[count];
+        this.scores = new int[count];
+
+        values = new int[rack.length];
+        valueLetters = new int[rack.length];
+        coefficients = new int[rack.length];
+        int mask = 0;
+        for (int i = 0; i < rack.length; i++) {
+            int letters = rack[i] == BagConstants.BLANK ? CrossChecks.allLetters() : 1 << BagConstants.getIndex(rack[i]);
+            int value = rack[i] == BagConstants.BLANK ? 0 : BagConstants.INDEX_TO_SCORE[BagConstants.getIndex(rack[i])];
+            mask |= letters;
+
+            // Insertion sort, most valuable first
+            int j = i - 1;
+            for (; j >= 0 && values[j] < value; j--) {
+                values[j + 1] = values[j];
+                valueLetters[j + 1] = valueLetters[j];
+            }
+            values[j + 1] = value;
+            valueLetters[j + 1] = letters;
+        }
+        rackMask = mask;
+    }
+
+    /**
+     * Adds the count highest scoring moves to the list, best first. Moves with
+     * equal scores are kept in no particular order.
+     */
+    static void select(MoveGenerator generator, PlayerView playerView, GenerationContext context, int count,
+            MoveList result) {
+        if (count <= 0)
+            return;
+
+        TopMoves top = new TopMoves(generator, playerView, context, count);
+        if (playerView.isFirstMove())
+            top.offerAll(generator.rangeIterator(playerView, context, 0, BoardConstants.TOTAL_SIZE));
+        else
+            top.searchAnchors();
+        top.drainTo(result);
+    }
+
+    private void searchAnchors() {
+        // Anchors keyed by their bound, searched best bound first so that the
+        // kept moves get good early
+        long[] anchors = new long[BoardConstants.TOTAL_SIZE];
+        int anchorCount = 0;
+        SquareSet anchorSet = context.getAnchors();
+        for (int square = anchorSet.next(0); square >= 0; square = anchorSet.next(square + 1)) {
+            int bound = Math.max(bound(square, true), bound(square, false));
+            anchors[anchorCount++] = (long) bound << Integer.SIZE | square;
+        }
+        Arrays.sort(anchors, 0, anchorCount);
+
+        for (int i = anchorCount - 1; i >= 0; i--) {
+            int bound = (int) (anchors[i] >>> Integer.SIZE);
+            int square = (int) anchors[i];
+            if (size == moves.length && bound <= scores[0])
+                return;
+
+            int minScore = size == moves.length ? scores[0] : Integer.MIN_VALUE;
+            offerAll(generator.rangeIterator(playerView, context, square, square + 1, minScore));
+        }
+    }
+
+    private void offerAll(PackedMoveIterator iterator) {
+        while (iterator.hasNext()) {
+            long move = iterator.nextPacked();
+            offer(move, iterator.score());
+        }
+    }
+
+    // Upper bound on the score of a move through the anchor, along a row if
+    // horizontal
+    private int bound(int anchor, boolean isHorizontal) {
+        int step = isHorizontal ? 1 : BoardConstants.SIZE;
+        int first = isHorizontal ? anchor - anchor % BoardConstants.SIZE : anchor % BoardConstants.SIZE;
+        int pos = isHorizontal ? anchor % BoardConstants.SIZE : anchor / BoardConstants.SIZE;
+        int[] masks = crossChecks.masks(isHorizontal);
+
+        // The empty squares of the line, by position
+        int emptyCount = 0;
+        int anchorIndex = 0;
+        for (int i = 0; i < BoardConstants.SIZE; i++) {
+            if (!board.isEmpty(first + i * step))
+                continue;
+            if (i == pos)
+                anchorIndex = emptyCount;
+            empties[emptyCount++] = i;
+        }
+
+        int best = 0;
+        for (int k = 1; k <= rack.length; k++) {
+            for (int from = Math.max(0, anchorIndex - k + 1); from <= anchorIndex && from + k <= emptyCount; from++) {
+                int runBound = runBound(from, k, first, step, masks, isHorizontal);
+                best = Math.max(best, runBound);
+            }
+        }
+        return best;
+    }
+
+    // Upper bound on the score of placing k tiles on the empty squares
+    // empties[from..from + k - 1], or 0 if the rack cannot fill them
+    private int runBound(int from, int k, int first, int step, int[] masks, boolean isHorizontal) {
+        int wordMultiplier = 1;
+        for (int j = 0; j < k; j++) {
+            int square = first + empties[from + j] * step;
+            if ((masks[square] & rackMask) == 0)
+                return 0;
+            wordMultiplier *= wordMultiplier(square);
+        }
+
+        // Existing tiles of the main word
+        int start = empties[from];
+        while (start > 0 && !board.isEmpty(first + (start - 1) * step))
+            start--;
+        int end = empties[from + k - 1];
+        while (end < BoardConstants.SIZE - 1 && !board.isEmpty(first + (end + 1) * step))
+            end++;
+
+        int existing = 0;
+        int existingCount = 0;
+        char existingTile = 0;
+        for (int i = start; i <= end; i++) {
+            int square = first + i * step;
+            if (board.isEmpty(square))
+                continue;
+            existingTile = board.tileAt(square);
+            existing += MoveScorer.tileScore(existingTile);
+            existingCount++;
+        }
+
+        // What one point of tile value on each square is worth, and what the
+        // cross words are worth on their own. Both pairing the most valuable
+        // tiles with the best squares, and giving every square the most
+        // valuable tile its cross-check allows, overestimate the tiles.
+        int constant = existing * wordMultiplier;
+        int bySquare = 0;
+        int[] crossScores = crossChecks.scores(isHorizontal);
+        for (int j = 0; j < k; j++) {
+            int square = first + empties[from + j] * step;
+            int letterMultiplier = letterMultiplier(square);
+            coefficients[j] = letterMultiplier * wordMultiplier;
+            if (crossScores[square] != CrossChecks.NO_CROSS_WORD) {
+                coefficients[j] += letterMultiplier * wordMultiplier(square);
+                constant += crossScores[square] * wordMultiplier(square);
+            }
+            bySquare += coefficients[j] * bestValue(masks[square]);
+        }
+        sortDescending(coefficients, k);
+
+        int byTile = 0;
+        for (int j = 0; j < k; j++) {
+            byTile += values[j] * coefficients[j];
+        }
+
+        int bound = constant + Math.min(byTile, bySquare);
+        if (k == GameConstants.RACK_SIZE && isBingoPossible(existingCount, existingTile))
+            bound += GameConstants.BINGO_BONUS;
+        return bound;
+    }
+
+    // Value of the most valuable rack tile among the letters
+    private int bestValue(int letters) {
+        for (int i = 0; i < values.length; i++) {
+            if ((letters & valueLetters[i]) != 0)
+                return values[i];
+        }
+        return 0;
+    }
+
+    private boolean isBingoPossible(int existingCount, char existingTile) {
+        if (existingCount == 0)
+            return bingoCheck.spellsRack();
+        return existingCount > 1 || bingoCheck.spellsRackWith(existingTile);
+    }
+
+    private static int letterMultiplier(int square) {
+        return MoveScorer.letterMultiplier(BoardConstants.SCRABBLE_BOARD[square]);
+    }
+
+    private static int wordMultiplier(int square) {
+        return MoveScorer.wordMultiplier(BoardConstants.SCRABBLE_BOARD[square]);
+    }
+
+    private static void sortDescending(int[] a, int n) {
+        for (int i = 1; i < n; i++) {
+            int x = a[i];
+            int j = i - 1;
+            for (; j >= 0 && a[j] < x; j--) {
+                a[j + 1] = a[j];
+            }
+            a[j + 1] = x;
+        }
+    }
+
+    private void offer(long move, int score) {
+        if (size < moves.length) {
+            moves[size] = move;
+            scores[size] = score;
+            siftUp(size++);
+        } else if (score > scores[0]) {
+            moves[0] = move;
+            scores[0] = score;
+            siftDown(0, size);
+        }
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (scores[parent] <= scores[i])
+                return;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i, int n) {
+        while (true) {
+            int smallest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < n && scores[left] < scores[smallest])
+                smallest = left;
+            if (right < n && scores[right] < scores[smallest])
+                smallest = right;
+            if (smallest == i)
+                return;
+            swap(i, smallest);
+            i = smallest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        long move = moves[i];
+        moves[i] = moves[j];
+        moves[j] = move;
+        int score = scores[i];
+        scores[i] = scores[j];
+        scores[j] = score;
+    }
+
+    // Heap sort the kept moves, then add them best first
+    private void drainTo(MoveList result) {
+        for (int n = size - 1; n > 0; n--) {
+            swap(0, n);
+            siftDown(0, n);
+        }
+        for (int i = 0; i < size; i++) {
+            result.add(moves[i], scores[i]);
+        }
+    }
+}
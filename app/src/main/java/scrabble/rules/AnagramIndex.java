@@ -0,0 +1,213 @@
+package scrabble.rules;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+import scrabble.rules.game.BagConstants;
+
+/**
+ * Words grouped by their sorted letters, for answering "which words can this
+ * rack spell" without walking the dictionary.
+ *
+ * A multiset of letters is keyed by its letter indexes in ascending order,
+ * five bits each, which fits words of up to twelve letters in a long. Only
+ * words up to maxLength letters are indexed. The keys live in an
+ * open-addressing table pointing at runs of an array of words, so a query only
+ * allocates what it returns.
+ *
+ * A blank on the rack stands for any letter. Queries enumerate each candidate
+ * multiset once, so every word is reported once.
+ */
+public final class AnagramIndex {
+    private static final int BITS_PER_LETTER = 5;
+    private static final int MAX_KEY_LENGTH = Long.SIZE / BITS_PER_LETTER;
+
+    private final int maxLength;
+    private final long[] keys;
+    private final int[] starts;
+    private final int[] ends;
+    private final String[] words;
+    private final int mask;
+    private final int blankIndex;
+
+    private AnagramIndex(int maxLength, long[] keys, int[] starts, int[] ends, String[] words) {
+        this.maxLength = maxLength;
+        this.keys = keys;
+        this.starts = starts;
+        this.ends = ends;
+        this.words = words;
+        this.mask = keys.length - 1;
+        this.blankIndex = BagConstants.getIndex(BagConstants.BLANK);
+    }
+
+    public static AnagramIndex build(PackedDictionary dictionary, int maxLength) {
+        if (maxLength < 1 || maxLength > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException(
+                    "Maximum length must be between 1 and " + MAX_KEY_LENGTH + ", got " + maxLength + ".");
+        }
+
+        List<String> indexed = new ArrayList<>();
+        dictionary.forEachWord(word -> {
+            if (word.length() <= maxLength)
+                indexed.add(word);
+        });
+
+        int n = indexed.size();
+        long[] wordKeys = new long[n];
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            wordKeys[i] = key(indexed.get(i));
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.<Integer>comparingLong(i -> wordKeys[i]).thenComparing(indexed::get));
+
+        int distinct = 0;
+        for (int i = 0; i < n; i++) {
+            if (i == 0 || wordKeys[order[i]] != wordKeys[order[i - 1]])
+                distinct++;
+        }
+
+        int capacity = Integer.highestOneBit(Math.max(1, distinct) * 2 - 1) << 1;
+        long[] keys = new long[capacity];
+        int[] starts = new int[capacity];
+        int[] ends = new int[capacity];
+        String[] words = new String[n];
+
+        for (int i = 0; i < n;) {
+            long key = wordKeys[order[i]];
+            int start = i;
+            for (; i < n && wordKeys[order[i]] == key; i++) {
+                words[i] = indexed.get(order[i]);
+            }
+
+            int slot = slot(key, capacity - 1);
+            while (keys[slot] != 0)
+                slot = (slot + 1) & (capacity - 1);
+            keys[slot] = key;
+            starts[slot] = start;
+            ends[slot] = i;
+        }
+
+        return new AnagramIndex(maxLength, keys, starts, ends, words);
+    }
+
+    private static long key(String word) {
+        int[] letters = new int[word.length()];
+        for (int i = 0; i < letters.length; i++) {
+            letters[i] = BagConstants.getIndex(word.charAt(i));
+        }
+        Arrays.sort(letters);
+
+        long key = 0;
+        for (int letter : letters) {
+            key = (key << BITS_PER_LETTER) | (letter + 1);
+        }
+        return key;
+    }
+
+    private static int slot(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    public int getMaxLength() {
+        return maxLength;
+    }
+
+    /**
+     * Words that use every tile of the rack.
+     */
+    public List<String> anagrams(char[] rack) {
+        List<String> result = new ArrayList<>();
+        forEachWord(rack, true, result::add);
+        return result;
+    }
+
+    /**
+     * Words that use some or all of the tiles of the rack.
+     */
+    public List<String> subanagrams(char[] rack) {
+        List<String> result = new ArrayList<>();
+        forEachWord(rack, false, result::add);
+        return result;
+    }
+
+    // True if some word uses every tile of the rack, such as a bingo
+    public boolean hasAnagram(char[] rack) {
+        if (rack.length > maxLength)
+            return false;
+        return search(counts(rack), 0, 0L, 0, blanks(rack), true, null);
+    }
+
+    public void forEachWord(char[] rack, boolean useAllTiles, Consumer<String> action) {
+        if (useAllTiles && rack.length > maxLength)
+            return;
+        search(counts(rack), 0, 0L, 0, blanks(rack), useAllTiles, action);
+    }
+
+    private int[] counts(char[] rack) {
+        int[] counts = new int[BagConstants.UNIQUE_TILES];
+        for (char tile : rack) {
+            counts[BagConstants.getIndex(tile)]++;
+        }
+        counts[blankIndex] = 0;
+        return counts;
+    }
+
+    private static int blanks(char[] rack) {
+        int blanks = 0;
+        for (char tile : rack) {
+            if (tile == BagConstants.BLANK)
+                blanks++;
+        }
+        return blanks;
+    }
+
+    // Choose how many of each letter the word has, in letter order, and look
+    // up the finished multiset. Returns true as soon as a word is found if
+    // there is no action to call.
+    private boolean search(int[] counts, int letter, long key, int length, int blanksLeft, boolean useAllTiles,
+            Consumer<String> action) {
+        if (letter == counts.length) {
+            if (length == 0 || (useAllTiles && blanksLeft > 0))
+                return false;
+            return report(key, action);
+        }
+
+        if (letter == blankIndex || (counts[letter] == 0 && blanksLeft == 0))
+            return search(counts, letter + 1, key, length, blanksLeft, useAllTiles, action);
+
+        int min = useAllTiles ? counts[letter] : 0;
+        int max = Math.min(counts[letter] + blanksLeft, maxLength - length);
+        for (int i = 0; i < min; i++) {
+            key = (key << BITS_PER_LETTER) | (letter + 1);
+        }
+
+        for (int m = min; m <= max; m++) {
+            int blanksUsed = Math.max(0, m - counts[letter]);
+            if (search(counts, letter + 1, key, length + m, blanksLeft - blanksUsed, useAllTiles, action))
+                return true;
+            key = (key << BITS_PER_LETTER) | (letter + 1);
+        }
+        return false;
+    }
+
+    private boolean report(long key, Consumer<String> action) {
+        int slot = slot(key, mask);
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                if (action == null)
+                    return true;
+                for (int i = starts[slot]; i < ends[slot]; i++) {
+                    action.accept(words[i]);
+                }
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+}
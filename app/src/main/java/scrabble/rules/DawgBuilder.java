@@ -0,0 +1,135 @@
+package scrabble.rules;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Builds a TrieDictionary whose trie is minimized into a DAWG. Nodes with the
+ * same word flag and the same children are merged bottom-up, so shared
+ * suffixes such as -ING or -S are stored once instead of once per word.
+ *
+ * The minimized graph shares nodes between words and must not be modified
+ * afterwards, so a builder can only be built once.
+ */
+public final class DawgBuilder {
+    private final Trie trie = new Trie();
+    private DictionaryStats trieStats;
+    private DictionaryStats dawgStats;
+    private DictionaryStats packedStats;
+    private boolean built = false;
+
+    public DawgBuilder add(String word) {
+        if (built)
+            throw new IllegalStateException("Dictionary has already been built.");
+        trie.insert(word);
+        return this;
+    }
+
+    public DawgBuilder addAll(Iterable<String> words) {
+        for (String word : words) {
+            add(word);
+        }
+        return this;
+    }
+
+    public TrieDictionary build() {
+        if (built)
+            throw new IllegalStateException("Dictionary has already been built.");
+        built = true;
+
+        trieStats = DictionaryStats.of(trie.getRoot());
+        minimize(trie.getRoot());
+        dawgStats = DictionaryStats.of(trie.getRoot());
+
+        PackedDictionary packed = PackedDictionary.pack(trie.getRoot());
+        packedStats = packed.stats();
+
+        return new TrieDictionary(packed);
+    }
+
+    // Size of the plain trie, before minimizing
+    public DictionaryStats getTrieStats() {
+        return trieStats;
+    }
+
+    // Size of the minimized DAWG
+    public DictionaryStats getDawgStats() {
+        return dawgStats;
+    }
+
+    // Size of the DAWG once packed, which is what the dictionary keeps
+    public DictionaryStats getPackedStats() {
+        return packedStats;
+    }
+
+    /**
+     * Merges equivalent subtrees below the root in place. The root node itself
+     * is kept, so existing references to it stay valid, but no words may be
+     * inserted into the graph afterwards.
+     */
+    public static void minimize(TrieNode root) {
+        Map<NodeKey, TrieNode> registry = new HashMap<>();
+        replaceChildren(root, registry);
+    }
+
+    /**
+     * Returns the registered node equivalent to the subtree, registering it if
+     * there is none. Disjoint subtrees may be canonicalized from several
+     * threads when the registry is a ConcurrentMap.
+     */
+    static TrieNode canonicalize(TrieNode node, Map<NodeKey, TrieNode> registry) {
+        replaceChildren(node, registry);
+        TrieNode existing = registry.putIfAbsent(new NodeKey(node), node);
+        return existing == null ? node : existing;
+    }
+
+    private static void replaceChildren(TrieNode node, Map<NodeKey, TrieNode> registry) {
+        TrieNode[] children = node.children;
+        for (int i = 0; i < children.length; i++) {
+            if (children[i] != null)
+                children[i] = canonicalize(children[i], registry);
+        }
+    }
+
+    // Two nodes are equivalent once their children have been canonicalized and
+    // are the very same objects
+    static final class NodeKey {
+        private final TrieNode node;
+        private final int hash;
+
+        NodeKey(TrieNode node) {
+            this.node = node;
+
+            int result = Boolean.hashCode(node.isWord);
+            for (TrieNode child : node.children) {
+                result = 31 * result + System.identityHashCode(child);
+            }
+            this.hash = result;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+            if (!(o instanceof NodeKey))
+                return false;
+            NodeKey other = (NodeKey) o;
+
+            if (node.isWord != other.node.isWord)
+                return false;
+
+            TrieNode[] a = node.children;
+            TrieNode[] b = other.node.children;
+            for (int i = 0; i < a.length; i++) {
+                if (a[i] != b[i])
+                    return false;
+            }
+            return true;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
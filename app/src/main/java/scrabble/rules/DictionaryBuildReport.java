@@ -0,0 +1,23 @@
+package scrabble.rules;
+
+import java.util.List;
+
+/**
+ * What a ParallelDawgBuilder run read and how long each phase took. Rejected
+ * samples holds the first few entries that were not made of tiles.
+ */
+public record DictionaryBuildReport(long lines, int words, long duplicates, long rejected,
+        List<String> rejectedSamples, DictionaryStats dawgStats, DictionaryStats packedStats,
+        long readMillis, long minimizeMillis, long packMillis) {
+
+    public long totalMillis() {
+        return readMillis + minimizeMillis + packMillis;
+    }
+
+    @Override
+    public String toString() {
+        return words + " words from " + lines + " lines (" + duplicates + " duplicates, " + rejected
+                + " rejected), " + dawgStats + " in " + totalMillis() + " ms (read " + readMillis
+                + " ms, minimize " + minimizeMillis + " ms, pack " + packMillis + " ms)";
+    }
+}
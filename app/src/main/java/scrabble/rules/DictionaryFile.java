@@ -0,0 +1,120 @@
+package scrabble.rules;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import scrabble.rules.game.BagConstants;
+import scrabble.rules.game.GameRules;
+
+/**
+ * Precompiled binary dictionary. The packed trie and GADDAG are written as
+ * little-endian ints and memory-mapped on load, so queries run directly on the
+ * mapped pages: there is no parsing, no rebuilding and no heap copy, and the
+ * page cache is shared by every JVM that maps the same file.
+ *
+ * Layout, in ints:
+ *
+ * <pre>
+ * MAGIC, VERSION,
+ * alphabet size A, A tile characters in letter index order,
+ * trie size T, GADDAG size G,
+ * T ints of packed trie, G ints of packed GADDAG
+ * </pre>
+ */
+public final class DictionaryFile {
+    private static final int MAGIC = 0x47574144; // "DAWG" as little-endian bytes
+    private static final int VERSION = 1;
+
+    private DictionaryFile() {
+    }
+
+    /**
+     * Compiles a text word list, one word per line and optionally
+     * gzip-compressed, into a binary dictionary.
+     */
+    public static DictionaryBuildReport compile(Path wordList, Path output) throws IOException {
+        ParallelDawgBuilder builder = new ParallelDawgBuilder();
+        write(builder.build(wordList), output);
+        return builder.getReport();
+    }
+
+    public static void write(TrieDictionary dictionary, Path output) throws IOException {
+        IntBuffer trie = dictionary.getPacked().data();
+        IntBuffer gaddag = dictionary.getGaddag().getPacked().data();
+        char[] alphabet = BagConstants.INDEX_TO_CHAR;
+
+        int headerInts = 2 + 1 + alphabet.length + 2;
+        long totalInts = (long) headerInts + trie.remaining() + gaddag.remaining();
+        ByteBuffer bytes = ByteBuffer.allocate(Math.toIntExact(totalInts * Integer.BYTES))
+                .order(ByteOrder.LITTLE_ENDIAN);
+
+        IntBuffer ints = bytes.asIntBuffer();
+        ints.put(MAGIC).put(VERSION).put(alphabet.length);
+        for (char c : alphabet) {
+            ints.put(c);
+        }
+        ints.put(trie.remaining()).put(gaddag.remaining());
+        ints.put(trie).put(gaddag);
+
+        Files.write(output, bytes.array());
+    }
+
+    /**
+     * Memory-maps a compiled dictionary. The tile set of the loaded game rules
+     * must be the one the file was compiled with.
+     */
+    public static TrieDictionary map(Path file) throws IOException {
+        MappedByteBuffer bytes;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        IntBuffer ints = bytes.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+
+        if (ints.remaining() < 3 || ints.get(0) != MAGIC)
+            throw new IOException(file + " is not a compiled dictionary.");
+        if (ints.get(1) != VERSION)
+            throw new IOException(
+                    "Unsupported dictionary version " + ints.get(1) + " in " + file + ", expected " + VERSION + ".");
+
+        int alphabetSize = ints.get(2);
+        char[] alphabet = BagConstants.INDEX_TO_CHAR;
+        boolean sameAlphabet = alphabetSize == alphabet.length;
+        for (int i = 0; sameAlphabet && i < alphabetSize; i++) {
+            sameAlphabet = ints.get(3 + i) == alphabet[i];
+        }
+        if (!sameAlphabet)
+            throw new IllegalStateException(file + " was compiled for a different tile set.");
+
+        int sizes = 3 + alphabetSize;
+        int trieStart = sizes + 2;
+        int trieSize = ints.get(sizes);
+        int gaddagSize = ints.get(sizes + 1);
+        if ((long) trieStart + trieSize + gaddagSize != ints.limit())
+            throw new IOException(file + " is truncated or corrupt.");
+
+        PackedDictionary trie = PackedDictionary.wrap(ints.slice(trieStart, trieSize));
+        PackedDictionary gaddag = PackedDictionary.wrap(ints.slice(trieStart + trieSize, gaddagSize));
+        return new TrieDictionary(trie, Gaddag.wrap(gaddag));
+    }
+
+    /**
+     * Usage: DictionaryFile &lt;rules.json&gt; &lt;words.txt&gt; &lt;output&gt;
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("Usage: DictionaryFile <rules.json> <words.txt> <output>");
+            System.exit(1);
+        }
+
+        GameRules.load(args[0]);
+        System.out.println(compile(Paths.get(args[1]), Paths.get(args[2])));
+    }
+}
@@ -1,31 +1,53 @@
 package scrabble.rules;
 
-import java.util.List;
-import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.io.IOException;
 
+/**
+ * The process-wide LexiconRegistry. The single-dictionary methods work on its
+ * DEFAULT_LEXICON entry.
+ */
 public final class DictionaryProvider {
-    private static TrieDictionary dictionary;
+    public static final String DEFAULT_LEXICON = "default";
+
+    private static final LexiconRegistry registry = new LexiconRegistry();
 
     private DictionaryProvider() {
     }
 
+    public static LexiconRegistry registry() {
+        return registry;
+    }
+
     /**
      * Loads a dictionary from a file. Only needs to be called once at startup.
      */
     public static void loadFromFile(String filePath) throws IOException {
-        List<String> words = Files.readAllLines(Paths.get(filePath));
-        dictionary = new TrieDictionary(words);
+        registry.reload(DEFAULT_LEXICON, LexiconRegistry.textFile(Paths.get(filePath)));
     }
 
     /**
-     * Returns the single shared dictionary instance.
+     * Memory-maps a dictionary compiled with DictionaryFile, skipping the
+     * rebuild from text.
+     */
+    public static void loadCompiled(String filePath) throws IOException {
+        registry.reload(DEFAULT_LEXICON, LexiconRegistry.compiledFile(Paths.get(filePath)));
+    }
+
+    /**
+     * Returns the shared default dictionary instance.
      */
     public static TrieDictionary get() {
-        if (dictionary == null) {
+        if (!registry.isRegistered(DEFAULT_LEXICON)) {
             throw new IllegalStateException("Dictionary not loaded. Call loadFromFile() first.");
         }
-        return dictionary;
+        return registry.get(DEFAULT_LEXICON);
+    }
+
+    /**
+     * Returns the dictionary of the lexicon, loading it on first use.
+     */
+    public static TrieDictionary get(String lexicon) {
+        return registry.get(lexicon);
     }
-}
\ No newline at end of file
+}
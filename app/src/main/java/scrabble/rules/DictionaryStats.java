@@ -0,0 +1,53 @@
+package scrabble.rules;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import scrabble.rules.game.BagConstants;
+
+/**
+ * Size of a dictionary graph, with shared nodes counted once. For a TrieNode
+ * graph the memory estimate assumes a 64-bit JVM with compressed references,
+ * for a PackedDictionary it is the size of its array.
+ */
+public record DictionaryStats(int nodes, int edges, long estimatedBytes) {
+    // Object header + children reference + word flag, padded to 8 bytes
+    private static final int NODE_BYTES = 16;
+    private static final int ARRAY_HEADER_BYTES = 16;
+    private static final int REFERENCE_BYTES = 4;
+
+    public static DictionaryStats of(TrieNode root) {
+        Set<TrieNode> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<TrieNode> stack = new ArrayDeque<>();
+        stack.push(root);
+        visited.add(root);
+
+        int edges = 0;
+        while (!stack.isEmpty()) {
+            TrieNode node = stack.pop();
+            for (TrieNode child : node.children) {
+                if (child == null)
+                    continue;
+                edges++;
+                if (visited.add(child))
+                    stack.push(child);
+            }
+        }
+
+        int nodes = visited.size();
+        return new DictionaryStats(nodes, edges, (long) nodes * bytesPerNode());
+    }
+
+    private static long bytesPerNode() {
+        long arrayBytes = ARRAY_HEADER_BYTES + (long) REFERENCE_BYTES * BagConstants.UNIQUE_TILES;
+        return NODE_BYTES + ((arrayBytes + 7) & ~7L);
+    }
+
+    @Override
+    public String toString() {
+        return nodes + " nodes, " + edges + " edges, ~" + estimatedBytes / 1024 + " KiB";
+    }
+}
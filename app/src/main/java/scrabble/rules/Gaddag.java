@@ -0,0 +1,92 @@
+package scrabble.rules;
+
+import scrabble.rules.game.BagConstants;
+
+/**
+ * A GADDAG stores every word once per split point as
+ * reverse(prefix) + SEPARATOR + suffix. Starting at an anchor, a move can then
+ * be grown leftwards and continued rightwards in one traversal, instead of
+ * restarting a forward walk for every left extension.
+ *
+ * The blank tile never appears inside a dictionary word, so its letter index
+ * is used as the separator. The graph is minimized and kept packed.
+ */
+public final class Gaddag {
+    private final PackedDictionary packed;
+    private final int separator;
+
+    private Gaddag(PackedDictionary packed) {
+        this.packed = packed;
+        this.separator = BagConstants.getIndex(BagConstants.BLANK);
+    }
+
+    static Gaddag wrap(PackedDictionary packed) {
+        return new Gaddag(packed);
+    }
+
+    static Gaddag build(PackedDictionary words) {
+        TrieNode root = new TrieNode(false);
+        int separator = BagConstants.getIndex(BagConstants.BLANK);
+
+        words.forEachWord(word -> insert(root, word, separator));
+        DawgBuilder.minimize(root);
+
+        return wrap(PackedDictionary.pack(root));
+    }
+
+    // Insert every rotation of the word
+    private static void insert(TrieNode root, String word, int separator) {
+        int n = word.length();
+        if (n == 0)
+            return;
+
+        int[] letters = new int[n];
+        for (int i = 0; i < n; i++) {
+            letters[i] = BagConstants.getIndex(word.charAt(i));
+        }
+
+        for (int split = 1; split <= n; split++) {
+            TrieNode current = root;
+            for (int i = split - 1; i >= 0; i--) {
+                current = childOrCreate(current, letters[i]);
+            }
+            current = childOrCreate(current, separator);
+            for (int i = split; i < n; i++) {
+                current = childOrCreate(current, letters[i]);
+            }
+            current.isWord = true;
+        }
+    }
+
+    private static TrieNode childOrCreate(TrieNode node, int index) {
+        TrieNode child = node.children[index];
+        if (child == null) {
+            child = new TrieNode(false);
+            node.children[index] = child;
+        }
+        return child;
+    }
+
+    // Check if a word exists, using the path starting with its first letter
+    public boolean containsWord(String word) {
+        if (word.isEmpty())
+            return false;
+
+        int node = packed.child(packed.root(), BagConstants.getIndex(word.charAt(0)));
+        if (node != PackedDictionary.NO_NODE)
+            node = packed.child(node, separator);
+
+        for (int i = 1, n = word.length(); i < n && node != PackedDictionary.NO_NODE; i++) {
+            node = packed.child(node, BagConstants.getIndex(word.charAt(i)));
+        }
+        return node != PackedDictionary.NO_NODE && packed.isWord(node);
+    }
+
+    public int getSeparator() {
+        return separator;
+    }
+
+    public PackedDictionary getPacked() {
+        return packed;
+    }
+}
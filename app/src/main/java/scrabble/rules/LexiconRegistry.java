@@ -0,0 +1,161 @@
+package scrabble.rules;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import scrabble.rules.game.BagConstants;
+
+/**
+ * Dictionaries by lexicon id, loaded on first use and shared by every engine
+ * in the process. A TrieDictionary never changes once built, so sharing needs
+ * no locking.
+ *
+ * reload(...) builds the new version next to the old one and then swaps it in
+ * atomically. Engines that already hold the old dictionary finish their search
+ * on it, and it is collected (or unmapped) when the last of them lets go.
+ *
+ * Letter indexes come from the loaded game rules, so a lexicon can only be
+ * used while the rules it was loaded under, or rules with the same tiles, are
+ * loaded.
+ */
+public final class LexiconRegistry {
+    /**
+     * Where a lexicon is loaded from.
+     */
+    @FunctionalInterface
+    public interface Source {
+        TrieDictionary load() throws IOException;
+    }
+
+    private final ConcurrentMap<String, Lexicon> lexicons = new ConcurrentHashMap<>();
+
+    // A word list with one word per line, optionally gzip-compressed
+    public static Source textFile(Path path) {
+        return () -> new ParallelDawgBuilder().build(path);
+    }
+
+    // A dictionary compiled with DictionaryFile
+    public static Source compiledFile(Path path) {
+        return () -> DictionaryFile.map(path);
+    }
+
+    /**
+     * Registers a lexicon without loading it.
+     */
+    public void register(String id, Source source) {
+        if (lexicons.putIfAbsent(id, new Lexicon(id, source)) != null)
+            throw new IllegalArgumentException("Lexicon " + id + " is already registered.");
+    }
+
+    public boolean isRegistered(String id) {
+        return lexicons.containsKey(id);
+    }
+
+    public Set<String> ids() {
+        return Set.copyOf(lexicons.keySet());
+    }
+
+    /**
+     * Returns the current version of the lexicon, loading it if needed.
+     */
+    public TrieDictionary get(String id) {
+        return lexicon(id).get();
+    }
+
+    /**
+     * Loads the lexicon again from its source and makes the new version
+     * current. Returns the new version.
+     */
+    public TrieDictionary reload(String id) throws IOException {
+        return lexicon(id).reload(null);
+    }
+
+    /**
+     * Loads the lexicon from a new source and makes it current, registering
+     * the id if needed. Returns the new version. If the load fails, an id
+     * registered by this call is removed again.
+     */
+    public TrieDictionary reload(String id, Source source) throws IOException {
+        Lexicon added = new Lexicon(id, source);
+        Lexicon existing = lexicons.putIfAbsent(id, added);
+        Lexicon lexicon = existing != null ? existing : added;
+        try {
+            return lexicon.reload(source);
+        } catch (IOException | RuntimeException e) {
+            if (existing == null)
+                lexicons.remove(id, added);
+            throw e;
+        }
+    }
+
+    /**
+     * Removes the lexicon. Engines holding it can keep using it.
+     */
+    public void unregister(String id) {
+        lexicons.remove(id);
+    }
+
+    private Lexicon lexicon(String id) {
+        Lexicon lexicon = lexicons.get(id);
+        if (lexicon == null)
+            throw new IllegalArgumentException("Unknown lexicon: " + id);
+        return lexicon;
+    }
+
+    private record Version(TrieDictionary dictionary, char[] alphabet) {
+    }
+
+    private static final class Lexicon {
+        private final String id;
+        private Source source;
+        private volatile Version current;
+
+        Lexicon(String id, Source source) {
+            this.id = id;
+            this.source = source;
+        }
+
+        TrieDictionary get() {
+            Version version = current;
+            if (version == null) {
+                synchronized (this) {
+                    version = current;
+                    if (version == null) {
+                        try {
+                            version = load(source);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException("Failed to load lexicon " + id, e);
+                        }
+                        current = version;
+                    }
+                }
+            }
+
+            if (!Arrays.equals(version.alphabet(), BagConstants.INDEX_TO_CHAR)) {
+                throw new IllegalStateException("Lexicon " + id + " was loaded for the tiles "
+                        + new String(version.alphabet()) + ", but the game rules use "
+                        + new String(BagConstants.INDEX_TO_CHAR) + ".");
+            }
+            return version.dictionary();
+        }
+
+        // Readers keep getting the old version until the new one is built
+        synchronized TrieDictionary reload(Source newSource) throws IOException {
+            Source from = newSource != null ? newSource : source;
+            Version version = load(from);
+            source = from;
+            current = version;
+            return version.dictionary();
+        }
+
+        private static Version load(Source source) throws IOException {
+            char[] alphabet = BagConstants.INDEX_TO_CHAR.clone();
+            return new Version(source.load(), alphabet);
+        }
+    }
+}
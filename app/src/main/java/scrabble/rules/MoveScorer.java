@@ -2,12 +2,14 @@ package scrabble.rules;
 
 import scrabble.core.components.Board;
 import scrabble.core.Move;
-import scrabble.core.Position;
+import scrabble.core.PackedMove;
 import scrabble.rules.game.BagConstants;
 import scrabble.rules.game.BoardConstants;
 import scrabble.rules.game.GameConstants;
-import scrabble.rules.game.BagConstants.LetterData;
 
+/**
+ * Scores moves on the board they are made on, before their tiles are placed.
+ */
 public final class MoveScorer {
 
     // Private constructor to prevent instantiation
@@ -18,86 +20,169 @@ public final class MoveScorer {
         if (move.tilesPlaced() == 0) {
             throw new IllegalArgumentException("Move must place at least one tile.");
         }
+        return score(board, PackedMove.of(move));
+    }
 
-        int totalScore = 0;
-        Position[] positions = move.getPositions();
+    public static int score(Board board, long move) {
+        int count = PackedMove.tileCount(move);
+        if (count == 0) {
+            throw new IllegalArgumentException("Move must place at least one tile.");
+        }
 
-        // Score main word
-        Position.Step step = move.getStep();
-        Position start = findWordStart(board, positions[0], Position.Step.reverseStep(step));
-        totalScore += scoreWord(board, move, start, step);
+        boolean isVertical = PackedMove.isVertical(move);
+        int step = isVertical ? BoardConstants.SIZE : 1;
+        int crossStep = isVertical ? 1 : BoardConstants.SIZE;
 
-        // Bonus for placing all tiles
-        if (move.tilesPlaced() == GameConstants.RACK_SIZE) {
-            totalScore += GameConstants.BINGO_BONUS;
+        // Walk back to the start of the main word
+        int square = PackedMove.start(move);
+        int offset = offset(square, isVertical);
+        while (offset > 0 && !board.isEmpty(square - step)) {
+            square -= step;
+            offset--;
         }
 
-        // Score cross words
-        Position.Step otherStep = Position.Step.otherStep(step);
-        Position.Step reverseOtherStep = Position.Step.reverseStep(otherStep);
+        int mainScore = 0;
+        int mainMultiplier = 1;
+        int length = 0;
+        int crossScores = 0;
+        boolean hasCrossWord = false;
+
+        // Existing tiles count at face value, placed tiles fill the empty squares
+        int placed = 0;
+        for (; offset < BoardConstants.SIZE; square += step, offset++) {
+            if (!board.isEmpty(square)) {
+                mainScore += tileScore(board.tileAt(square));
+                length++;
+                continue;
+            }
+            if (placed == count)
+                break;
+
+            byte bonus = BoardConstants.SCRABBLE_BOARD[square];
+            int letterScore = PackedMove.isBlank(move, placed) ? 0
+                    : BagConstants.INDEX_TO_SCORE[PackedMove.letterIndex(move, placed)];
+            letterScore *= letterMultiplier(bonus);
+            int wordMultiplier = wordMultiplier(bonus);
+
+            mainScore += letterScore;
+            mainMultiplier *= wordMultiplier;
+            length++;
+
+            int crossScore = crossWordScore(board, square, crossStep, !isVertical);
+            if (crossScore >= 0) {
+                crossScores += (crossScore + letterScore) * wordMultiplier;
+                hasCrossWord = true;
+            }
+            placed++;
+        }
 
-        for (Position pos : positions) {
-            Position neighbor1 = pos.tryStep(otherStep, board);
-            Position neighbor2 = pos.tryStep(reverseOtherStep, board);
+        if (placed < count) {
+            throw new IllegalArgumentException("Move does not fit the board: " + PackedMove.toString(move));
+        }
 
-            if ((neighbor1 != null && !board.isEmpty(neighbor1)) ||
-                    (neighbor2 != null && !board.isEmpty(neighbor2))) {
+        // A single tile forms no main word of its own, unless it forms no word at
+        // all
+        return total(mainScore * mainMultiplier, length > 1 || !hasCrossWord, crossScores, count);
+    }
 
-                Position hookStart = findWordStart(board, pos, reverseOtherStep);
-                totalScore += scoreWord(board, move, hookStart, otherStep);
+    /**
+     * Scores a move from the line it is made in, for move generators that
+     * already have it. The line holds the main word from start to end with the
+     * move's tiles written in, placed marks the move's tiles, and the square of
+     * line[i] is firstSquare + i * step. crossScores holds the summed tiles of
+     * the perpendicular word through each square, negative if there is none.
+     */
+    public static int scoreLine(char[] line, boolean[] placed, int start, int end, int firstSquare, int step,
+            int[] crossScores) {
+        int mainScore = 0;
+        int mainMultiplier = 1;
+        int crossTotal = 0;
+        boolean hasCrossWord = false;
+        int count = 0;
+
+        for (int i = start, square = firstSquare + start * step; i <= end; i++, square += step) {
+            int letterScore = tileScore(line[i]);
+            if (!placed[i]) {
+                mainScore += letterScore;
+                continue;
             }
+
+            byte bonus = BoardConstants.SCRABBLE_BOARD[square];
+            letterScore *= letterMultiplier(bonus);
+            int wordMultiplier = wordMultiplier(bonus);
+
+            mainScore += letterScore;
+            mainMultiplier *= wordMultiplier;
+            count++;
+
+            int crossScore = crossScores[square];
+            if (crossScore >= 0) {
+                crossTotal += (crossScore + letterScore) * wordMultiplier;
+                hasCrossWord = true;
+            }
+        }
+
+        return total(mainScore * mainMultiplier, end > start || !hasCrossWord, crossTotal, count);
+    }
+
+    private static int total(int mainWordScore, boolean isMainWord, int crossTotal, int count) {
+        int totalScore = crossTotal;
+        if (isMainWord) {
+            totalScore += mainWordScore;
         }
 
+        // Bonus for placing all tiles
+        if (count == GameConstants.RACK_SIZE) {
+            totalScore += GameConstants.BINGO_BONUS;
+        }
         return totalScore;
     }
 
-    private static int scoreWord(Board board, Move move, Position start, Position.Step step) {
-        int wordMultiplier = 1;
-        int wordScore = 0;
-        Position pos = start;
-
-        while (pos != null && !board.isEmpty(pos)) {
-            char tile = board.tileAt(pos);
-            int tileScore = tileScore(tile);
-
-            if (move.isPlaced(pos)) {
-                byte bonus = BoardConstants.SCRABBLE_BOARD[pos.toIndex()];
-                switch (bonus) {
-                    case BoardConstants.DOUBLE_LETTER -> tileScore *= 2;
-                    case BoardConstants.TRIPLE_LETTER -> tileScore *= 3;
-                    case BoardConstants.DOUBLE_WORD -> wordMultiplier *= 2;
-                    case BoardConstants.TRIPLE_WORD -> wordMultiplier *= 3;
-                    case BoardConstants.NORMAL -> {
-                    } // no change
-                    default -> throw new IllegalArgumentException("Unknown bonus: " + bonus);
-                }
-            }
+    // Sum of the tiles around the square along the cross line, or -1 if there
+    // are none
+    private static int crossWordScore(Board board, int square, int step, boolean isVertical) {
+        int score = 0;
+        boolean found = false;
 
-            wordScore += tileScore;
-            pos = pos.tryStep(step, board);
+        for (int s = square - step, o = offset(square, isVertical) - 1; o >= 0 && !board.isEmpty(s); s -= step, o--) {
+            score += tileScore(board.tileAt(s));
+            found = true;
+        }
+        for (int s = square + step, o = offset(square, isVertical) + 1; o < BoardConstants.SIZE
+                && !board.isEmpty(s); s += step, o++) {
+            score += tileScore(board.tileAt(s));
+            found = true;
         }
 
-        return wordScore * wordMultiplier;
+        return found ? score : -1;
     }
 
-    private static int tileScore(char tile) {
-        if (BoardConstants.isBlank(tile))
-            return 0;
-        LetterData data = BagConstants.TILE_DATA.get(tile);
-        if (data == null)
-            throw new IllegalArgumentException("Unknown tile: " + tile);
-        return data.getScore();
+    // Position of the square along a row, or along a column if vertical
+    private static int offset(int square, boolean isVertical) {
+        return isVertical ? square / BoardConstants.SIZE : square % BoardConstants.SIZE;
     }
 
-    private static Position findWordStart(Board board, Position pos, Position.Step step) {
-        Position prev = pos;
-        Position current = pos.tryStep(step, board);
+    public static int letterMultiplier(byte bonus) {
+        return switch (bonus) {
+            case BoardConstants.DOUBLE_LETTER -> 2;
+            case BoardConstants.TRIPLE_LETTER -> 3;
+            case BoardConstants.NORMAL, BoardConstants.DOUBLE_WORD, BoardConstants.TRIPLE_WORD -> 1;
+            default -> throw new IllegalArgumentException("Unknown bonus: " + bonus);
+        };
+    }
 
-        while (current != null && !board.isEmpty(current)) {
-            prev = current;
-            current = current.tryStep(step, board);
-        }
+    public static int wordMultiplier(byte bonus) {
+        return switch (bonus) {
+            case BoardConstants.DOUBLE_WORD -> 2;
+            case BoardConstants.TRIPLE_WORD -> 3;
+            default -> 1;
+        };
+    }
 
-        return prev;
+    // Face value of a tile on the board, zero for a blank
+    public static int tileScore(char tile) {
+        if (BoardConstants.isBlank(tile))
+            return 0;
+        return BagConstants.INDEX_TO_SCORE[BagConstants.getIndex(tile)];
     }
-}
\ No newline at end of file
+}
@@ -47,50 +47,22 @@ public final class MoveValidator {
                 return false;
         }
 
-        // 3. Place the move and validate the board
-        Board newBoard = board.placeWord(move);
-
-        char[][] rows = new char[BoardConstants.SIZE][BoardConstants.SIZE];
-        char[][] columns = new char[BoardConstants.SIZE][BoardConstants.SIZE];
-
-        for (int row = 0; row < BoardConstants.SIZE; row++) {
-            for (int column = 0; column < BoardConstants.SIZE; column++) {
-                char tile = newBoard.tileAt(row * BoardConstants.SIZE + column);
-                rows[row][column] = tile;
-                columns[column][row] = tile;
-            }
+        // 3. Place the move on a copy of the squares and validate the lines
+        // through the placed tiles, reading them in place
+        char[] squares = board.getBoard();
+        char[] tiles = move.getTiles();
+        for (int i = 0; i < tiles.length; i++) {
+            squares[positions.get(i).toIndex()] = tiles[i];
         }
 
+        int size = BoardConstants.SIZE;
         for (Position position : positions) {
             int row = position.row();
             int column = position.column();
 
-            if (!isLineValid(rows[row], dictionary))
-                return false;
-            if (!isLineValid(columns[column], dictionary))
+            if (!dictionary.isLineValid(squares, row * size, 1, size))
                 return false;
-        }
-
-        return true;
-    }
-
-    private static boolean isLineValid(char[] line, TrieDictionary dictionary) {
-        for (int i = 0; i < line.length; i++) {
-            if (line[i] == GameConstants.EMPTY_SQUARE)
-                continue;
-
-            StringBuilder sb = new StringBuilder();
-            for (int j = i; j < line.length; j++) {
-                if (line[j] == GameConstants.EMPTY_SQUARE)
-                    break;
-
-                sb.append(line[j]);
-                line[j] = GameConstants.EMPTY_SQUARE;
-            }
-
-            String word = sb.toString();
-
-            if (word.length() > 1 && !dictionary.isWord(sb.toString()))
+            if (!dictionary.isLineValid(squares, column, size, size))
                 return false;
         }
 
@@ -0,0 +1,239 @@
+package scrabble.rules;
+
+import java.nio.IntBuffer;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import scrabble.rules.game.BagConstants;
+import scrabble.rules.game.GameConstants;
+
+/**
+ * A dictionary graph packed into a single run of ints in depth-first order, so
+ * walking it reads array slots instead of chasing TrieNode pointers.
+ *
+ * A node with k children takes k + 1 ints: a header holding the word flag and
+ * a mask with bit i set if letter index i has a child, followed by the ids of
+ * the children in letter order. A node id is the offset of its header, so
+ * finding a child is one popcount, and nodes shared by a DAWG are stored
+ * once.
+ *
+ * The ints live either in a heap array or in a memory-mapped file, see
+ * DictionaryFile.
+ */
+public final class PackedDictionary {
+    public static final int NO_NODE = -1;
+
+    private static final int WORD_FLAG = 1 << 31;
+    private static final int CHILD_MASK = ~WORD_FLAG;
+    private static final int ROOT = 0;
+
+    private final IntBuffer data;
+
+    private PackedDictionary(IntBuffer data) {
+        this.data = data;
+    }
+
+    static PackedDictionary wrap(IntBuffer data) {
+        return new PackedDictionary(data);
+    }
+
+    public static PackedDictionary pack(TrieNode root) {
+        if (BagConstants.UNIQUE_TILES > Integer.SIZE - 1) {
+            throw new IllegalStateException(
+                    "Packed dictionaries support at most " + (Integer.SIZE - 1) + " tiles, got "
+                            + BagConstants.UNIQUE_TILES + ".");
+        }
+
+        DictionaryStats stats = DictionaryStats.of(root);
+        Packer packer = new Packer(new int[stats.nodes() + stats.edges()]);
+        packer.write(root);
+        return new PackedDictionary(IntBuffer.wrap(packer.data));
+    }
+
+    public int root() {
+        return ROOT;
+    }
+
+    // Returns the child node for the letter index, or NO_NODE
+    public int child(int node, int letterIndex) {
+        int header = data.get(node);
+        int bit = 1 << letterIndex;
+        if ((header & bit) == 0)
+            return NO_NODE;
+        return data.get(node + 1 + Integer.bitCount(header & (bit - 1)));
+    }
+
+    public boolean isWord(int node) {
+        return data.get(node) < 0;
+    }
+
+    // Bit i is set if letter index i has a child
+    public int childMask(int node) {
+        return data.get(node) & CHILD_MASK;
+    }
+
+    public boolean isWord(String word) {
+        int node = walk(word);
+        return node != NO_NODE && isWord(node);
+    }
+
+    // Checks buf[from, to) without copying it
+    public boolean isWord(char[] buf, int from, int to) {
+        int node = walk(buf, from, to);
+        return node != NO_NODE && isWord(node);
+    }
+
+    public boolean isPrefix(char[] prefix) {
+        return isPrefix(prefix, 0, prefix.length);
+    }
+
+    public boolean isPrefix(char[] buf, int from, int to) {
+        return walk(buf, from, to) != NO_NODE;
+    }
+
+    /**
+     * Checks a line of squares in one pass: every run of two or more tiles
+     * must be a word. The line is squares[start + i * stride] for i below
+     * length, so rows and columns of a flat board are read in place.
+     */
+    public boolean isLineValid(char[] squares, int start, int stride, int length) {
+        int node = ROOT;
+        int runLength = 0;
+        for (int i = 0, square = start; i <= length; i++, square += stride) {
+            if (i == length || squares[square] == GameConstants.EMPTY_SQUARE) {
+                if (runLength > 1 && (node == NO_NODE || !isWord(node)))
+                    return false;
+                node = ROOT;
+                runLength = 0;
+                continue;
+            }
+
+            if (node != NO_NODE)
+                node = child(node, BagConstants.getIndex(squares[square]));
+            runLength++;
+        }
+        return true;
+    }
+
+    private int walk(String word) {
+        int node = ROOT;
+        for (int i = 0, n = word.length(); i < n && node != NO_NODE; i++) {
+            node = child(node, BagConstants.getIndex(word.charAt(i)));
+        }
+        return node;
+    }
+
+    private int walk(char[] buf, int from, int to) {
+        int node = ROOT;
+        for (int i = from; i < to && node != NO_NODE; i++) {
+            node = child(node, BagConstants.getIndex(buf[i]));
+        }
+        return node;
+    }
+
+    // Number of ints used by the packed graph
+    public int size() {
+        return data.limit();
+    }
+
+    // Read-only view of the packed ints, positioned at the root
+    IntBuffer data() {
+        return data.asReadOnlyBuffer().clear();
+    }
+
+    public DictionaryStats stats() {
+        boolean[] visited = new boolean[size()];
+        int[] counts = new int[2];
+        count(ROOT, visited, counts);
+        return new DictionaryStats(counts[0], counts[1], (long) Integer.BYTES * size());
+    }
+
+    private void count(int node, boolean[] visited, int[] counts) {
+        if (visited[node])
+            return;
+        visited[node] = true;
+
+        int children = Integer.bitCount(childMask(node));
+        counts[0]++;
+        counts[1] += children;
+        for (int i = 1; i <= children; i++) {
+            count(data.get(node + i), visited, counts);
+        }
+    }
+
+    // Calls the action for every word, in letter index order
+    public void forEachWord(Consumer<String> action) {
+        forEachWord(ROOT, new StringBuilder(), action);
+    }
+
+    private void forEachWord(int node, StringBuilder prefix, Consumer<String> action) {
+        if (isWord(node))
+            action.accept(prefix.toString());
+
+        int slot = node + 1;
+        for (int mask = childMask(node); mask != 0; mask &= mask - 1) {
+            prefix.append(BagConstants.INDEX_TO_CHAR[Integer.numberOfTrailingZeros(mask)]);
+            forEachWord(data.get(slot++), prefix, action);
+            prefix.setLength(prefix.length() - 1);
+        }
+    }
+
+    /**
+     * Rebuilds the equivalent TrieNode graph, keeping shared nodes shared.
+     */
+    public TrieNode unpack() {
+        return unpack(ROOT, new TrieNode[size()]);
+    }
+
+    private TrieNode unpack(int node, TrieNode[] nodes) {
+        if (nodes[node] != null)
+            return nodes[node];
+
+        TrieNode trieNode = new TrieNode(isWord(node));
+        nodes[node] = trieNode;
+
+        int slot = node + 1;
+        for (int mask = childMask(node); mask != 0; mask &= mask - 1) {
+            trieNode.children[Integer.numberOfTrailingZeros(mask)] = unpack(data.get(slot++), nodes);
+        }
+        return trieNode;
+    }
+
+    private static final class Packer {
+        private final int[] data;
+        private final Map<TrieNode, Integer> ids = new IdentityHashMap<>();
+        private int position = 0;
+
+        Packer(int[] data) {
+            this.data = data;
+        }
+
+        int write(TrieNode node) {
+            Integer existing = ids.get(node);
+            if (existing != null)
+                return existing;
+
+            int id = position;
+            ids.put(node, id);
+
+            int header = node.isWord ? WORD_FLAG : 0;
+            int children = 0;
+            for (int i = 0; i < node.children.length; i++) {
+                if (node.children[i] != null) {
+                    header |= 1 << i;
+                    children++;
+                }
+            }
+            data[id] = header;
+            position += 1 + children;
+
+            int slot = id + 1;
+            for (TrieNode child : node.children) {
+                if (child != null)
+                    data[slot++] = write(child);
+            }
+            return id;
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package scrabble.rules;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+
+import scrabble.rules.game.BagConstants;
+
+/**
+ * Builds a minimized dictionary from a word list without holding the whole
+ * list in memory. Lines are read in chunks, and each chunk is inserted in
+ * parallel, one shard per first letter. The shards are then minimized in
+ * parallel against one shared registry, so suffixes are still shared across
+ * shards, and hung below a common root.
+ *
+ * Entries are trimmed and upper-cased. Entries with characters that are not
+ * tiles (or are the blank) are rejected, and repeated words are counted once.
+ * Files ending in .gz are read through gzip.
+ */
+public final class ParallelDawgBuilder {
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+    private static final int MAX_REJECTED_SAMPLES = 10;
+
+    private final int chunkSize;
+    private DictionaryBuildReport report;
+
+    public ParallelDawgBuilder() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    // Number of lines read before the chunk is inserted
+    public ParallelDawgBuilder(int chunkSize) {
+        if (chunkSize < 1)
+            throw new IllegalArgumentException("Chunk size must be positive, got " + chunkSize + ".");
+        this.chunkSize = chunkSize;
+    }
+
+    public TrieDictionary build(Path wordList) throws IOException {
+        try (InputStream in = open(wordList)) {
+            return build(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+        }
+    }
+
+    public TrieDictionary build(BufferedReader reader) throws IOException {
+        long start = System.nanoTime();
+        Shards shards = new Shards();
+
+        List<String> chunk = new ArrayList<>(chunkSize);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            chunk.add(line);
+            if (chunk.size() == chunkSize) {
+                shards.insert(chunk);
+                chunk.clear();
+            }
+        }
+        shards.insert(chunk);
+        long read = System.nanoTime();
+
+        TrieNode root = shards.minimize();
+        DictionaryStats dawgStats = DictionaryStats.of(root);
+        long minimized = System.nanoTime();
+
+        PackedDictionary packed = PackedDictionary.pack(root);
+        long done = System.nanoTime();
+
+        report = new DictionaryBuildReport(shards.lines.get(), shards.words.get(), shards.duplicates.get(),
+                shards.rejected.get(), List.copyOf(shards.rejectedSamples), dawgStats, packed.stats(),
+                (read - start) / 1_000_000, (minimized - read) / 1_000_000, (done - minimized) / 1_000_000);
+        return new TrieDictionary(packed);
+    }
+
+    // Report of the last build, or null
+    public DictionaryBuildReport getReport() {
+        return report;
+    }
+
+    private static InputStream open(Path path) throws IOException {
+        InputStream in = new BufferedInputStream(Files.newInputStream(path));
+        if (path.getFileName().toString().endsWith(".gz"))
+            return new GZIPInputStream(in);
+        return in;
+    }
+
+    /**
+     * Normalizes an entry to the letter indexes of its tiles, or returns null
+     * if it is empty or not made of tiles.
+     */
+    static int[] normalize(String entry) {
+        String word = entry.strip().toUpperCase(Locale.ROOT);
+        if (word.isEmpty())
+            return null;
+
+        int[] letters = new int[word.length()];
+        for (int i = 0; i < letters.length; i++) {
+            char c = word.charAt(i);
+            if (c == BagConstants.BLANK || !BagConstants.isValidLetter(c))
+                return null;
+            letters[i] = BagConstants.getIndex(c);
+        }
+        return letters;
+    }
+
+    // One subtrie per first letter, each only written by one thread at a time
+    private static final class Shards {
+        private final TrieNode[] roots = new TrieNode[BagConstants.UNIQUE_TILES];
+        private final AtomicLong lines = new AtomicLong();
+        private final AtomicInteger words = new AtomicInteger();
+        private final AtomicLong duplicates = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final List<String> rejectedSamples = new ArrayList<>();
+
+        Shards() {
+            for (int i = 0; i < roots.length; i++) {
+                roots[i] = new TrieNode(false);
+            }
+        }
+
+        void insert(List<String> chunk) {
+            lines.addAndGet(chunk.size());
+
+            List<List<int[]>> byShard = new ArrayList<>(roots.length);
+            for (int i = 0; i < roots.length; i++) {
+                byShard.add(new ArrayList<>());
+            }
+
+            for (String entry : chunk) {
+                int[] letters = normalize(entry);
+                if (letters != null) {
+                    byShard.get(letters[0]).add(letters);
+                } else if (!entry.isBlank()) {
+                    rejected.incrementAndGet();
+                    if (rejectedSamples.size() < MAX_REJECTED_SAMPLES)
+                        rejectedSamples.add(entry);
+                }
+            }
+
+            IntStream.range(0, roots.length).parallel().forEach(shard -> {
+                for (int[] letters : byShard.get(shard)) {
+                    insert(roots[shard], letters);
+                }
+            });
+        }
+
+        // The shard root stands for the first letter
+        private void insert(TrieNode current, int[] letters) {
+            for (int i = 1; i < letters.length; i++) {
+                TrieNode next = current.children[letters[i]];
+                if (next == null) {
+                    next = new TrieNode(false);
+                    current.children[letters[i]] = next;
+                }
+                current = next;
+            }
+
+            if (current.isWord) {
+                duplicates.incrementAndGet();
+            } else {
+                current.isWord = true;
+                words.incrementAndGet();
+            }
+        }
+
+        TrieNode minimize() {
+            ConcurrentMap<DawgBuilder.NodeKey, TrieNode> registry = new ConcurrentHashMap<>();
+            TrieNode root = new TrieNode(false);
+
+            IntStream.range(0, roots.length).parallel().forEach(shard -> {
+                if (roots[shard].isWord || hasChildren(roots[shard]))
+                    root.children[shard] = DawgBuilder.canonicalize(roots[shard], registry);
+            });
+            return root;
+        }
+
+        private static boolean hasChildren(TrieNode node) {
+            for (TrieNode child : node.children) {
+                if (child != null)
+                    return true;
+            }
+            return false;
+        }
+    }
+}
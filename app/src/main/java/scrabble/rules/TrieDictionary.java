@@ -2,26 +2,92 @@ package scrabble.rules;
 
 import java.util.List;
 
+import scrabble.rules.game.GameConstants;
+
 public class TrieDictionary {
-    private final Trie forwardsTrie;
+    private final PackedDictionary packed;
+    private TrieNode root;
+    private Gaddag gaddag;
+    private AnagramIndex anagramIndex;
 
     public TrieDictionary(List<String> words) {
-        forwardsTrie = new Trie();
+        Trie forwardsTrie = new Trie();
 
         for (String word : words) {
             forwardsTrie.insert(word);
         }
+
+        packed = PackedDictionary.pack(forwardsTrie.getRoot());
+    }
+
+    TrieDictionary(PackedDictionary packed) {
+        this.packed = packed;
+    }
+
+    TrieDictionary(PackedDictionary packed, Gaddag gaddag) {
+        this.packed = packed;
+        this.gaddag = gaddag;
     }
 
     public boolean isWord(String word) {
-        return forwardsTrie.containsWord(word);
+        return packed.isWord(word);
+    }
+
+    public boolean isWord(char[] buf, int from, int to) {
+        return packed.isWord(buf, from, to);
     }
 
     public boolean isPrefix(char[] prefix) {
-        return forwardsTrie.containsPrefix(prefix);
+        return packed.isPrefix(prefix);
+    }
+
+    public boolean isPrefix(char[] buf, int from, int to) {
+        return packed.isPrefix(buf, from, to);
+    }
+
+    // See PackedDictionary.isLineValid
+    public boolean isLineValid(char[] squares, int start, int stride, int length) {
+        return packed.isLineValid(squares, start, stride, length);
     }
 
-    public TrieNode getRoot() {
-        return forwardsTrie.getRoot();
+    public PackedDictionary getPacked() {
+        return packed;
+    }
+
+    /**
+     * Returns the dictionary as a TrieNode graph. Only the packed form is kept,
+     * so the graph is unpacked on first use.
+     */
+    public synchronized TrieNode getRoot() {
+        if (root == null) {
+            root = packed.unpack();
+        }
+        return root;
+    }
+
+    public DictionaryStats stats() {
+        return packed.stats();
+    }
+
+    /**
+     * Returns the GADDAG holding the same words. It is built and minimized on
+     * first use, so engines that never ask for it don't pay for it.
+     */
+    public synchronized Gaddag getGaddag() {
+        if (gaddag == null) {
+            gaddag = Gaddag.build(packed);
+        }
+        return gaddag;
+    }
+
+    /**
+     * Returns the index of words by their letters, covering words of up to a
+     * full rack plus one tile on the board. Built on first use.
+     */
+    public synchronized AnagramIndex getAnagramIndex() {
+        if (anagramIndex == null) {
+            anagramIndex = AnagramIndex.build(packed, GameConstants.RACK_SIZE + 1);
+        }
+        return anagramIndex;
     }
-}
\ No newline at end of file
+}
@@ -1,6 +1,10 @@
 package scrabble.rules.game;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public final class BagConstants {
@@ -13,6 +17,11 @@ public final class BagConstants {
     public static int TILE_COUNT;
     public static Map<Character, Integer> TILE_INDEX;
     public static char[] INDEX_TO_CHAR;
+    public static int[] INDEX_TO_SCORE;
+
+    // Tile index by character, lower case letters map to the same tile. -1 if
+    // the character is not a tile.
+    private static int[] CHAR_TO_INDEX;
 
     private static boolean initialized = false;
 
@@ -26,22 +35,42 @@ public final class BagConstants {
         UNIQUE_TILES = TILE_DATA.size();
         TILE_COUNT = TILE_DATA.values().stream().mapToInt(LetterData::count).sum();
 
+        // Sorted, so letter indexes are the same in every run and can be stored
+        List<Character> letters = new ArrayList<>(TILE_DATA.keySet());
+        Collections.sort(letters);
+
         INDEX_TO_CHAR = new char[TILE_DATA.size()];
+        INDEX_TO_SCORE = new int[TILE_DATA.size()];
         TILE_INDEX = new HashMap<>();
         int i = 0;
-        for (Character c : TILE_DATA.keySet()) {
+        for (Character c : letters) {
             INDEX_TO_CHAR[i] = c;
+            INDEX_TO_SCORE[i] = TILE_DATA.get(c).getScore();
             TILE_INDEX.put(c, i++);
         }
 
+        int maxChar = 0;
+        for (char c : INDEX_TO_CHAR) {
+            maxChar = Math.max(maxChar, Math.max(c, Character.toLowerCase(c)));
+        }
+        CHAR_TO_INDEX = new int[maxChar + 1];
+        Arrays.fill(CHAR_TO_INDEX, -1);
+        for (int index = 0; index < INDEX_TO_CHAR.length; index++) {
+            char c = INDEX_TO_CHAR[index];
+            CHAR_TO_INDEX[c] = index;
+            CHAR_TO_INDEX[Character.toLowerCase(c)] = index;
+        }
+
         initialized = true;
     }
 
     public static int getIndex(char letter) {
-        Integer idx = TILE_INDEX.get(Character.toUpperCase(letter));
-        if (idx == null)
-            throw new IllegalArgumentException("Invalid tile: " + letter);
-        return idx;
+        if (letter < CHAR_TO_INDEX.length) {
+            int idx = CHAR_TO_INDEX[letter];
+            if (idx >= 0)
+                return idx;
+        }
+        throw new IllegalArgumentException("Invalid tile: " + letter);
     }
 
     public static boolean isValidLetter(char letter) {
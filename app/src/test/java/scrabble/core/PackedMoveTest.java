@@ -0,0 +1,138 @@
+package scrabble.core;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import scrabble.core.components.Board;
+import scrabble.rules.game.BoardConstants;
+import scrabble.rules.game.GameConstants;
+import scrabble.rules.game.GameRules;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackedMoveTest {
+
+    @BeforeAll
+    static void setup() {
+        GameRules.load("src/main/resources/scrabble.json");
+    }
+
+    private static Board boardWith(int row, int col, char tile) {
+        return Board.emptyBoard().placeWord(new Move(new Position[] { new Position(row, col) }, new char[] { tile }));
+    }
+
+    @Test
+    void testRoundTripOverExistingTile() {
+        // S?ORE down column 4, over the O already on the board
+        Board board = boardWith(6, 4, 'O');
+        Position[] positions = { new Position(4, 4), new Position(5, 4), new Position(7, 4), new Position(8, 4) };
+        Move move = new Move(positions, new char[] { 'S', 'w', 'R', 'E' });
+
+        long packed = PackedMove.of(move);
+        assertEquals(move.getPacked(), packed);
+        assertEquals(positions[0].toIndex(), PackedMove.start(packed));
+        assertTrue(PackedMove.isVertical(packed));
+        assertEquals(4, PackedMove.tileCount(packed));
+        assertEquals(4, PackedMove.span(packed));
+        assertTrue(PackedMove.isBlank(packed, 1));
+        assertFalse(PackedMove.isBlank(packed, 2));
+        assertEquals('w', PackedMove.tile(packed, 1));
+
+        assertEquals(move, PackedMove.toMove(packed, board));
+        assertEquals(board.placeWord(move), board.placeWord(packed));
+    }
+
+    @Test
+    void testSingleTileIsPackedAcross() {
+        Move move = new Move(new Position[] { new Position(3, 9) }, new char[] { 'Q' });
+        long packed = PackedMove.of(move);
+
+        assertFalse(PackedMove.isVertical(packed));
+        assertEquals(1, PackedMove.tileCount(packed));
+        assertEquals(0, PackedMove.span(packed));
+        assertEquals(packed, PackedMove.withTile(PackedMove.header(new Position(3, 9).toIndex(), false, 0), 'Q'));
+    }
+
+    @Test
+    void testMovesOutOfLineAreNotPacked() {
+        Move diagonal = new Move(new Position[] { new Position(3, 3), new Position(4, 4) }, new char[] { 'A', 'B' });
+        Move backwards = new Move(new Position[] { new Position(3, 4), new Position(3, 3) }, new char[] { 'A', 'B' });
+
+        assertEquals(PackedMove.NONE, diagonal.getPacked());
+        assertEquals(PackedMove.NONE, backwards.getPacked());
+        assertThrows(IllegalArgumentException.class, () -> PackedMove.of(diagonal));
+
+        // They are still compared by their positions and tiles
+        assertEquals(diagonal, new Move(new Position[] { new Position(3, 3), new Position(4, 4) },
+                new char[] { 'A', 'B' }));
+        assertNotEquals(diagonal, backwards);
+    }
+
+    @Test
+    void testEqualityFollowsPackedForm() {
+        Move move = new Move(new Position[] { new Position(7, 7), new Position(7, 8) }, new char[] { 'A', 'T' });
+        Move same = new Move(new Position[] { new Position(7, 7), new Position(7, 8) }, new char[] { 'A', 'T' });
+        Move blank = new Move(new Position[] { new Position(7, 7), new Position(7, 8) }, new char[] { 'a', 'T' });
+
+        assertEquals(move, same);
+        assertEquals(move.hashCode(), same.hashCode());
+        assertEquals(PackedMove.hash(move.getPacked()), move.hashCode());
+        assertNotEquals(move, blank);
+    }
+
+    @Test
+    void testMoveMustFitTheBoard() {
+        Board board = boardWith(7, 8, 'X');
+        long packed = PackedMove.of(new Move(new Position[] { new Position(7, 7), new Position(7, 8) },
+                new char[] { 'A', 'T' }));
+
+        // The second square is taken, so the tiles would spill past the span
+        assertThrows(IllegalArgumentException.class, () -> board.placeWord(packed));
+        assertEquals(GameConstants.EMPTY_SQUARE, board.tileAt(new Position(7, 9)));
+    }
+
+    @Test
+    void testMoveOffTheBoardIsRejected() {
+        // Two tiles down from the bottom right square, as a stale move might
+        long packed = PackedMove.withTile(PackedMove.withTile(
+                PackedMove.header(BoardConstants.TOTAL_SIZE - 1, true, 1), 'A'), 'T');
+        Board board = Board.emptyBoard();
+        int[] squares = new int[2];
+
+        assertThrows(IllegalArgumentException.class, () -> PackedMove.squares(packed, board, squares));
+        assertThrows(IllegalArgumentException.class, () -> PackedMove.squares(packed, board.getBoard(), squares));
+    }
+
+    @Test
+    void testMoveAcrossTheRightEdgeIsRejected() {
+        // Two tiles across from the last square of the first row, which
+        // would otherwise wrap onto the start of the second
+        long packed = PackedMove.withTile(PackedMove.withTile(
+                PackedMove.header(BoardConstants.SIZE - 1, false, 1), 'A'), 'T');
+        Board board = Board.emptyBoard();
+        int[] squares = new int[2];
+
+        assertThrows(IllegalArgumentException.class, () -> PackedMove.squares(packed, board, squares));
+        assertThrows(IllegalArgumentException.class, () -> PackedMove.squares(packed, board.getBoard(), squares));
+    }
+
+    @Test
+    void testMoveList() {
+        MoveList moves = new MoveList(1);
+        for (long i = 0; i < 100; i++) {
+            moves.add(i * 3);
+        }
+
+        assertEquals(100, moves.size());
+        assertEquals(30, moves.get(10));
+        assertTrue(moves.contains(297));
+        assertFalse(moves.contains(298));
+        assertEquals(297, moves.removeLast());
+        assertEquals(99, moves.toArray().length);
+        assertEquals(99, moves.stream().count());
+        assertThrows(IndexOutOfBoundsException.class, () -> moves.get(99));
+
+        moves.clear();
+        assertTrue(moves.isEmpty());
+        assertThrows(IllegalStateException.class, moves::removeLast);
+    }
+}
@@ -0,0 +1,158 @@
+package scrabble.core;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import scrabble.core.components.Zobrist;
+import scrabble.rules.game.*;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchStateTest {
+    private static String emptyBoard;
+    private static int center;
+
+    @BeforeAll
+    static void setup() {
+        GameRules.load("src/main/resources/scrabble.json");
+        emptyBoard = String.valueOf(GameConstants.EMPTY_SQUARE).repeat(BoardConstants.TOTAL_SIZE);
+        center = BoardConstants.TOTAL_SIZE / 2;
+    }
+
+    // CAt across the centre, the T being a blank
+    private static long cat() {
+        Move move = new Move(new Position[] { Position.fromIndex(center), Position.fromIndex(center + 1),
+                Position.fromIndex(center + 2) }, new char[] { 'C', 'A', 't' });
+        return PackedMove.of(move);
+    }
+
+    @Test
+    void testMoveAndUndoMove() {
+        GameState start = GameState.stateFrom(emptyBoard + "/XYZQJ/CAT?SEE/DOGLIKE/0/0");
+        SearchState state = SearchState.of(start, 0);
+        long hash = state.zobristHash();
+        assertEquals(start.zobristHash(0), hash);
+
+        state.doMove(cat(), 12);
+
+        String board = emptyBoard.substring(0, center) + "CAt" + emptyBoard.substring(center + 3);
+        GameState expected = GameState.stateFrom(board + "/XYZQJ/TSEE/DOGLIKE/12/0");
+        assertEquals(expected.zobristHash(1), state.zobristHash());
+        assertEquals(1, state.getPlayerToMove());
+        assertEquals(12, state.getScore(0));
+        assertEquals(3, state.tilesOnBoard());
+        assertEquals('t', state.tileAt(center + 2));
+        assertFalse(state.isFirstMove());
+        assertArrayEquals("EEST".toCharArray(), state.rackLetters(0));
+        assertEquals(expected.getBoard(), state.getBoard());
+
+        state.undoMove();
+
+        assertEquals(hash, state.zobristHash());
+        assertEquals(0, state.getPlayerToMove());
+        assertEquals(0, state.getScore(0));
+        assertEquals(0, state.depth());
+        assertTrue(state.isFirstMove());
+        assertTrue(state.isEmpty(center));
+        assertEquals(start.getRacks()[0], state.toGameState().getRacks()[0]);
+    }
+
+    @Test
+    void testMoveNotOnRackChangesNothing() {
+        SearchState state = SearchState.of(GameState.stateFrom(emptyBoard + "/XYZQJ/CATSEED/DOGLIKE/0/0"), 0);
+        long hash = state.zobristHash();
+
+        // The blank T is not on the rack
+        assertThrows(IllegalStateException.class, () -> state.doMove(cat(), 12));
+        assertEquals(hash, state.zobristHash());
+        assertEquals(0, state.depth());
+        assertTrue(state.isEmpty(center));
+        assertEquals(7, state.rackSize(0));
+    }
+
+    @Test
+    void testDrawAndUndoDraw() {
+        GameState start = GameState.stateFrom(emptyBoard + "/XYZ/CA/DOGLIKE/0/0");
+        SearchState state = SearchState.of(start, 0);
+        long hash = state.zobristHash();
+
+        // The bag runs out before the rack is full
+        state.draw(0, new Random(1));
+        assertEquals(5, state.rackSize(0));
+        assertEquals(0, state.bagSize());
+        assertEquals(GameState.stateFrom(emptyBoard + "//ACXYZ/DOGLIKE/0/0").zobristHash(0), state.zobristHash());
+
+        state.undoDraw();
+        assertEquals(hash, state.zobristHash());
+        assertArrayEquals("AC".toCharArray(), state.rackLetters(0));
+        assertEquals(3, state.bagSize());
+    }
+
+    @Test
+    void testExchangeAndUndoExchange() {
+        GameState start = GameState.stateFrom(emptyBoard + "/XYZQJ/CAT?SEE/DOGLIKE/0/0");
+        SearchState state = SearchState.of(start, 0);
+        long hash = state.zobristHash();
+
+        state.exchange(new char[] { 'E', 'E' }, new Random(7));
+
+        assertEquals(1, state.getPlayerToMove());
+        assertEquals(7, state.rackSize(0));
+        assertEquals(5, state.bagSize());
+        assertEquals(state.toGameState().zobristHash(1), state.zobristHash());
+        // The returned tiles were not drawn again
+        assertEquals(2, new String(state.rackLetters(0)).chars().filter(c -> "XYZQJ".indexOf(c) >= 0).count());
+
+        state.undoExchange();
+        assertEquals(hash, state.zobristHash());
+        assertEquals(start.getRacks()[0], state.toGameState().getRacks()[0]);
+        assertEquals(start.getBag(), state.toGameState().getBag());
+    }
+
+    @Test
+    void testPassAndRackScore() {
+        SearchState state = SearchState.of(GameState.stateFrom(emptyBoard + "//QI?/ZA/0/0"), 0);
+        long hash = state.zobristHash();
+        // The blank counts nothing
+        assertEquals(11, state.rackScore(0));
+        assertEquals(11, state.rackScore(1));
+
+        state.pass();
+        assertEquals(1, state.getPlayerToMove());
+        assertEquals(hash ^ Zobrist.secondPlayer(), state.zobristHash());
+
+        state.undoExchange();
+        assertEquals(hash, state.zobristHash());
+        assertEquals(0, state.depth());
+    }
+
+    @Test
+    void testUndoInOrder() {
+        SearchState state = SearchState.of(GameState.stateFrom(emptyBoard + "/XYZQJ/CAT?SEE/DOGLIKE/0/0"), 0);
+        long hash = state.zobristHash();
+
+        state.doMove(cat(), 12);
+        state.draw(0, new Random(3));
+        assertThrows(IllegalStateException.class, state::undoMove);
+        assertEquals(2, state.depth());
+
+        state.undoDraw();
+        state.undoMove();
+        assertEquals(hash, state.zobristHash());
+        assertThrows(IllegalStateException.class, state::undoMove);
+    }
+
+    @Test
+    void testPlayerViewRoundTrip() {
+        GameState start = GameState.stateFrom(emptyBoard + "/XYZQJ/CAT?SEE/DOGLIKE/5/9");
+        PlayerView view = new PlayerView(start.getBoard(), start.getBag().addTiles("CAT?SEE".toCharArray()),
+                start.getRacks()[1], start.getScores(), 1, true);
+        SearchState state = SearchState.of(view, start.getRacks()[0]);
+
+        assertEquals(start.zobristHash(1), state.zobristHash());
+        assertEquals(view.getBag(), state.toPlayerView().getBag());
+        assertEquals(view.getRack(), state.toPlayerView().getRack());
+        assertEquals(9, state.toPlayerView().getScores()[1]);
+    }
+}
@@ -0,0 +1,111 @@
+package scrabble.core.components;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import scrabble.core.PackedMove;
+import scrabble.rules.game.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SquareSetTest {
+
+    @BeforeAll
+    static void setup() {
+        GameRules.load("src/main/resources/scrabble.json");
+    }
+
+    private static List<Integer> squares(SquareSet set) {
+        List<Integer> squares = new ArrayList<>();
+        for (int square = set.next(0); square >= 0; square = set.next(square + 1)) {
+            squares.add(square);
+        }
+        return squares;
+    }
+
+    @Test
+    void testNextVisitsSquaresInOrder() {
+        int last = BoardConstants.TOTAL_SIZE - 1;
+        SquareSet set = SquareSet.of(last, 0, 63, 64, 130);
+
+        assertEquals(List.of(0, 63, 64, 130, last), squares(set));
+        assertEquals(5, set.size());
+        assertEquals(64, set.next(64));
+        assertEquals(130, set.next(65));
+        assertEquals(-1, set.next(last + 1));
+        assertTrue(SquareSet.empty().isEmpty());
+        assertEquals(-1, SquareSet.empty().next(0));
+    }
+
+    @Test
+    void testNeighboursDoNotWrap() {
+        int size = BoardConstants.SIZE;
+        int lastColumn = size - 1;
+
+        // The end of the first row and the start of the second are neighbours
+        // in square order only
+        assertEquals(List.of(lastColumn - 1, lastColumn + size), squares(SquareSet.of(lastColumn).neighbours()));
+        assertEquals(List.of(0, size + 1, 2 * size), squares(SquareSet.of(size).neighbours()));
+
+        int corner = BoardConstants.TOTAL_SIZE - 1;
+        assertEquals(List.of(corner - size, corner - 1), squares(SquareSet.of(corner).neighbours()));
+    }
+
+    @Test
+    void testSetOperations() {
+        SquareSet a = SquareSet.of(1, 2, 100);
+        SquareSet b = SquareSet.of(2, 100, 200);
+
+        assertEquals(SquareSet.of(2, 100), a.and(b));
+        assertEquals(SquareSet.of(1, 2, 100, 200), a.or(b));
+        assertEquals(SquareSet.of(1), a.andNot(b));
+        assertTrue(a.intersects(b));
+        assertFalse(a.intersects(SquareSet.of(200)));
+        assertTrue(SquareSet.row(1).contains(BoardConstants.SIZE));
+        assertTrue(SquareSet.column(1).contains(BoardConstants.SIZE + 1));
+        assertEquals(BoardConstants.SIZE, SquareSet.column(3).size());
+    }
+
+    @Test
+    void testAnchorsMatchNeighbourScan() {
+        Random random = new Random(5);
+        for (int round = 0; round < 50; round++) {
+            Board board = Board.emptyBoard();
+            for (int i = 0; i < 40; i++) {
+                int square = random.nextInt(BoardConstants.TOTAL_SIZE);
+                if (board.isEmpty(square))
+                    board = board.placeWord(PackedMove.withTile(PackedMove.header(square, false, 0), 'A'));
+            }
+
+            SquareSet anchors = board.anchors();
+            for (int square = 0; square < BoardConstants.TOTAL_SIZE; square++) {
+                assertEquals(isAnchor(board, square), anchors.contains(square), "Anchor at " + square);
+                assertEquals(!board.isEmpty(square), board.occupied().contains(square));
+            }
+            for (int line = 0; line < BoardConstants.SIZE; line++) {
+                assertEquals(isLineEmpty(board, line, true), board.isRowEmpty(line));
+                assertEquals(isLineEmpty(board, line, false), board.isColumnEmpty(line));
+            }
+        }
+    }
+
+    private static boolean isAnchor(Board board, int square) {
+        int size = BoardConstants.SIZE;
+        int row = square / size;
+        int col = square % size;
+        return board.isEmpty(square) && ((row > 0 && !board.isEmpty(square - size))
+                || (row < size - 1 && !board.isEmpty(square + size))
+                || (col > 0 && !board.isEmpty(square - 1))
+                || (col < size - 1 && !board.isEmpty(square + 1)));
+    }
+
+    private static boolean isLineEmpty(Board board, int line, boolean isRow) {
+        for (int i = 0; i < BoardConstants.SIZE; i++) {
+            int square = isRow ? line * BoardConstants.SIZE + i : i * BoardConstants.SIZE + line;
+            if (!board.isEmpty(square))
+                return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,82 @@
+package scrabble.core.components;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import scrabble.core.GameState;
+import scrabble.core.Move;
+import scrabble.core.PackedMove;
+import scrabble.core.Position;
+import scrabble.rules.game.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZobristTest {
+
+    @BeforeAll
+    static void setup() {
+        GameRules.load("src/main/resources/scrabble.json");
+    }
+
+    private static Board board(String tiles) {
+        return Board.fromString(tiles.replace('.', GameConstants.EMPTY_SQUARE));
+    }
+
+    @Test
+    void testBoardHashFollowsPlacedTiles() {
+        String empty = ".".repeat(BoardConstants.TOTAL_SIZE);
+        int center = BoardConstants.TOTAL_SIZE / 2;
+        String word = empty.substring(0, center) + "CAt" + empty.substring(center + 3);
+
+        Move move = new Move(new Position[] { Position.fromIndex(center), Position.fromIndex(center + 1),
+                Position.fromIndex(center + 2) }, new char[] { 'C', 'A', 't' });
+        Board placed = Board.emptyBoard().placeWord(move);
+        Board packed = Board.emptyBoard().placeWord(PackedMove.of(move));
+
+        assertEquals(0, Board.emptyBoard().zobristHash());
+        assertEquals(board(word).zobristHash(), placed.zobristHash());
+        assertEquals(placed.zobristHash(), packed.zobristHash());
+        assertEquals(board(word).hashCode(), placed.hashCode());
+
+        // A blank differs from the letter it is played as
+        String letter = empty.substring(0, center) + "CAT" + empty.substring(center + 3);
+        assertNotEquals(board(letter).zobristHash(), placed.zobristHash());
+        assertNotEquals(board(letter), placed);
+    }
+
+    @Test
+    void testRackHashIgnoresOrder() {
+        Rack rack = Rack.fromString("EEA?S");
+
+        assertEquals(rack.zobristHash(), Rack.fromString("SE?AE").zobristHash());
+        assertEquals(rack.zobristHash(), Rack.fromString("EA").addTiles(new char[] { 'S', '?', 'E' }).zobristHash());
+        assertEquals(Rack.fromString("AS").zobristHash(),
+                rack.removeTiles(new char[] { 'E', '?', 'E' }).zobristHash());
+        assertEquals(0, rack.removeTiles(rack.getLetters()).zobristHash());
+        assertNotEquals(rack.zobristHash(), Rack.fromString("EA?S").zobristHash());
+    }
+
+    @Test
+    void testBagHashFollowsDraws() {
+        Bag bag = Bag.standardBag();
+        DrawResult draw = bag.drawTiles(20);
+
+        assertEquals(bag.zobristHash(), draw.bag().addTiles(draw.drawnTiles()).zobristHash());
+        assertEquals(draw.bag().zobristHash(), bag.removeTiles(draw.drawnTiles()).zobristHash());
+        assertEquals(Bag.fromString("ZAQ").zobristHash(), Bag.fromString("QZA").zobristHash());
+
+        // The same tiles in the bag and on a rack hash differently
+        assertNotEquals(Bag.fromString("ZAQ").zobristHash(), Rack.fromString("ZAQ").zobristHash());
+    }
+
+    @Test
+    void testGameStateHashCoversRacksAndPlayer() {
+        String board = String.valueOf(GameConstants.EMPTY_SQUARE).repeat(BoardConstants.TOTAL_SIZE);
+        GameState state = GameState.stateFrom(board + "/XYZ/ABC/DEF/0/0");
+        GameState swapped = GameState.stateFrom(board + "/XYZ/DEF/ABC/0/0");
+        GameState other = GameState.stateFrom(board + "/XYZ/ABC/DEF/10/20");
+
+        assertNotEquals(state.zobristHash(0), state.zobristHash(1));
+        assertNotEquals(state.zobristHash(0), swapped.zobristHash(0));
+        assertEquals(state.zobristHash(1), other.zobristHash(1));
+    }
+}
@@ -0,0 +1,73 @@
+package scrabble.engine;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import scrabble.core.components.Board;
+import scrabble.rules.TrieDictionary;
+import scrabble.rules.game.*;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CrossChecksTest {
+
+    @BeforeAll
+    static void initialSetup() {
+        GameRules.load("src/main/resources/scrabble.json");
+    }
+
+    private static int square(int row, int col) {
+        return row * BoardConstants.SIZE + col;
+    }
+
+    private static int bit(char letter) {
+        return 1 << BagConstants.getIndex(letter);
+    }
+
+    // A over N in the middle column, N being a blank
+    private static CrossChecks crossChecks(List<String> words) {
+        char[] tiles = ".".repeat(BoardConstants.TOTAL_SIZE).toCharArray();
+        tiles[square(7, 7)] = 'A';
+        tiles[square(8, 7)] = 'n';
+        String boardString = new String(tiles).replace('.', GameConstants.EMPTY_SQUARE);
+
+        return new CrossChecks(Board.fromString(boardString), new TrieDictionary(words).getPacked());
+    }
+
+    @Test
+    void testSquareWithoutNeighbours() {
+        CrossChecks crossChecks = crossChecks(List.of("AND"));
+
+        assertEquals(CrossChecks.allLetters(), crossChecks.mask(square(0, 0), true));
+        assertEquals(CrossChecks.allLetters(), crossChecks.mask(square(0, 0), false));
+        assertEquals(CrossChecks.NO_CROSS_WORD, crossChecks.crossScore(square(0, 0), true));
+    }
+
+    @Test
+    void testPerpendicularWord() {
+        CrossChecks crossChecks = crossChecks(List.of("AND", "ANT", "BAN"));
+        int scoreA = BagConstants.INDEX_TO_SCORE[BagConstants.getIndex('A')];
+
+        // Below the column, a horizontal main word forms AN?
+        assertEquals(bit('D') | bit('T'), crossChecks.mask(square(9, 7), true));
+        assertEquals(scoreA, crossChecks.crossScore(square(9, 7), true));
+
+        // Above it, ?AN
+        assertEquals(bit('B'), crossChecks.mask(square(6, 7), true));
+        assertEquals(scoreA, crossChecks.crossScore(square(6, 7), true));
+
+        // A vertical main word through these squares forms no perpendicular word
+        assertEquals(CrossChecks.allLetters(), crossChecks.mask(square(9, 7), false));
+    }
+
+    @Test
+    void testNoValidLetter() {
+        CrossChecks crossChecks = crossChecks(List.of("AND"));
+
+        // Next to A, a vertical main word forms ?A or A?
+        assertEquals(0, crossChecks.mask(square(7, 6), false));
+        assertEquals(0, crossChecks.mask(square(7, 8), false));
+        assertEquals(0, crossChecks.mask(square(7, 7), true));
+    }
+}
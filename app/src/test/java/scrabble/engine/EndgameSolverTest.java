@@ -0,0 +1,172 @@
+package scrabble.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import scrabble.core.GameState;
+import scrabble.core.MoveList;
+import scrabble.core.PackedMove;
+import scrabble.core.PlayerView;
+import scrabble.core.SearchState;
+import scrabble.rules.TrieDictionary;
+import scrabble.rules.game.BagConstants;
+import scrabble.rules.game.BoardConstants;
+import scrabble.rules.game.GameConstants;
+import scrabble.rules.game.GameRules;
+
+public class EndgameSolverTest {
+    private static String emptyBoard;
+    private static MoveGenerator moveGenerator;
+
+    @BeforeAll
+    static void setup() {
+        GameRules.load("src/main/resources/scrabble.json");
+        emptyBoard = String.valueOf(GameConstants.EMPTY_SQUARE).repeat(BoardConstants.TOTAL_SIZE);
+        moveGenerator = new MoveGenerator(new TrieDictionary(
+                List.of("SING", "RING", "RINGS", "GIN", "GINS", "IN", "IS", "SIN", "AD", "AS", "ADS")));
+    }
+
+    // The position player 0 sees with an empty bag, the opponent holding the
+    // second rack
+    private static PlayerView endgame(String rack, String opponentRack) {
+        return PlayerView.fromGameState(GameState.stateFrom(emptyBoard + "//" + rack + "/" + opponentRack + "/0/0"),
+                0);
+    }
+
+    private static int value(char letter) {
+        return BagConstants.INDEX_TO_SCORE[BagConstants.getIndex(letter)];
+    }
+
+    // What the player to move gains with best play, by plain minimax
+    private static int minimax(SearchState state, boolean passed) {
+        int player = state.getPlayerToMove();
+        int best = state.rackScore(1 - player) - state.rackScore(player);
+        if (!passed) {
+            state.pass();
+            best = -minimax(state, true);
+            state.undoExchange();
+        }
+        PlayerView view = state.toPlayerView();
+        MoveList moves = new MoveList();
+        moveGenerator.generateLegalMoves(view, moveGenerator.createContext(view), moves);
+        for (int i = 0; i < moves.size(); i++) {
+            int score = moves.getScore(i);
+            state.doMove(moves.get(i), score);
+            int value = state.rackSize(player) == 0 ? score + 2 * state.rackScore(1 - player)
+                    : score - minimax(state, false);
+            state.undoMove();
+            best = Math.max(best, value);
+        }
+        return best;
+    }
+
+    @Test
+    void testKeepsTileForAHook() {
+        // Going out with RINGS scores less than RING and then hooking the S
+        // onto it, as the opponent cannot play
+        EndgameSolver.Solution solution = new EndgameSolver(moveGenerator).solve(endgame("RINGS", "AD"), 10_000);
+
+        assertTrue(solution.isComplete());
+        MoveList line = solution.moves();
+        assertEquals(3, line.size());
+        assertEquals(4, PackedMove.tileCount(line.get(0)));
+        assertEquals(PackedMove.NONE, line.get(1));
+        assertEquals(1, PackedMove.tileCount(line.get(2)));
+        assertEquals(line.getScore(0) + line.getScore(2) + 2 * (value('A') + value('D')), solution.spread());
+    }
+
+    @Test
+    void testMatchesMinimax() {
+        PlayerView view = endgame("RGS", "INS");
+        SearchState state = SearchState.of(view, GameState.stateFrom(emptyBoard + "//RGS/INS/0/0").getRacks()[1]);
+        int expected = minimax(state, false);
+
+        EndgameSolver.Solution solution = new EndgameSolver(moveGenerator).solve(view, 10_000);
+
+        assertTrue(solution.isComplete());
+        assertEquals(expected, solution.spread());
+    }
+
+    @Test
+    void testLineReachesTheSpread() {
+        PlayerView view = endgame("RIGS", "INAD");
+        EndgameSolver.Solution solution = new EndgameSolver(moveGenerator).solve(view, 10_000);
+        assertTrue(solution.isComplete());
+
+        // Playing the line out gives the spread it promises
+        SearchState state = SearchState.of(view, GameState.stateFrom(emptyBoard + "//RIGS/INAD/0/0").getRacks()[1]);
+        MoveList line = solution.moves();
+        boolean passed = false;
+        boolean isOver = false;
+        for (int i = 0; i < line.size(); i++) {
+            int player = state.getPlayerToMove();
+            if (line.get(i) == PackedMove.NONE) {
+                isOver = passed;
+                if (!isOver)
+                    state.pass();
+                passed = true;
+            } else {
+                state.doMove(line.get(i), line.getScore(i));
+                passed = false;
+                isOver = state.rackSize(player) == 0;
+            }
+        }
+        assertTrue(isOver);
+        int spread = state.getScore(0) - state.getScore(1);
+        if (state.rackSize(0) == 0)
+            spread += 2 * state.rackScore(1);
+        else if (state.rackSize(1) == 0)
+            spread -= 2 * state.rackScore(0);
+        else
+            spread += state.rackScore(1) - state.rackScore(0);
+        assertEquals(solution.spread(), spread);
+    }
+
+    @Test
+    void testFirstIterationWithoutTime() {
+        EndgameSolver.Solution solution = new EndgameSolver(moveGenerator).solve(endgame("RIGS", "INAD"), 0);
+
+        assertEquals(1, solution.depth());
+        assertFalse(solution.moves().isEmpty());
+    }
+
+    @Test
+    void testStopHoldsUntilReset() {
+        PlayerView view = endgame("RIGS", "INAD");
+        EndgameSolver solver = new EndgameSolver(moveGenerator);
+
+        // A stop before the solve starts still cuts it short
+        solver.stop();
+        assertFalse(solver.solve(view, 10_000).isComplete());
+        assertEquals(1, solver.solve(view, 10_000).depth());
+
+        solver.reset();
+        assertTrue(solver.solve(view, 10_000).isComplete());
+    }
+
+    @Test
+    void testNoPassFirst() {
+        // Neither side can go out, the Q being stuck
+        PlayerView view = endgame("ADQ", "XZ");
+        EndgameSolver solver = new EndgameSolver(moveGenerator);
+
+        assertNotEquals(PackedMove.NONE, solver.solve(view, 10_000, false).bestMove());
+        assertTrue(solver.solve(view, 10_000, false).isComplete());
+    }
+
+    @Test
+    void testBagMustBeEmpty() {
+        PlayerView view = PlayerView.fromGameState(
+                GameState.stateFrom(emptyBoard + "/ADS/RINGS/ADSINGS/0/0"), 0);
+
+        assertThrows(IllegalArgumentException.class, () -> new EndgameSolver(moveGenerator).solve(view, 100));
+    }
+}
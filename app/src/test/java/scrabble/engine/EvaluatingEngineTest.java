@@ -1,11 +1,14 @@
 package scrabble.engine;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
 import java.util.List;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -56,12 +59,150 @@ public class EvaluatingEngineTest {
         listener = new SearchListener();
     }
 
+    @AfterEach
+    void tearDown() {
+        engine.close();
+    }
+
     @Test
     void testGetBestMove() {
         Move move = engine.chooseMove(playerView, 500);
         assertEquals(7, move.getPositions().length); // STRINGS
     }
 
+    @Test
+    void testGetBestMoveOnSeveralThreads() {
+        try (EvaluatingEngine parallelEngine = new EvaluatingEngine(moveGenerator, evaluator, 4)) {
+            Move move = parallelEngine.chooseMove(playerView, 500);
+            assertEquals(7, move.getPositions().length); // STRINGS
+        }
+    }
+
+    // Live worker threads of all engines
+    private static long workerThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().equals("evaluating-engine-worker")).count();
+    }
+
+    @Test
+    void testReusesWorkersAcrossSearches() {
+        try (EvaluatingEngine parallelEngine = new EvaluatingEngine(moveGenerator, evaluator, 2)) {
+            parallelEngine.chooseMove(playerView, 200);
+            long workers = workerThreads();
+            parallelEngine.chooseMove(playerView, 200);
+            assertEquals(workers, workerThreads());
+        }
+    }
+
+    @Test
+    void testGetBestMoveWithReplies() {
+        try (EvaluatingEngine replyEngine = new EvaluatingEngine(moveGenerator, evaluator, 2,
+                EvaluatingEngine.Depth.REPLY)) {
+            Move move = replyEngine.chooseMove(playerView, 500);
+            assertEquals(7, move.getPositions().length); // STRINGS
+        }
+    }
+
+    @Test
+    void testRacksAreFullWhateverTheMoveKeeps() {
+        // Records the size of the mover's rack at every evaluation
+        List<Integer> rackSizes = new ArrayList<>();
+        Evaluator recording = new Evaluator() {
+            @Override
+            public double evaluate(GameState gameState, int playerId) {
+                return evaluator.evaluate(gameState, playerId);
+            }
+
+            @Override
+            public double evaluate(SearchState state, int playerId) {
+                synchronized (rackSizes) {
+                    rackSizes.add(state.rackSize(playerId));
+                }
+                return evaluator.evaluate(state, playerId);
+            }
+        };
+        try (EvaluatingEngine recordingEngine = new EvaluatingEngine(moveGenerator, recording, 1)) {
+            recordingEngine.chooseMove(playerView, 200);
+        }
+
+        // The moves keep different numbers of tiles, but the bag can refill
+        // the rack after any of them, so the evaluator always sees a full
+        // rack
+        assertFalse(rackSizes.isEmpty());
+        assertTrue(rackSizes.stream().allMatch(size -> size == GameConstants.RACK_SIZE),
+                "Evaluated racks of " + rackSizes.stream().distinct().toList() + " tiles");
+    }
+
+    @Test
+    void testFirstBatchDecidesWhenNoReplyRoundCompletes() {
+        // Several moves score less than the best one but come before it
+        String boardString = String.valueOf(GameConstants.EMPTY_SQUARE).repeat(BoardConstants.TOTAL_SIZE);
+        PlayerView position = PlayerView.fromGameState(
+                GameState.stateFrom(boardString + "/XORANDIFELSE/RINGS/AD/100/100"), 0);
+        MoveList candidates = new MoveList();
+        moveGenerator.generateLegalMoves(position, moveGenerator.createContext(position), candidates);
+        int firstBatchEvaluations = 10 * candidates.size();
+        EvaluatingEngine[] replyEngine = new EvaluatingEngine[1];
+        // Evaluates by the score, stopping the engine once the first batch is
+        // done, so that no reply round is sampled
+        Evaluator stopping = new Evaluator() {
+            private int evaluations;
+
+            @Override
+            public double evaluate(GameState gameState, int playerId) {
+                if (++evaluations == firstBatchEvaluations)
+                    replyEngine[0].stop();
+                return gameState.getScores()[playerId] - gameState.getScores()[1 - playerId];
+            }
+        };
+        replyEngine[0] = new EvaluatingEngine(moveGenerator, stopping, 1, EvaluatingEngine.Depth.REPLY);
+        int best = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            if (candidates.getScore(i) > candidates.getScore(best))
+                best = i;
+        }
+        try (EvaluatingEngine closing = replyEngine[0]) {
+            Move move = closing.chooseMove(position, 60_000);
+            assertEquals(PackedMove.toMove(candidates.get(best), position.getBoard()), move);
+        }
+    }
+
+    @Test
+    void testStopsOnceBestMoveIsClear() {
+        long start = System.currentTimeMillis();
+        Move move = engine.chooseMove(playerView, 60_000);
+        assertEquals(7, move.getPositions().length); // STRINGS
+        assertTrue(System.currentTimeMillis() - start < 10_000, "Search used the whole time");
+    }
+
+    @Test
+    void testSolvesEndgameWhenBagIsEmpty() {
+        // The opponent cannot play AD, so RING and then the S hook beat going
+        // out with RINGS
+        String boardString = String.valueOf(GameConstants.EMPTY_SQUARE).repeat(BoardConstants.TOTAL_SIZE);
+        PlayerView endgame = PlayerView.fromGameState(GameState.stateFrom(boardString + "//RINGS/AD/100/100"), 0);
+
+        Move move = engine.chooseMove(endgame, 5_000);
+        assertEquals(4, move.getPositions().length);
+    }
+
+    @Test
+    void testSolvesPreEndgameWithOneTileInBag() {
+        // Whatever the bag holds, the opponent cannot play, and keeping the S
+        // for STRINGS or RINGS beats playing it now
+        String boardString = String.valueOf(GameConstants.EMPTY_SQUARE).repeat(BoardConstants.TOTAL_SIZE);
+        PlayerView preEndgame = PlayerView.fromGameState(
+                GameState.stateFrom(boardString + "/T/RINGS/XXXXXXX/100/100"), 0);
+
+        Move move = engine.chooseMove(preEndgame, 5_000);
+        assertEquals(4, move.getPositions().length);
+    }
+
+    @Test
+    void testThreadCountMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new EvaluatingEngine(moveGenerator, evaluator, 0));
+    }
+
     @Test
     void testGeneratedMovesAreValid() throws InterruptedException {
         // Start the search in its own thread
@@ -0,0 +1,236 @@
+package scrabble.engine;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import scrabble.core.GameState;
+import scrabble.core.Move;
+import scrabble.core.PackedMove;
+import scrabble.core.PlayerView;
+import scrabble.rules.MoveValidator;
+import scrabble.rules.TrieDictionary;
+import scrabble.rules.game.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GaddagMoveIteratorTest {
+
+    @BeforeAll
+    static void initialSetup() {
+        GameRules.load("src/main/resources/scrabble.json");
+    }
+
+    private static PlayerView playerView(String boardString, String rack) {
+        boardString = boardString.replace('.', GameConstants.EMPTY_SQUARE);
+        GameState gameState = GameState.stateFrom(boardString + "/XORANDIFELSE/" + rack + "/AD/100/100");
+        return PlayerView.fromGameState(gameState, 0);
+    }
+
+    private static List<Move> generateValidMoves(PlayerView playerView, TrieDictionary dictionary) {
+        GaddagMoveIterator iterator = new GaddagMoveIterator(playerView, dictionary);
+        MoveValidator moveValidator = new MoveValidator(dictionary);
+
+        List<Move> moves = new ArrayList<>();
+        while (iterator.hasNext()) {
+            Move move = iterator.next();
+            assertTrue(moveValidator.isValid(playerView.getBoard(), move),
+                    "Invalid move: " + move);
+            assertFalse(moves.contains(move), "Duplicate move: " + move);
+            moves.add(move);
+        }
+        return moves;
+    }
+
+    @Test
+    void testFirstMove() {
+        String boardString = ".".repeat(BoardConstants.TOTAL_SIZE);
+        List<Move> moves = generateValidMoves(playerView(boardString, "AND"), new TrieDictionary(List.of("AND")));
+
+        assertEquals(6, moves.size());
+    }
+
+    @Test
+    void testFirstMoveWithBlank() {
+        String boardString = ".".repeat(BoardConstants.TOTAL_SIZE);
+        List<Move> moves = generateValidMoves(playerView(boardString, "A?"), new TrieDictionary(List.of("AB")));
+
+        // AB through the center, horizontally and vertically, with the blank as B
+        assertEquals(4, moves.size());
+        for (Move move : moves) {
+            assertArrayEquals(new char[] { 'A', 'b' }, move.getTiles());
+        }
+    }
+
+    @Test
+    void testKnownNumberOfLegalMoves() {
+        String boardString = "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "......WORDS...." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "...............";
+
+        List<Move> moves = generateValidMoves(playerView(boardString, "WORDS"),
+                new TrieDictionary(List.of("WORD", "WORDS", "WW")));
+
+        assertEquals(11, moves.size());
+    }
+
+    @Test
+    void testBuildCloseToEdges() {
+        String boardString = "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                ".CRABBLES......" +
+                "......SCRABBLE." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "...............";
+
+        List<Move> moves = generateValidMoves(playerView(boardString, "S"), new TrieDictionary(List.of("SCRABBLES")));
+
+        assertEquals(2, moves.size());
+    }
+
+    @Test
+    void testBuildCloseToCorner() {
+        String boardString = ".XX.........XX." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "..............X" +
+                "..............X" +
+                ".XX............";
+
+        List<Move> moves = generateValidMoves(playerView(boardString, "A"),
+                new TrieDictionary(List.of("XX", "XXA", "AXX")));
+
+        assertEquals(8, moves.size());
+    }
+
+    @Test
+    void testSingleTileIsGeneratedOnce() {
+        String boardString = "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                ".......A......." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "...............";
+
+        // PA and AP can be formed in both directions, P alone is never a move
+        List<Move> moves = generateValidMoves(playerView(boardString, "P"),
+                new TrieDictionary(List.of("P", "PA", "AP")));
+
+        assertEquals(4, moves.size());
+        for (Move move : moves) {
+            assertEquals(1, move.tilesPlaced());
+        }
+    }
+
+    @Test
+    void testAdvancedPosition() {
+        String boardString = "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                ".......A......." +
+                ".....SAND......" +
+                ".....C.D......." +
+                ".....R........." +
+                ".....A........." +
+                ".....B........." +
+                ".....B........." +
+                ".....L........." +
+                ".....E.........";
+
+        TrieDictionary dictionary = new TrieDictionary(
+                List.of("AND", "SAND", "SCRABBLE", "AQ", "CQD", "SA", "QA", "CDQ", "AS"));
+        List<Move> moves = generateValidMoves(playerView(boardString, "SQDSACN"), dictionary);
+
+        assertEquals(14, moves.size());
+    }
+
+    @Test
+    void testMinScoreSkipsOnlyLowerMoves() {
+        String boardString = "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "........R......" +
+                "........O......" +
+                "......WORDS...." +
+                "........E......" +
+                "........S......" +
+                "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "...............";
+
+        TrieDictionary dictionary = new TrieDictionary(List.of("WORD", "WORDS", "SWORD", "SWORDS", "ROSE", "ROSES",
+                "DOSE", "DOES", "ODE", "ODES", "ROW", "ROWS", "SO", "DO", "OW", "AD", "ADS", "AW", "AWS", "DRAWS",
+                "SWARD", "WARDS", "DRAW", "WARD", "ROAD", "ROADS"));
+        PlayerView playerView = playerView(boardString, "SODRAW?");
+        GenerationContext context = GenerationContext.of(playerView.getBoard(), dictionary);
+
+        List<String> all = new ArrayList<>();
+        List<Integer> scores = new ArrayList<>();
+        GaddagMoveIterator iterator = new GaddagMoveIterator(playerView, context);
+        while (iterator.hasNext()) {
+            all.add(PackedMove.toString(iterator.nextPacked()));
+            scores.add(iterator.score());
+        }
+
+        for (int minScore : new int[] { 0, 5, 10, 20, 30, 60 }) {
+            List<String> expected = new ArrayList<>();
+            for (int i = 0; i < all.size(); i++) {
+                if (scores.get(i) > minScore)
+                    expected.add(all.get(i));
+            }
+
+            List<String> moves = new ArrayList<>();
+            iterator = new GaddagMoveIterator(playerView, context, 0, BoardConstants.TOTAL_SIZE, minScore);
+            while (iterator.hasNext()) {
+                moves.add(PackedMove.toString(iterator.nextPacked()));
+            }
+            assertEquals(expected, moves, "Moves scoring more than " + minScore);
+        }
+    }
+}
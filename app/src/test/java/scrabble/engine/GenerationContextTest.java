@@ -0,0 +1,93 @@
+package scrabble.engine;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import scrabble.core.GameState;
+import scrabble.core.Move;
+import scrabble.core.PlayerView;
+import scrabble.core.Position;
+import scrabble.core.components.Board;
+import scrabble.rules.TrieDictionary;
+import scrabble.rules.game.*;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class GenerationContextTest {
+
+    @BeforeAll
+    static void initialSetup() {
+        GameRules.load("src/main/resources/scrabble.json");
+    }
+
+    private static TrieDictionary dictionary() {
+        return new TrieDictionary(List.of("AND", "ANDS", "SAND", "SANDS", "NO", "ON", "DO", "SO", "AS", "AD"));
+    }
+
+    private static void assertSameContext(GenerationContext expected, GenerationContext actual) {
+        assertEquals(expected.getBoard(), actual.getBoard());
+        for (int square = 0; square < BoardConstants.TOTAL_SIZE; square++) {
+            assertEquals(expected.isAnchor(square), actual.isAnchor(square), "Anchor at " + square);
+            for (boolean isHorizontal : new boolean[] { true, false }) {
+                assertEquals(expected.getCrossChecks().mask(square, isHorizontal),
+                        actual.getCrossChecks().mask(square, isHorizontal), "Mask at " + square);
+                assertEquals(expected.getCrossChecks().crossScore(square, isHorizontal),
+                        actual.getCrossChecks().crossScore(square, isHorizontal), "Score at " + square);
+            }
+        }
+        for (int line = 0; line < BoardConstants.SIZE; line++) {
+            assertArrayEquals(expected.row(line), actual.row(line));
+            assertArrayEquals(expected.column(line), actual.column(line));
+        }
+    }
+
+    private static Move move(int row, int col, boolean isHorizontal, String tiles) {
+        Position[] positions = new Position[tiles.length()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = isHorizontal ? new Position(row, col + i) : new Position(row + i, col);
+        }
+        return new Move(positions, tiles.toCharArray());
+    }
+
+    @Test
+    void testAfterMatchesFreshContext() {
+        TrieDictionary dictionary = dictionary();
+        GenerationContext context = GenerationContext.of(Board.emptyBoard(), dictionary);
+
+        for (Move move : List.of(move(7, 6, true, "AND"), move(8, 7, true, "O"), move(6, 5, false, "s"),
+                move(7, 9, true, "S"))) {
+            GenerationContext next = context.after(move);
+            assertSameContext(GenerationContext.of(context.getBoard().placeWord(move), dictionary), next);
+            context = next;
+        }
+    }
+
+    @Test
+    void testParentIsUnchanged() {
+        TrieDictionary dictionary = dictionary();
+        GenerationContext parent = GenerationContext.of(Board.emptyBoard(), dictionary).after(move(7, 6, true, "AND"));
+        GenerationContext expected = GenerationContext.of(parent.getBoard(), dictionary);
+
+        parent.after(move(8, 6, true, "S"));
+        assertSameContext(expected, parent);
+    }
+
+    @Test
+    void testGenerateFromDerivedContext() {
+        TrieDictionary dictionary = dictionary();
+        GenerationContext context = GenerationContext.of(Board.emptyBoard(), dictionary).after(move(7, 6, true, "AND"));
+
+        String boardString = new String(context.getBoard().getBoard());
+        GameState gameState = GameState.stateFrom(boardString + "/XORANDIFELSE/SONDA/AD/100/100");
+        PlayerView playerView = PlayerView.fromGameState(gameState, 0);
+
+        Set<Move> fresh = new HashSet<>();
+        new LegalMoveIterator(playerView, dictionary).forEachRemaining(fresh::add);
+        Set<Move> derived = new HashSet<>();
+        new LegalMoveIterator(playerView, context).forEachRemaining(derived::add);
+
+        assertFalse(fresh.isEmpty());
+        assertEquals(fresh, derived);
+    }
+}
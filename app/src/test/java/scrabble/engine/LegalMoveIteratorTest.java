@@ -4,13 +4,17 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import scrabble.core.GameState;
+import scrabble.core.MoveList;
+import scrabble.core.PackedMove;
 import scrabble.core.PlayerView;
 import scrabble.core.Position;
+import scrabble.rules.MoveScorer;
 import scrabble.rules.MoveValidator;
 import scrabble.rules.TrieDictionary;
 import scrabble.core.Move;
 import scrabble.rules.game.*;
 
+import java.lang.management.ManagementFactory;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -393,4 +397,130 @@ public class LegalMoveIteratorTest {
         }
         assertEquals(8, moves.size());
     }
-}
\ No newline at end of file
+
+    @Test
+    void testFirstMoveWithBlank() {
+        String boardString = String.valueOf(GameConstants.EMPTY_SQUARE).repeat(BoardConstants.TOTAL_SIZE);
+        String bagToFirstMove = "XORANDIFELSE/A?/AD/100/100";
+        String gameString = boardString + "/" + bagToFirstMove;
+
+        GameState gameState = GameState.stateFrom(gameString);
+        PlayerView playerView = PlayerView.fromGameState(gameState, 0);
+
+        TrieDictionary dictionary = new TrieDictionary(List.of("AB", "BA"));
+
+        LegalMoveIterator newIterator = new LegalMoveIterator(playerView, dictionary);
+        MoveValidator moveValidator = new MoveValidator(dictionary);
+
+        List<Move> moves = new ArrayList<>();
+        while (newIterator.hasNext()) {
+            Move move = newIterator.next();
+            assertTrue(moveValidator.isValid(playerView.getBoard(), move),
+                    "Invalid move: " + move);
+            assertFalse(moves.contains(move));
+            moves.add(move);
+        }
+
+        // AB and BA, with either tile on the center, in both directions
+        assertEquals(8, moves.size());
+    }
+
+    @Test
+    void testAllocatesOnlyTheMoves() {
+        String boardString = "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "......WORDS...." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "...............";
+        boardString = boardString.replace('.', GameConstants.EMPTY_SQUARE);
+        GameState gameState = GameState.stateFrom(boardString + "/XORANDIFELSE/SWORE??/AD/100/100");
+        PlayerView playerView = PlayerView.fromGameState(gameState, 0);
+        TrieDictionary dictionary = new TrieDictionary(List.of("WORD", "WORDS", "SWORD", "SWORDS", "ROSE", "WORE"));
+        GenerationContext context = GenerationContext.of(playerView.getBoard(), dictionary);
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+                .getThreadMXBean();
+        List<Move> moves = new ArrayList<>();
+
+        // Warm up, so that class loading is not measured
+        new LegalMoveIterator(playerView, context).forEachRemaining(moves::add);
+
+        // The least of a few runs, as a run during which the compiler swaps
+        // code in allocates more
+        long generated = Long.MAX_VALUE;
+        for (int run = 0; run < 5; run++) {
+            moves = new ArrayList<>(moves.size());
+            long before = threads.getCurrentThreadAllocatedBytes();
+            new LegalMoveIterator(playerView, context).forEachRemaining(moves::add);
+            generated = Math.min(generated, threads.getCurrentThreadAllocatedBytes() - before);
+        }
+
+        // The same moves built again, as a measure of what the moves cost
+        List<Move> copies = new ArrayList<>(moves.size());
+        long before = threads.getCurrentThreadAllocatedBytes();
+        for (Move move : moves) {
+            Position[] positions = new Position[move.tilesPlaced()];
+            for (int i = 0; i < positions.length; i++) {
+                Position position = move.getPositions()[i];
+                positions[i] = new Position(position.row(), position.column());
+            }
+            copies.add(new Move(positions, move.getTiles().clone()));
+        }
+        long copied = threads.getCurrentThreadAllocatedBytes() - before;
+
+        // Besides the moves only the iterator's own buffers may be allocated
+        assertFalse(moves.isEmpty());
+        assertTrue(generated <= copied + 16 * 1024,
+                "Allocated " + generated + " bytes for " + moves.size() + " moves, the moves take " + copied);
+    }
+
+    @Test
+    void testScoresMatchMoveScorer() {
+        String boardString = "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "........R......" +
+                "........O......" +
+                "......WORDS...." +
+                "........E......" +
+                "........S......" +
+                "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "...............";
+        boardString = boardString.replace('.', GameConstants.EMPTY_SQUARE);
+        GameState gameState = GameState.stateFrom(boardString + "/XORANDIFELSE/SODRAW?/AD/100/100");
+        PlayerView playerView = PlayerView.fromGameState(gameState, 0);
+        TrieDictionary dictionary = new TrieDictionary(List.of("WORD", "WORDS", "SWORD", "SWORDS", "ROSE", "ROSES",
+                "DOSE", "DOES", "ODE", "ODES", "ROW", "ROWS", "SO", "DO", "OW", "AD", "ADS", "AW", "AWS"));
+
+        for (MoveGenerator generator : List.of(new MoveGenerator(dictionary), new GaddagMoveGenerator(dictionary))) {
+            MoveList moves = new MoveList();
+            generator.generateLegalMoves(playerView, generator.createContext(playerView), moves);
+            assertFalse(moves.isEmpty());
+
+            for (int i = 0; i < moves.size(); i++) {
+                int score = moves.getScore(i);
+                assertEquals(MoveScorer.score(playerView.getBoard(), moves.get(i)), score);
+
+                // Applying a move with its score, blanks included, gives the same view
+                Move move = PackedMove.toMove(moves.get(i), playerView.getBoard());
+                assertEquals(playerView.getScores()[0] + score, playerView.applyMove(move, score).getScores()[0]);
+                assertEquals(playerView.applyMove(move).getScores()[0], playerView.applyMove(move, score).getScores()[0]);
+            }
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package scrabble.engine;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import scrabble.core.GameState;
+import scrabble.core.MoveList;
+import scrabble.core.PlayerView;
+import scrabble.rules.TrieDictionary;
+import scrabble.rules.game.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveGeneratorTest {
+
+    @BeforeAll
+    static void initialSetup() {
+        GameRules.load("src/main/resources/scrabble.json");
+    }
+
+    private static PlayerView playerView(String boardString, String rack, boolean isFirstMove) {
+        boardString = boardString.replace('.', GameConstants.EMPTY_SQUARE);
+        GameState gameState = GameState.stateFrom(boardString + "/XORANDIFELSE/" + rack + "/AD/100/100");
+        PlayerView playerView = PlayerView.fromGameState(gameState, 0);
+        assertEquals(isFirstMove, playerView.isFirstMove());
+        return playerView;
+    }
+
+    private static TrieDictionary dictionary() {
+        return new TrieDictionary(List.of("WORD", "WORDS", "SWORD", "SWORDS", "ROSE", "ROSES", "DOSE", "DOES",
+                "ODE", "ODES", "ROW", "ROWS", "SO", "DO", "OW", "AD", "ADS", "AW", "AWS", "WADS", "DRAWS", "SWARD",
+                "WARDS", "DRAW", "WARD", "ROAD", "ROADS", "DOSAGE", "ZOA", "ZOO", "ZOOS", "OZ", "AZO", "QAT", "QATS"));
+    }
+
+    private static String wordsBoard() {
+        return "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "........R......" +
+                "........O......" +
+                "......WORDS...." +
+                "........E......" +
+                "........S......" +
+                "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "...............";
+    }
+
+    // The best count scores of every legal move, best first
+    private static List<Integer> bestScores(MoveList moves, int count) {
+        List<Integer> scores = new ArrayList<>();
+        for (int i = 0; i < moves.size(); i++) {
+            scores.add(moves.getScore(i));
+        }
+        scores.sort(Comparator.reverseOrder());
+        return scores.subList(0, Math.min(count, scores.size()));
+    }
+
+    private static void assertBestMoves(PlayerView playerView, TrieDictionary dictionary) {
+        for (MoveGenerator generator : List.of(new MoveGenerator(dictionary), new GaddagMoveGenerator(dictionary))) {
+            GenerationContext context = generator.createContext(playerView);
+            MoveList all = new MoveList();
+            generator.generateLegalMoves(playerView, context, all);
+            assertFalse(all.isEmpty());
+
+            for (int count : new int[] { 1, 2, 5, 20, all.size() + 10 }) {
+                MoveList best = new MoveList();
+                generator.generateBestMoves(playerView, context, count, best);
+
+                List<Integer> scores = new ArrayList<>();
+                for (int i = 0; i < best.size(); i++) {
+                    assertTrue(all.contains(best.get(i)));
+                    scores.add(best.getScore(i));
+                }
+                assertEquals(bestScores(all, count), scores, "Best " + count + " moves");
+            }
+        }
+    }
+
+    @Test
+    void testBestMovesMatchAllMoves() {
+        assertBestMoves(playerView(wordsBoard(), "SODRAW?", false), dictionary());
+        assertBestMoves(playerView(wordsBoard(), "QAZTOSE", false), dictionary());
+    }
+
+    @Test
+    void testBestFirstMoves() {
+        assertBestMoves(playerView(".".repeat(BoardConstants.TOTAL_SIZE), "SWORDAE", true), dictionary());
+    }
+
+    @Test
+    void testNoBestMoves() {
+        TrieDictionary dictionary = dictionary();
+        PlayerView playerView = playerView(wordsBoard(), "SODRAW?", false);
+        MoveGenerator generator = new GaddagMoveGenerator(dictionary);
+
+        MoveList best = new MoveList();
+        generator.generateBestMoves(playerView, generator.createContext(playerView), 0, best);
+        assertTrue(best.isEmpty());
+    }
+
+    @Test
+    void testCountsMatchCorpus() throws IOException {
+        Path corpus = Path.of("src/test/resources/movecounts");
+        TrieDictionary dictionary = new TrieDictionary(Files.readAllLines(corpus.resolve("words.txt")));
+        List<MoveGenerator> generators = List.of(new MoveGenerator(dictionary), new GaddagMoveGenerator(dictionary));
+
+        int positions = 0;
+        for (String line : Files.readAllLines(corpus.resolve("positions.txt"))) {
+            if (line.isBlank() || line.startsWith("#"))
+                continue;
+
+            String[] fields = line.split("/");
+            boolean isFirstMove = fields[0].chars().allMatch(c -> c == '.');
+            PlayerView playerView = playerView(fields[0], fields[1], isFirstMove);
+            long expected = Long.parseLong(fields[2]);
+            for (MoveGenerator generator : generators) {
+                assertEquals(expected, generator.countLegalMoves(playerView),
+                        generator.getClass().getSimpleName() + " on line " + line);
+            }
+            positions++;
+        }
+        assertTrue(positions > 0);
+    }
+
+    @Test
+    void testCountMatchesGeneratedMoves() {
+        TrieDictionary dictionary = dictionary();
+        for (MoveGenerator generator : List.of(new MoveGenerator(dictionary), new GaddagMoveGenerator(dictionary))) {
+            for (PlayerView playerView : List.of(playerView(wordsBoard(), "SODRAW?", false),
+                    playerView(".".repeat(BoardConstants.TOTAL_SIZE), "SWORDAE", true))) {
+                GenerationContext context = generator.createContext(playerView);
+                MoveList moves = new MoveList();
+                generator.generateLegalMoves(playerView, context, moves);
+                assertEquals(moves.size(), generator.countLegalMoves(playerView, context));
+
+                // Moves already taken are not counted
+                PackedMoveIterator iterator = generator.rangeIterator(playerView, context, 0,
+                        BoardConstants.TOTAL_SIZE);
+                iterator.nextPacked();
+                iterator.nextPacked();
+                assertEquals(moves.size() - 2, iterator.countRemaining());
+                assertFalse(iterator.hasNext());
+            }
+        }
+    }
+
+    @Test
+    void testCountWithMinScoreFails() {
+        PlayerView playerView = playerView(wordsBoard(), "SODRAW?", false);
+        MoveGenerator generator = new GaddagMoveGenerator(dictionary());
+        PackedMoveIterator iterator = generator.rangeIterator(playerView, generator.createContext(playerView), 0,
+                BoardConstants.TOTAL_SIZE, 10);
+        assertThrows(IllegalStateException.class, iterator::countRemaining);
+    }
+}
@@ -0,0 +1,103 @@
+package scrabble.engine;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import scrabble.core.GameState;
+import scrabble.core.Move;
+import scrabble.core.PlayerView;
+import scrabble.rules.TrieDictionary;
+import scrabble.rules.game.*;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MoveSpliteratorTest {
+
+    @BeforeAll
+    static void initialSetup() {
+        GameRules.load("src/main/resources/scrabble.json");
+    }
+
+    private static PlayerView playerView() {
+        String boardString = "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "........R......" +
+                "........O......" +
+                "......WORDS...." +
+                "........E......" +
+                "........S......" +
+                "..............." +
+                "..............." +
+                "..............." +
+                "..............." +
+                "...............";
+        boardString = boardString.replace('.', GameConstants.EMPTY_SQUARE);
+        GameState gameState = GameState.stateFrom(boardString + "/XORANDIFELSE/SODRAW?/AD/100/100");
+        return PlayerView.fromGameState(gameState, 0);
+    }
+
+    private static TrieDictionary dictionary() {
+        return new TrieDictionary(List.of("WORD", "WORDS", "SWORD", "SWORDS", "ROSE", "ROSES", "DOSE", "DOES",
+                "ODE", "ODES", "ROW", "ROWS", "SO", "DO", "OW", "AD", "ADS", "AW", "AWS"));
+    }
+
+    private static void splitFully(Spliterator<Move> spliterator, List<Move> moves) {
+        Spliterator<Move> prefix = spliterator.trySplit();
+        if (prefix != null) {
+            splitFully(prefix, moves);
+            splitFully(spliterator, moves);
+            return;
+        }
+        spliterator.forEachRemaining(moves::add);
+    }
+
+    @Test
+    void testSplitsGiveSameMoves() {
+        PlayerView playerView = playerView();
+        TrieDictionary dictionary = dictionary();
+
+        for (MoveGenerator generator : List.of(new MoveGenerator(dictionary), new GaddagMoveGenerator(dictionary))) {
+            List<Move> sequential = generator.streamLegalMoves(playerView).collect(Collectors.toList());
+            assertFalse(sequential.isEmpty());
+
+            List<Move> split = new ArrayList<>();
+            splitFully(generator.streamLegalMoves(playerView).spliterator(), split);
+            assertEquals(sequential, split);
+
+            List<Move> parallel = generator.streamLegalMoves(playerView).parallel().collect(Collectors.toList());
+            assertEquals(sequential, parallel);
+        }
+    }
+
+    @Test
+    void testMatchesIterator() {
+        PlayerView playerView = playerView();
+        TrieDictionary dictionary = dictionary();
+
+        List<Move> expected = new ArrayList<>();
+        new GaddagMoveIterator(playerView, dictionary).forEachRemaining(expected::add);
+
+        assertEquals(expected, new GaddagMoveGenerator(dictionary).streamLegalMoves(playerView).parallel()
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    void testFirstMoveIsNotSplit() {
+        String boardString = String.valueOf(GameConstants.EMPTY_SQUARE).repeat(BoardConstants.TOTAL_SIZE);
+        GameState gameState = GameState.stateFrom(boardString + "/XORANDIFELSE/AND/AD/100/100");
+        PlayerView playerView = PlayerView.fromGameState(gameState, 0);
+
+        Spliterator<Move> spliterator = new MoveGenerator(new TrieDictionary(List.of("AND")))
+                .streamLegalMoves(playerView).spliterator();
+        assertNull(spliterator.trySplit());
+
+        List<Move> moves = new ArrayList<>();
+        spliterator.forEachRemaining(moves::add);
+        assertEquals(6, moves.size());
+    }
+}
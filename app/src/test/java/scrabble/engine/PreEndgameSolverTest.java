@@ -0,0 +1,184 @@
+package scrabble.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import scrabble.core.GameState;
+import scrabble.core.MoveList;
+import scrabble.core.PackedMove;
+import scrabble.core.PlayerView;
+import scrabble.core.components.Rack;
+import scrabble.rules.TrieDictionary;
+import scrabble.rules.game.BoardConstants;
+import scrabble.rules.game.GameConstants;
+import scrabble.rules.game.GameRules;
+
+public class PreEndgameSolverTest {
+    private static String emptyBoard;
+    private static MoveGenerator moveGenerator;
+
+    @BeforeAll
+    static void setup() {
+        GameRules.load("src/main/resources/scrabble.json");
+        emptyBoard = String.valueOf(GameConstants.EMPTY_SQUARE).repeat(BoardConstants.TOTAL_SIZE);
+        moveGenerator = new MoveGenerator(new TrieDictionary(List.of("SING", "RING", "RINGS", "STRING", "STRINGS")));
+    }
+
+    // The position player 0 sees with the bag and the opponent's rack
+    private static PlayerView position(String bag, String rack, String opponentRack, int score, int opponentScore) {
+        return PlayerView.fromGameState(GameState.stateFrom(
+                emptyBoard + "/" + bag + "/" + rack + "/" + opponentRack + "/" + score + "/" + opponentScore), 0);
+    }
+
+    @Test
+    void testSplitsOfTwoTiles() {
+        List<PreEndgameSolver.Split> splits = PreEndgameSolver.splits(position("AB", "RINGS", "ACDEFGH", 0, 0));
+
+        // AA, A with one of the seven others, or two of the seven others
+        assertEquals(1 + 7 + 21, splits.size());
+        // All the ways of drawing two of the nine tiles
+        assertEquals(36, splits.stream().mapToLong(PreEndgameSolver.Split::weight).sum());
+        for (PreEndgameSolver.Split split : splits) {
+            assertEquals(GameConstants.RACK_SIZE, split.opponentRack().size());
+        }
+    }
+
+    @Test
+    void testSplitsOfOneTile() {
+        List<PreEndgameSolver.Split> splits = PreEndgameSolver.splits(position("T", "RINGS", "XXXXXXX", 0, 0));
+
+        assertEquals(List.of(new PreEndgameSolver.Split(Rack.fromString("TXXXXXX"), 7),
+                new PreEndgameSolver.Split(Rack.fromString("XXXXXXX"), 1)), splits);
+    }
+
+    @Test
+    void testIsPreEndgame() {
+        assertTrue(PreEndgameSolver.isPreEndgame(position("T", "RINGS", "XXXXXXX", 0, 0)));
+        assertTrue(PreEndgameSolver.isPreEndgame(position("TS", "RINGS", "XXXXXXX", 0, 0)));
+        assertFalse(PreEndgameSolver.isPreEndgame(position("TSA", "RINGS", "XXXXXXX", 0, 0)));
+        assertFalse(PreEndgameSolver.isPreEndgame(position("", "RINGS", "XXXXXXX", 0, 0)));
+    }
+
+    // Win probabilities and spreads of the candidates, which empty the bag
+    private static PreEndgameSolver.Outcome evaluate(MoveGenerator moveGenerator, PlayerView playerView,
+            MoveList moves, int[] candidates, long timeMillis) {
+        try (ExecutorService workers = Executors.newFixedThreadPool(2)) {
+            return new PreEndgameSolver(moveGenerator, 2).evaluate(playerView, moves, candidates, workers,
+                    timeMillis);
+        }
+    }
+
+    private static PreEndgameSolver.Outcome evaluate(PlayerView playerView, MoveList moves, int[] candidates) {
+        return evaluate(moveGenerator, playerView, moves, candidates, 10_000);
+    }
+
+    @Test
+    void testWinProbabilityFollowsTheScore() {
+        // The opponent cannot play, so the endgames differ only in the score
+        PlayerView ahead = position("T", "RINGS", "XXXXXXX", 0, 10);
+        PlayerView behind = position("T", "RINGS", "XXXXXXX", 0, 300);
+        MoveList moves = new MoveList();
+        moveGenerator.generateLegalMoves(ahead, moveGenerator.createContext(ahead), moves);
+        int[] candidates = IntStream.range(0, moves.size()).toArray();
+
+        PreEndgameSolver.Outcome winning = evaluate(ahead, moves, candidates);
+        PreEndgameSolver.Outcome losing = evaluate(behind, moves, candidates);
+
+        for (int i : candidates) {
+            assertEquals(1.0, winning.winProbabilities()[i]);
+            assertEquals(0.0, losing.winProbabilities()[i]);
+            assertEquals(winning.spreads()[i] - 290, losing.spreads()[i], 1e-9);
+        }
+    }
+
+    // Generates moves for endgames that take more than a millisecond to
+    // solve, and whose first iteration is off
+    private static MoveGenerator endgameGenerator() {
+        return new MoveGenerator(new TrieDictionary(
+                List.of("SING", "RING", "RINGS", "GIN", "GINS", "IN", "IS", "SIN", "AD", "AS", "ADS")));
+    }
+
+    @Test
+    void testWithoutTimeLimit() {
+        MoveGenerator endgameGenerator = endgameGenerator();
+        PlayerView view = position("E", "RIGS", "INADXXX", 0, 0);
+        MoveList moves = new MoveList();
+        endgameGenerator.generateLegalMoves(view, endgameGenerator.createContext(view), moves);
+        int[] candidates = IntStream.range(0, moves.size()).toArray();
+
+        // Without a limit, every endgame is solved as fully as with plenty
+        // of time
+        PreEndgameSolver.Outcome limited = evaluate(endgameGenerator, view, moves, candidates, 60_000);
+        PreEndgameSolver.Outcome unlimited = evaluate(endgameGenerator, view, moves, candidates, Long.MAX_VALUE);
+
+        for (int i : candidates) {
+            assertEquals(limited.spreads()[i], unlimited.spreads()[i], 1e-9);
+        }
+    }
+
+    @Test
+    void testStopLeavesTheRestOfTheCandidates() {
+        MoveGenerator endgameGenerator = endgameGenerator();
+        PlayerView view = position("E", "RIGS", "INADXXX", 0, 0);
+        MoveList moves = new MoveList();
+        endgameGenerator.generateLegalMoves(view, endgameGenerator.createContext(view), moves);
+        int[] candidates = IntStream.range(0, moves.size()).toArray();
+        PreEndgameSolver solver = new PreEndgameSolver(endgameGenerator, 2);
+
+        // Stopped before it starts, each worker only solves its first
+        // candidate of the first split
+        solver.stop();
+        PreEndgameSolver.Outcome outcome;
+        try (ExecutorService workers = Executors.newFixedThreadPool(2)) {
+            outcome = solver.evaluate(view, moves, candidates, workers, 60_000);
+        }
+
+        long evaluated = IntStream.of(candidates).filter(i -> !Double.isNaN(outcome.winProbabilities()[i])).count();
+        assertEquals(2, evaluated);
+    }
+
+    @Test
+    void testStopDuringUnlimitedEvaluate() throws Exception {
+        // Seven tiles against seven, whose endgames take seconds each to
+        // solve in full
+        MoveGenerator slowGenerator = new MoveGenerator(new TrieDictionary(List.of("SING", "RING", "RINGS", "GIN",
+                "GINS", "IN", "IS", "SIN", "AD", "AS", "ADS", "STRING", "STRINGS", "AN", "AT", "TA", "TI", "IT", "NA",
+                "AI", "AIN", "AINS", "TAN", "TANS", "ANT", "ANTS", "SAT", "SIT", "TIN", "TINS", "NIT", "NITS", "GAS",
+                "GAT", "GATS", "RAG", "RAGS", "RAN", "RAT", "RATS", "ART", "ARTS", "STAR", "TSAR", "RANT", "RANTS",
+                "GRIN", "GRINS", "GRIT", "GRITS", "TRIG", "TRIGS", "STAIR", "SATIN", "GIANT", "GIANTS", "RATING",
+                "RATINGS", "DIG", "DIGS", "RID", "RIDS", "DIN", "DINS", "AID", "AIDS", "SAID", "RAID", "RAIDS",
+                "GRAD", "GRADS")));
+        PlayerView view = position("E", "RATINGS", "ADDIGNS", 0, 0);
+        MoveList moves = new MoveList();
+        slowGenerator.generateLegalMoves(view, slowGenerator.createContext(view), moves);
+        // Two-tile plays, which keep most of the rack for the endgame
+        int[] candidates = IntStream.range(0, moves.size()).filter(i -> PackedMove.tileCount(moves.get(i)) == 2)
+                .toArray();
+        PreEndgameSolver solver = new PreEndgameSolver(slowGenerator, 2);
+
+        ExecutorService workers = Executors.newFixedThreadPool(2);
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+        try {
+            Future<PreEndgameSolver.Outcome> outcome = caller
+                    .submit(() -> solver.evaluate(view, moves, candidates, workers, Long.MAX_VALUE));
+            // Most likely before the workers have started their endgames, so
+            // a solver made on first use would miss the stop
+            solver.stop();
+            outcome.get(2, TimeUnit.SECONDS);
+        } finally {
+            caller.shutdownNow();
+            workers.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package scrabble.engine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import scrabble.core.GameState;
+import scrabble.rules.game.BoardConstants;
+import scrabble.rules.game.GameConstants;
+import scrabble.rules.game.GameRules;
+
+public class StandardEvaluatorTest {
+    private static String emptyBoard;
+
+    @BeforeAll
+    static void setup() {
+        GameRules.load("src/main/resources/scrabble.json");
+        emptyBoard = String.valueOf(GameConstants.EMPTY_SQUARE).repeat(BoardConstants.TOTAL_SIZE);
+    }
+
+    @Test
+    void testRacksOfDifferentSizes() {
+        Evaluator evaluator = new StandardEvaluator();
+        GameState shortRack = GameState.stateFrom(emptyBoard + "//S/AE/0/0");
+        GameState longRack = GameState.stateFrom(emptyBoard + "//AE/S/0/0");
+
+        // Every tile of both racks counts: S is worth 7 and AE 11, so S
+        // against AE is 4 behind and AE against S 4 ahead
+        assertEquals(-8, evaluator.evaluate(shortRack, 0) - evaluator.evaluate(longRack, 0), 1e-9);
+        assertEquals(8, evaluator.evaluate(shortRack, 1) - evaluator.evaluate(longRack, 1), 1e-9);
+    }
+}
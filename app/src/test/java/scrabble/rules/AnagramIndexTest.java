@@ -0,0 +1,69 @@
+package scrabble.rules;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import scrabble.rules.game.GameRules;
+
+public class AnagramIndexTest {
+    private static final List<String> WORDS = List.of("AT", "TA", "CAT", "ACT", "TAC", "CATS", "CAST", "SCAT",
+            "ACTS", "TACKS", "STACKINGS");
+
+    @BeforeAll
+    static void initialSetup() {
+        GameRules.load("src/main/resources/scrabble.json"); // or correct path
+    }
+
+    private static AnagramIndex index() {
+        return new TrieDictionary(WORDS).getAnagramIndex();
+    }
+
+    @Test
+    void testAnagrams() {
+        AnagramIndex index = index();
+
+        assertEquals(Set.of("ACT", "CAT", "TAC"), new HashSet<>(index.anagrams("TCA".toCharArray())));
+        assertEquals(Set.of("ACTS", "CAST", "CATS", "SCAT"), new HashSet<>(index.anagrams("SCAT".toCharArray())));
+        assertTrue(index.anagrams("CATX".toCharArray()).isEmpty());
+        assertTrue(index.hasAnagram("TA".toCharArray()));
+        assertFalse(index.hasAnagram("TAX".toCharArray()));
+    }
+
+    @Test
+    void testSubanagrams() {
+        List<String> words = index().subanagrams("CATX".toCharArray());
+
+        assertEquals(Set.of("AT", "TA", "CAT", "ACT", "TAC"), new HashSet<>(words));
+        assertEquals(words.size(), new HashSet<>(words).size());
+    }
+
+    @Test
+    void testBlanks() {
+        AnagramIndex index = index();
+
+        assertEquals(Set.of("ACT", "CAT", "TAC", "AT", "TA"), new HashSet<>(index.subanagrams("CA?".toCharArray())));
+        assertEquals(Set.of("ACTS", "CAST", "CATS", "SCAT"), new HashSet<>(index.anagrams("C?T?".toCharArray())));
+
+        // Every word is reported once, whichever letters the blanks stand for
+        List<String> words = index.subanagrams("AT??".toCharArray());
+        assertEquals(words.size(), new HashSet<>(words).size());
+        assertFalse(words.contains("TACKS"));
+        assertTrue(words.containsAll(List.of("AT", "TA", "CAT", "CATS", "SCAT")));
+    }
+
+    @Test
+    void testLongerWordsAreNotIndexed() {
+        AnagramIndex index = index();
+
+        // STACKINGS is longer than a rack plus one tile
+        assertEquals(List.of("TACKS"), index.anagrams("STACK".toCharArray()));
+        assertFalse(index.subanagrams("STACKIN???".toCharArray()).contains("STACKINGS"));
+        assertFalse(index.hasAnagram("STACKINGS".toCharArray()));
+    }
+}
@@ -0,0 +1,76 @@
+package scrabble.rules;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import scrabble.rules.game.GameRules;
+
+public class DawgBuilderTest {
+    private static final List<String> WORDS = List.of("CAT", "CATS", "BAT", "BATS", "RAT", "RATS", "BATHING",
+            "CATHING", "ACT", "ACTS");
+
+    @BeforeAll
+    static void initialSetup() {
+        GameRules.load("src/main/resources/scrabble.json"); // or correct path
+    }
+
+    @Test
+    void testContainsSameWords() {
+        TrieDictionary dictionary = new DawgBuilder().addAll(WORDS).build();
+
+        for (String word : WORDS) {
+            assertTrue(dictionary.isWord(word), word);
+        }
+        assertFalse(dictionary.isWord("CA"));
+        assertFalse(dictionary.isWord("BATH"));
+        assertFalse(dictionary.isWord("TAC"));
+        assertTrue(dictionary.isPrefix("BATH".toCharArray()));
+        assertFalse(dictionary.isPrefix("BATT".toCharArray()));
+    }
+
+    @Test
+    void testSharesSuffixes() {
+        DawgBuilder builder = new DawgBuilder().addAll(WORDS);
+        TrieDictionary dictionary = builder.build();
+
+        DictionaryStats trieStats = builder.getTrieStats();
+        DictionaryStats dawgStats = builder.getDawgStats();
+
+        assertEquals(new TrieDictionary(WORDS).stats().nodes(), trieStats.nodes());
+        assertEquals(builder.getPackedStats(), dictionary.stats());
+        assertEquals(dawgStats.nodes(), dictionary.stats().nodes());
+        assertEquals(dawgStats.edges(), dictionary.stats().edges());
+        assertTrue(dawgStats.nodes() < trieStats.nodes());
+        assertTrue(dawgStats.estimatedBytes() < trieStats.estimatedBytes());
+        assertTrue(dictionary.stats().estimatedBytes() < dawgStats.estimatedBytes());
+
+        // C-A-T, B-A-T and R-A-T all continue into the same node
+        TrieNode fromC = dictionary.getRoot().getChild('C').orElseThrow().getChild('A').orElseThrow();
+        TrieNode fromB = dictionary.getRoot().getChild('B').orElseThrow().getChild('A').orElseThrow();
+        assertSame(fromC, fromB);
+    }
+
+    @Test
+    void testCannotAddAfterBuild() {
+        DawgBuilder builder = new DawgBuilder().add("CAT");
+        builder.build();
+
+        assertThrows(IllegalStateException.class, () -> builder.add("CATS"));
+        assertThrows(IllegalStateException.class, builder::build);
+    }
+
+    @Test
+    void testMinimizedGaddagKeepsWords() {
+        TrieDictionary dictionary = new DawgBuilder().addAll(WORDS).build();
+        Gaddag gaddag = dictionary.getGaddag();
+
+        for (String word : WORDS) {
+            assertTrue(gaddag.containsWord(word), word);
+        }
+        assertFalse(gaddag.containsWord("BATH"));
+    }
+}
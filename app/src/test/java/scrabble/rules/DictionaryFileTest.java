@@ -0,0 +1,66 @@
+package scrabble.rules;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import scrabble.rules.game.GameRules;
+
+public class DictionaryFileTest {
+    private static final List<String> WORDS = List.of("AND", "ANT", "ANTS", "BAND", "BANDS", "CAT");
+
+    @BeforeAll
+    static void initialSetup() {
+        GameRules.load("src/main/resources/scrabble.json"); // or correct path
+    }
+
+    private static Path tempFile() throws IOException {
+        Path file = Files.createTempFile("dictionary", ".dawg");
+        file.toFile().deleteOnExit();
+        return file;
+    }
+
+    @Test
+    void testCompileAndMap() throws IOException {
+        Path wordList = tempFile();
+        Files.write(wordList, WORDS);
+        Path compiled = tempFile();
+
+        DictionaryFile.compile(wordList, compiled);
+        TrieDictionary dictionary = DictionaryFile.map(compiled);
+
+        for (String word : WORDS) {
+            assertTrue(dictionary.isWord(word), word);
+            assertTrue(dictionary.getGaddag().containsWord(word), word);
+        }
+        assertFalse(dictionary.isWord("BAN"));
+        assertTrue(dictionary.isPrefix("BAN".toCharArray()));
+        assertFalse(dictionary.getGaddag().containsWord("BAN"));
+    }
+
+    @Test
+    void testMappedMatchesBuilt() throws IOException {
+        TrieDictionary built = new DawgBuilder().addAll(WORDS).build();
+        Path compiled = tempFile();
+
+        DictionaryFile.write(built, compiled);
+        TrieDictionary mapped = DictionaryFile.map(compiled);
+
+        assertEquals(built.stats(), mapped.stats());
+        assertEquals(built.getGaddag().getPacked().stats(), mapped.getGaddag().getPacked().stats());
+    }
+
+    @Test
+    void testRejectsOtherFiles() throws IOException {
+        Path file = tempFile();
+        Files.write(file, WORDS);
+
+        assertThrows(IOException.class, () -> DictionaryFile.map(file));
+    }
+}
@@ -0,0 +1,18 @@
+package scrabble.rules;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+
+import org.junit.jupiter.api.Test;
+
+public class DictionaryProviderTest {
+
+    @Test
+    void testFailedLoadLeavesDictionaryUnloaded() {
+        assertThrows(IOException.class, () -> DictionaryProvider.loadFromFile("does/not/exist.txt"));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, DictionaryProvider::get);
+        assertTrue(e.getMessage().startsWith("Dictionary not loaded"));
+    }
+}
@@ -0,0 +1,120 @@
+package scrabble.rules;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import scrabble.rules.game.GameRules;
+
+public class LexiconRegistryTest {
+
+    @BeforeAll
+    static void initialSetup() {
+        GameRules.load("src/main/resources/scrabble.json");
+    }
+
+    private static Path tempFile() throws IOException {
+        Path file = Files.createTempFile("lexicon", ".txt");
+        file.toFile().deleteOnExit();
+        return file;
+    }
+
+    @Test
+    void testLoadsLazilyAndOnce() {
+        LexiconRegistry registry = new LexiconRegistry();
+        AtomicInteger loads = new AtomicInteger();
+        registry.register("small", () -> {
+            loads.incrementAndGet();
+            return new TrieDictionary(List.of("AND"));
+        });
+
+        assertEquals(0, loads.get());
+        TrieDictionary dictionary = registry.get("small");
+        assertSame(dictionary, registry.get("small"));
+        assertEquals(1, loads.get());
+        assertTrue(dictionary.isWord("AND"));
+    }
+
+    @Test
+    void testLexiconsAreSeparate() {
+        LexiconRegistry registry = new LexiconRegistry();
+        registry.register("first", () -> new TrieDictionary(List.of("AND")));
+        registry.register("second", () -> new TrieDictionary(List.of("CAT")));
+
+        assertEquals(Set.of("first", "second"), registry.ids());
+        assertTrue(registry.get("first").isWord("AND"));
+        assertFalse(registry.get("first").isWord("CAT"));
+        assertTrue(registry.get("second").isWord("CAT"));
+    }
+
+    @Test
+    void testReloadSwapsVersion() throws IOException {
+        Path wordList = tempFile();
+        Files.write(wordList, List.of("AND"));
+
+        LexiconRegistry registry = new LexiconRegistry();
+        registry.register("words", LexiconRegistry.textFile(wordList));
+        TrieDictionary old = registry.get("words");
+
+        Files.write(wordList, List.of("AND", "CAT"));
+        TrieDictionary reloaded = registry.reload("words");
+
+        assertSame(reloaded, registry.get("words"));
+        assertTrue(reloaded.isWord("CAT"));
+
+        // The old version is untouched for searches still using it
+        assertTrue(old.isWord("AND"));
+        assertFalse(old.isWord("CAT"));
+    }
+
+    @Test
+    void testReloadWithNewSource() throws IOException {
+        LexiconRegistry registry = new LexiconRegistry();
+        registry.reload("words", () -> new TrieDictionary(List.of("AND")));
+        registry.reload("words", () -> new TrieDictionary(List.of("CAT")));
+
+        assertTrue(registry.get("words").isWord("CAT"));
+        assertFalse(registry.get("words").isWord("AND"));
+    }
+
+    @Test
+    void testFailedReloadKeepsVersion() {
+        LexiconRegistry registry = new LexiconRegistry();
+        registry.register("words", () -> new TrieDictionary(List.of("AND")));
+        TrieDictionary current = registry.get("words");
+
+        assertThrows(IOException.class, () -> registry.reload("words", () -> {
+            throw new IOException("missing");
+        }));
+        assertSame(current, registry.get("words"));
+    }
+
+    @Test
+    void testFailedFirstLoadDoesNotRegister() {
+        LexiconRegistry registry = new LexiconRegistry();
+
+        assertThrows(IOException.class, () -> registry.reload("words", () -> {
+            throw new IOException("missing");
+        }));
+        assertFalse(registry.isRegistered("words"));
+        assertThrows(IllegalArgumentException.class, () -> registry.get("words"));
+    }
+
+    @Test
+    void testUnknownLexicon() {
+        LexiconRegistry registry = new LexiconRegistry();
+
+        assertThrows(IllegalArgumentException.class, () -> registry.get("missing"));
+        registry.register("words", () -> new TrieDictionary(List.of("AND")));
+        assertThrows(IllegalArgumentException.class,
+                () -> registry.register("words", () -> new TrieDictionary(List.of("CAT"))));
+    }
+}
@@ -0,0 +1,82 @@
+package scrabble.rules;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import scrabble.core.Move;
+import scrabble.core.Position;
+import scrabble.core.components.Board;
+import scrabble.rules.game.GameConstants;
+import scrabble.rules.game.GameRules;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoveScorerTest {
+
+    @BeforeAll
+    static void setup() {
+        GameRules.load("src/main/resources/scrabble.json");
+    }
+
+    private static Board board(String... rows) {
+        StringBuilder sb = new StringBuilder();
+        for (String row : rows) {
+            sb.append(row);
+        }
+        while (sb.length() < 225) {
+            sb.append('.');
+        }
+        return Board.fromString(sb.toString().replace('.', GameConstants.EMPTY_SQUARE));
+    }
+
+    @Test
+    void testSingleTileScoresOnlyItsWord() {
+        Board board = board(
+                "...............",
+                "...............",
+                "...............",
+                "...............",
+                "...............",
+                "...............",
+                ".....A.........",
+                ".....T.........");
+        Move move = new Move(new Position[] { new Position(8, 5) }, new char[] { 'S' });
+
+        // ATS, the S is not also counted as a word across
+        assertEquals(3, MoveScorer.score(board, move));
+    }
+
+    @Test
+    void testCrossWordsAndBlanks() {
+        Board board = board(
+                "...............",
+                "...............",
+                "...............",
+                "...............",
+                "...............",
+                "...............",
+                "......A........");
+        Position[] positions = { new Position(7, 5), new Position(7, 6), new Position(7, 7) };
+
+        // CAT across, AA down
+        assertEquals(5 + 2, MoveScorer.score(board, new Move(positions, new char[] { 'C', 'A', 'T' })));
+        assertEquals(4 + 1, MoveScorer.score(board, new Move(positions, new char[] { 'C', 'a', 'T' })));
+    }
+
+    @Test
+    void testPackedAndMoveScoresAgree() {
+        Board board = board(
+                "...............",
+                "...............",
+                "...............",
+                "...............",
+                "...............",
+                "...............",
+                "...............",
+                "......WORDS....");
+        Move move = new Move(new Position[] { new Position(6, 8), new Position(8, 8), new Position(9, 8) },
+                new char[] { 'S', 'A', 'T' });
+
+        assertEquals(MoveScorer.score(board, move), MoveScorer.score(board, move.getPacked()));
+        assertTrue(MoveScorer.score(board, move) > 0);
+    }
+}
@@ -0,0 +1,124 @@
+package scrabble.rules;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import scrabble.rules.game.BagConstants;
+import scrabble.rules.game.GameConstants;
+import scrabble.rules.game.GameRules;
+
+public class PackedDictionaryTest {
+    private static final List<String> WORDS = List.of("AND", "ANT", "ANTS", "BAND", "BANDS", "CAT");
+
+    @BeforeAll
+    static void initialSetup() {
+        GameRules.load("src/main/resources/scrabble.json"); // or correct path
+    }
+
+    private static int walk(PackedDictionary packed, String word) {
+        int node = packed.root();
+        for (int i = 0; i < word.length() && node != PackedDictionary.NO_NODE; i++) {
+            node = packed.child(node, BagConstants.getIndex(word.charAt(i)));
+        }
+        return node;
+    }
+
+    @Test
+    void testCursor() {
+        PackedDictionary packed = new TrieDictionary(WORDS).getPacked();
+
+        int an = walk(packed, "AN");
+        assertNotEquals(PackedDictionary.NO_NODE, an);
+        assertFalse(packed.isWord(an));
+
+        int mask = (1 << BagConstants.getIndex('D')) | (1 << BagConstants.getIndex('T'));
+        assertEquals(mask, packed.childMask(an));
+
+        assertTrue(packed.isWord(packed.child(an, BagConstants.getIndex('T'))));
+        assertEquals(PackedDictionary.NO_NODE, packed.child(an, BagConstants.getIndex('S')));
+        assertEquals(PackedDictionary.NO_NODE, walk(packed, "CB"));
+    }
+
+    @Test
+    void testWordsAndPrefixes() {
+        TrieDictionary dictionary = new TrieDictionary(WORDS);
+
+        for (String word : WORDS) {
+            assertTrue(dictionary.isWord(word), word);
+        }
+        assertFalse(dictionary.isWord("BAN"));
+        assertFalse(dictionary.isWord("CATS"));
+        assertTrue(dictionary.isPrefix("BAN".toCharArray()));
+        assertFalse(dictionary.isPrefix("ANDS".toCharArray()));
+        assertTrue(dictionary.isWord("and")); // blanks on the board are lower case
+    }
+
+    @Test
+    void testForEachWord() {
+        List<String> words = new ArrayList<>();
+        new DawgBuilder().addAll(WORDS).build().getPacked().forEachWord(words::add);
+
+        assertEquals(WORDS.size(), words.size());
+        assertTrue(words.containsAll(WORDS));
+    }
+
+    @Test
+    void testUnpackKeepsSharing() {
+        TrieDictionary dictionary = new DawgBuilder().addAll(WORDS).build();
+        TrieNode root = dictionary.getRoot();
+
+        TrieNode fromA = root.getChild('A').orElseThrow().getChild('N').orElseThrow().getChild('D').orElseThrow();
+        TrieNode fromB = root.getChild('B').orElseThrow().getChild('A').orElseThrow().getChild('N').orElseThrow()
+                .getChild('D').orElseThrow();
+        assertTrue(fromA.isWord);
+        assertNotSame(fromA, fromB); // BANDS continues, AND does not
+        assertSame(fromB.getChild('S').orElseThrow(), root.getChild('A').orElseThrow().getChild('N').orElseThrow()
+                .getChild('T').orElseThrow().getChild('S').orElseThrow());
+        assertEquals(dictionary.stats().nodes(), DictionaryStats.of(root).nodes());
+    }
+
+    @Test
+    void testCharRanges() {
+        TrieDictionary dictionary = new TrieDictionary(WORDS);
+        char[] buf = "XBANDSX".toCharArray();
+
+        assertTrue(dictionary.isWord(buf, 1, 5));
+        assertTrue(dictionary.isWord(buf, 1, 6));
+        assertTrue(dictionary.isWord(buf, 2, 5));
+        assertFalse(dictionary.isWord(buf, 1, 4));
+        assertFalse(dictionary.isWord(buf, 0, 5));
+        assertTrue(dictionary.isPrefix(buf, 1, 4));
+        assertTrue(dictionary.isPrefix(buf, 2, 2));
+        assertFalse(dictionary.isPrefix(buf, 5, 7));
+
+        // Blanks are lower case
+        assertTrue(dictionary.isWord("bAnd".toCharArray(), 0, 4));
+    }
+
+    @Test
+    void testLineValid() {
+        TrieDictionary dictionary = new TrieDictionary(WORDS);
+        char empty = GameConstants.EMPTY_SQUARE;
+
+        char[] line = { 'C', 'A', 'T', empty, 'X', empty, 'A', 'n', 'd' };
+        assertTrue(dictionary.isLineValid(line, 0, 1, line.length));
+
+        // Ends in a run that is only a prefix
+        line = new char[] { 'C', 'A', 'T', empty, 'A', 'N' };
+        assertFalse(dictionary.isLineValid(line, 0, 1, line.length));
+
+        // Run of letters with no path in the dictionary
+        line = new char[] { empty, 'X', 'Y', empty };
+        assertFalse(dictionary.isLineValid(line, 0, 1, line.length));
+
+        // Every third square: A, N, T
+        char[] squares = { 'A', empty, 'Q', 'N', 'Q', empty, 'T', 'Q', 'Q' };
+        assertTrue(dictionary.isLineValid(squares, 0, 3, 3));
+        assertFalse(dictionary.isLineValid(squares, 0, 2, 5));
+    }
+}
@@ -0,0 +1,82 @@
+package scrabble.rules;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import scrabble.rules.game.GameRules;
+
+public class ParallelDawgBuilderTest {
+    private static final List<String> WORDS = List.of("CAT", "CATS", "BAT", "BATS", "RAT", "RATS", "BATHING",
+            "CATHING", "ACT", "ACTS");
+
+    @BeforeAll
+    static void initialSetup() {
+        GameRules.load("src/main/resources/scrabble.json"); // or correct path
+    }
+
+    private static BufferedReader reader(List<String> lines) {
+        return new BufferedReader(new StringReader(String.join("\n", lines)));
+    }
+
+    private static List<String> words(TrieDictionary dictionary) {
+        List<String> words = new ArrayList<>();
+        dictionary.getPacked().forEachWord(words::add);
+        return words;
+    }
+
+    @Test
+    void testSameDictionaryAsDawgBuilder() throws IOException {
+        TrieDictionary expected = new DawgBuilder().addAll(WORDS).build();
+
+        // A chunk size of 3 inserts the list over several chunks
+        TrieDictionary dictionary = new ParallelDawgBuilder(3).build(reader(WORDS));
+
+        assertEquals(words(expected), words(dictionary));
+        assertEquals(expected.stats(), dictionary.stats());
+    }
+
+    @Test
+    void testNormalizesAndCounts() throws IOException {
+        ParallelDawgBuilder builder = new ParallelDawgBuilder(2);
+        TrieDictionary dictionary = builder.build(reader(List.of(" cat", "CAT ", "", "Bat", "C4T", "A?", "bat")));
+
+        assertEquals(List.of("BAT", "CAT"), words(dictionary));
+
+        DictionaryBuildReport report = builder.getReport();
+        assertEquals(7, report.lines());
+        assertEquals(2, report.words());
+        assertEquals(2, report.duplicates());
+        assertEquals(2, report.rejected());
+        assertEquals(List.of("C4T", "A?"), report.rejectedSamples());
+        assertEquals(dictionary.stats(), report.packedStats());
+    }
+
+    @Test
+    void testReadsGzip() throws IOException {
+        Path file = Files.createTempFile("words", ".txt.gz");
+        file.toFile().deleteOnExit();
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write(String.join("\n", WORDS).getBytes(StandardCharsets.UTF_8));
+        }
+
+        TrieDictionary dictionary = new ParallelDawgBuilder().build(file);
+
+        for (String word : WORDS) {
+            assertTrue(dictionary.isWord(word), word);
+        }
+        assertFalse(dictionary.isWord("BATH"));
+    }
+}